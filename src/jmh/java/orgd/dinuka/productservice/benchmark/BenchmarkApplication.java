@@ -0,0 +1,88 @@
+package orgd.dinuka.productservice.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import orgd.dinuka.productservice.ProductServiceApplication;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.Tag;
+import orgd.dinuka.productservice.service.ProductService;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Boots the application without a web server against a private in-memory H2 database and seeds a catalog, so
+ * every benchmark run starts from the same data and needs nothing outside the JVM.
+ */
+final class BenchmarkApplication {
+
+    static final int CATEGORY_COUNT = 10;
+    static final int TAG_COUNT = 20;
+    static final int TAGS_PER_PRODUCT = 3;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        return new SpringApplicationBuilder(ProductServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                // Passed as arguments so they take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        // The reactive read path opens the same in-memory database over R2DBC
+                        "--product.reactive.url=r2dbc:h2:mem:///" + databaseName + "?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--product.reactive.username=sa",
+                        "--product.reactive.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * Inserts {@code count} products spread over the seeded categories and tags and returns them in id order.
+     */
+    static List<Product> seed(ConfigurableApplicationContext context, int count) {
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        List<Category> categories = new ArrayList<>();
+        List<Tag> tags = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+            for (int i = 0; i < CATEGORY_COUNT; i++) {
+                Category category = new Category(null, "Category " + i, "Benchmark category " + i, new ArrayList<>());
+                entityManager.persist(category);
+                categories.add(category);
+            }
+            for (int i = 0; i < TAG_COUNT; i++) {
+                Tag tag = new Tag(null, "Tag " + i, new HashSet<>());
+                entityManager.persist(tag);
+                tags.add(tag);
+            }
+        });
+
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product("Product " + i, i, categories.get(i % CATEGORY_COUNT), tags));
+        }
+        context.getBean(ProductService.class).bulkUpsert(products.iterator());
+        return products;
+    }
+
+    static Product product(String name, int seed, Category category, List<Tag> tags) {
+        Set<Tag> productTags = new HashSet<>();
+        for (int t = 0; t < TAGS_PER_PRODUCT; t++) {
+            productTags.add(tags.get((seed + t) % tags.size()));
+        }
+        return new Product(null, name, 10.0 + seed % 500, seed % 100, category, productTags);
+    }
+}
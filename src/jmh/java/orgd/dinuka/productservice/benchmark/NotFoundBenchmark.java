@@ -0,0 +1,64 @@
+package orgd.dinuka.productservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import orgd.dinuka.productservice.exception.GlobalExceptionHandler;
+import orgd.dinuka.productservice.exception.ProductNotFoundException;
+import orgd.dinuka.productservice.service.ProductService;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NotFoundBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private GlobalExceptionHandler exceptionHandler;
+    private long missingId = 1_000_000L;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("not-found-benchmark");
+        productService = context.getBean(ProductService.class);
+        exceptionHandler = context.getBean(GlobalExceptionHandler.class);
+        BenchmarkApplication.seed(context, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Lookup of an id that does not exist, through to the exception the controller would see
+    @Benchmark
+    public Object missingProductLookup() {
+        try {
+            return productService.getProductById(missingId++);
+        } catch (ProductNotFoundException ex) {
+            return ex;
+        }
+    }
+
+    // Name that was never created, ruled out by the existence index before any query
+    @Benchmark
+    public Object missingNameLookup() {
+        try {
+            return productService.getProductByName("missing-" + missingId++);
+        } catch (ProductNotFoundException ex) {
+            return ex;
+        }
+    }
+
+    // Building the 404 body once the exception has been thrown
+    @Benchmark
+    public ResponseEntity<?> notFoundResponse() {
+        return exceptionHandler.handleNotFoundException(
+                new ProductNotFoundException("Product with ID " + missingId + " not found"));
+    }
+}
@@ -0,0 +1,76 @@
+package orgd.dinuka.productservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.service.ProductService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductReadBenchmark {
+
+    @Param("1000")
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository repository;
+    private List<Product> products;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("read-benchmark");
+        productService = context.getBean(ProductService.class);
+        repository = context.getBean(ProductRepository.class);
+        products = BenchmarkApplication.seed(context, catalogSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private Product nextProduct() {
+        next = (next + 1) % products.size();
+        return products.get(next);
+    }
+
+    // Served from the product cache once warmed up
+    @Benchmark
+    public Product getProductById() {
+        return productService.getProductById(nextProduct().getId());
+    }
+
+    // Same lookup straight from the database, without the cache
+    @Benchmark
+    public Optional<Product> findByIdUncached() {
+        return repository.findById(nextProduct().getId());
+    }
+
+    @Benchmark
+    public Product getProductByName() {
+        return productService.getProductByName(nextProduct().getName());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Product> getAll() {
+        return productService.getAll();
+    }
+
+    @Benchmark
+    public ProductPage getFirstPage() {
+        return productService.getPage(null, 50);
+    }
+}
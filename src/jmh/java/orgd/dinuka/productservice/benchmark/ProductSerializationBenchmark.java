@@ -0,0 +1,52 @@
+package orgd.dinuka.productservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.Tag;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Product> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        Category category = new Category(1L, "Electronics", "Electronic items", new ArrayList<>());
+        Set<Tag> tags = new HashSet<>();
+        for (long i = 1; i <= 5; i++) {
+            tags.add(new Tag(i, "Tag " + i, new HashSet<>()));
+        }
+        product = new Product(1L, "Television", 499.99, 12, category, tags);
+        page = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            page.add(new Product(i, "Product " + i, 10.0 + i, (int) i, category, tags));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializePageOf50() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
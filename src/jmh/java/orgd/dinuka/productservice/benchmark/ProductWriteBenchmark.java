@@ -0,0 +1,50 @@
+package orgd.dinuka.productservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.service.ProductService;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductWriteBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private List<Product> products;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("write-benchmark");
+        productService = context.getBean(ProductService.class);
+        products = BenchmarkApplication.seed(context, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product addProduct() {
+        next++;
+        return productService.addProduct(new Product(null, "Added " + next, 10.0, 1, null, new HashSet<>()));
+    }
+
+    @Benchmark
+    public Product updateProduct() {
+        next++;
+        Product product = productService.getProductById(products.get(next % products.size()).getId());
+        product.setPrice(10.0 + next % 100);
+        return productService.updateProduct(product.getId(), product);
+    }
+}
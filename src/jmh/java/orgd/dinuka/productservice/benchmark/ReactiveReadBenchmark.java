@@ -0,0 +1,127 @@
+package orgd.dinuka.productservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.service.ProductService;
+import orgd.dinuka.productservice.service.ReactiveProductService;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The blocking JPA read path against the reactive R2DBC one on the same data, both without the product cache.
+ * <p>
+ * The single-call benchmarks compare the cost of one lookup or page. The concurrent ones issue {@code concurrency}
+ * lookups at once, the way simultaneous requests arrive: the blocking path needs a thread for each, as Tomcat would
+ * use, while the reactive path keeps them all in flight on the driver's few threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReactiveReadBenchmark {
+
+    @Param("1000")
+    private int catalogSize;
+
+    @Param("200")
+    private int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ReactiveProductService reactiveProductService;
+    private ProductRepository repository;
+    private TransactionTemplate readOnlyTransaction;
+    private ExecutorService requestThreads;
+    private List<Product> products;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("reactive-read-benchmark");
+        productService = context.getBean(ProductService.class);
+        reactiveProductService = context.getBean(ReactiveProductService.class);
+        repository = context.getBean(ProductRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        requestThreads = Executors.newFixedThreadPool(concurrency);
+        products = BenchmarkApplication.seed(context, catalogSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestThreads.shutdownNow();
+        context.close();
+    }
+
+    private long nextId() {
+        next = (next + 1) % products.size();
+        return products.get(next).getId();
+    }
+
+    @Benchmark
+    public ProductDetail jpaFindById() {
+        return jpaDetail(nextId());
+    }
+
+    @Benchmark
+    public ProductDetail reactiveFindById() {
+        return reactiveProductService.getProductById(nextId()).block();
+    }
+
+    @Benchmark
+    public ProductPage jpaFirstPage() {
+        return productService.getPage(null, 50);
+    }
+
+    @Benchmark
+    public ProductPage reactiveFirstPage() {
+        return reactiveProductService.getPage(null, 50).block();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int jpaConcurrentLookups() throws InterruptedException, ExecutionException {
+        List<Future<ProductDetail>> results = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long id = nextId();
+            results.add(requestThreads.submit(() -> jpaDetail(id)));
+        }
+        for (Future<ProductDetail> result : results) {
+            result.get();
+        }
+        return results.size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long reactiveConcurrentLookups() {
+        List<Long> ids = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            ids.add(nextId());
+        }
+        return Flux.fromIterable(ids)
+                .flatMap(reactiveProductService::getProductById, concurrency)
+                .count()
+                .block();
+    }
+
+    // As the blocking endpoints read it: entity and associations in one read-only transaction
+    private ProductDetail jpaDetail(long id) {
+        return readOnlyTransaction.execute(status -> repository.findById(id).map(ProductDetail::of).orElseThrow());
+    }
+}
@@ -0,0 +1,137 @@
+package orgd.dinuka.productservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import orgd.dinuka.productservice.entity.Product;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-process read-through cache of product snapshots.
+ * <p>
+ * The id tier is authoritative: entries are only loaded through Caffeine's atomic {@code get}, and writers
+ * {@link #put} or {@link #evict} after their change is committed, so an in-flight load of an older row can
+ * never overwrite a newer one. The name tier only maps a name to an id and is re-checked against the id
+ * entry on every hit, which makes renames and deletes safe without scanning the cache. Names are keyed in their
+ * normalized form, matching the case-insensitive lookup in the repository.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+
+    private final Cache<Long, ProductSnapshot> byId;
+    private final Cache<String, Long> idsByName;
+
+    public ProductCache(@Value("${product.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product.cache.ttl:10m}") Duration ttl) {
+        // Caffeine's default eviction policy is W-TinyLFU
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        log.info("Product cache initialised with maximum size {} and TTL {}", maximumSize, ttl);
+    }
+
+    public Optional<Product> getById(Long id, Function<Long, Optional<Product>> loader) {
+        return findSnapshot(id, loader).map(ProductSnapshot::toProduct);
+    }
+
+    /**
+     * Looks a product up by name, ignoring case and surrounding whitespace. {@code nameLoader} is given the
+     * normalized name.
+     */
+    public Optional<Product> getByName(String name, Function<String, Optional<Product>> nameLoader,
+                                       Function<Long, Optional<Product>> idLoader) {
+        String key = Product.normalizeName(name);
+        Long id = idsByName.getIfPresent(key);
+        if (id != null) {
+            Optional<ProductSnapshot> snapshot = findSnapshot(id, idLoader);
+            if (snapshot.isPresent() && key.equals(Product.normalizeName(snapshot.get().name()))) {
+                return snapshot.map(ProductSnapshot::toProduct);
+            }
+            // Renamed or deleted since the hint was recorded
+            idsByName.invalidate(key);
+        }
+        Optional<Product> loaded = nameLoader.apply(key);
+        // Only remember where to look; the row itself is cached through the id tier's atomic load
+        loaded.ifPresent(product -> idsByName.put(key, product.getId()));
+        return loaded;
+    }
+
+    /**
+     * The version of the cached copy of a product, without loading it when it is not cached.
+     */
+    public Optional<Long> getCachedVersion(Long id) {
+        return Optional.ofNullable(byId.getIfPresent(id)).map(ProductSnapshot::version);
+    }
+
+    /**
+     * Returns the cached products among {@code ids} without loading the others.
+     */
+    public Map<Long, Product> getAllPresent(Collection<Long> ids) {
+        Map<Long, Product> present = new LinkedHashMap<>();
+        byId.getAllPresent(ids).forEach((id, snapshot) -> present.put(id, snapshot.toProduct()));
+        return present;
+    }
+
+    /**
+     * Ids of up to {@code limit} cached products, the ones the eviction policy is most likely to retain first.
+     */
+    public List<Long> hottestIds(int limit) {
+        return byId.policy().eviction()
+                .map(eviction -> List.copyOf(eviction.hottest(limit).keySet()))
+                .orElse(List.of());
+    }
+
+    public void put(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        byId.put(product.getId(), ProductSnapshot.of(product));
+        if (product.getName() != null) {
+            idsByName.put(Product.normalizeName(product.getName()), product.getId());
+        }
+    }
+
+    public void evict(Long id) {
+        byId.invalidate(id);
+    }
+
+    public Map<String, Map<String, Number>> stats() {
+        Map<String, Map<String, Number>> stats = new LinkedHashMap<>();
+        stats.put("byId", describe(byId.stats(), byId.estimatedSize()));
+        stats.put("byName", describe(idsByName.stats(), idsByName.estimatedSize()));
+        return stats;
+    }
+
+    private Optional<ProductSnapshot> findSnapshot(Long id, Function<Long, Optional<Product>> loader) {
+        // A null result is not cached, so misses for unknown ids keep going to the loader
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).map(ProductSnapshot::of).orElse(null)));
+    }
+
+    private static Map<String, Number> describe(CacheStats cacheStats, long size) {
+        Map<String, Number> description = new LinkedHashMap<>();
+        description.put("size", size);
+        description.put("hits", cacheStats.hitCount());
+        description.put("misses", cacheStats.missCount());
+        description.put("evictions", cacheStats.evictionCount());
+        description.put("hitRate", cacheStats.hitRate());
+        return description;
+    }
+}
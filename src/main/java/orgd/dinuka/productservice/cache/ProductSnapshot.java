@@ -0,0 +1,46 @@
+package orgd.dinuka.productservice.cache;
+
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.Tag;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable copy of a product as it was when cached. Callers always get a fresh {@link Product} built from it,
+ * so nothing they do to the returned entity can leak back into the cache.
+ */
+public record ProductSnapshot(Long id, String name, double price, int quantity, Long version,
+                              CategorySnapshot category, List<TagSnapshot> tags) {
+
+    public record CategorySnapshot(Long id, String name, String description) {
+    }
+
+    public record TagSnapshot(Long id, String name) {
+    }
+
+    public static ProductSnapshot of(Product product) {
+        Category category = product.getCategory();
+        CategorySnapshot categorySnapshot = category == null ? null
+                : new CategorySnapshot(category.getId(), category.getName(), category.getDescription());
+        List<TagSnapshot> tagSnapshots = new ArrayList<>();
+        if (product.getTags() != null) {
+            product.getTags().forEach(tag -> tagSnapshots.add(new TagSnapshot(tag.getId(), tag.getName())));
+        }
+        return new ProductSnapshot(product.getId(), product.getName(), product.getPrice(), product.getQuantity(),
+                product.getVersion(), categorySnapshot, List.copyOf(tagSnapshots));
+    }
+
+    public Product toProduct() {
+        Category productCategory = category == null ? null
+                : new Category(category.id(), category.name(), category.description(), new ArrayList<>());
+        Set<Tag> productTags = new HashSet<>();
+        tags.forEach(tag -> productTags.add(new Tag(tag.id(), tag.name(), new HashSet<>())));
+        Product product = new Product(id, name, price, quantity, productCategory, productTags);
+        product.setVersion(version);
+        return product;
+    }
+}
@@ -0,0 +1,54 @@
+package orgd.dinuka.productservice.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Hit and miss counts of Hibernate's second-level cache regions and of its query cache, in the same shape as
+ * {@link ProductCache#stats()}. The same figures are published as {@code hibernate.second.level.cache.requests}
+ * and {@code hibernate.cache.query.requests} meters.
+ */
+@Component
+public class SecondLevelCacheStats {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Empty unless hibernate.generate_statistics is on
+    public Map<String, Map<String, Number>> stats() {
+        Map<String, Map<String, Number>> stats = new LinkedHashMap<>();
+        if (!statistics.isStatisticsEnabled()) {
+            return stats;
+        }
+        for (String region : new TreeSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()))) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                stats.put("secondLevel." + region, describe(regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(), regionStatistics.getPutCount()));
+            }
+        }
+        stats.put("queries", describe(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+        return stats;
+    }
+
+    private static Map<String, Number> describe(long hits, long misses, long puts) {
+        Map<String, Number> description = new LinkedHashMap<>();
+        description.put("hits", hits);
+        description.put("misses", misses);
+        description.put("puts", puts);
+        description.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return description;
+    }
+}
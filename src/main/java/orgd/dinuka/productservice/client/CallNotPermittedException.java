@@ -0,0 +1,9 @@
+package orgd.dinuka.productservice.client;
+
+// Stackless, like ResourceNotFoundException: raised on every call while the breaker is open, so it must stay cheap
+public class CallNotPermittedException extends RuntimeException {
+
+    public CallNotPermittedException(String message) {
+        super(message, null, false, false);
+    }
+}
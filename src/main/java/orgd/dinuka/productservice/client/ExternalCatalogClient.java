@@ -0,0 +1,90 @@
+package orgd.dinuka.productservice.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads from the external catalog without blocking the caller.
+ * <p>
+ * Each path has one shared {@link Mono}: while a request is in flight every caller subscribes to that same request,
+ * and a successful response is replayed for {@code cache-ttl} before the next caller triggers a new one. Failures are
+ * never cached. Calls go through a {@link CircuitBreaker} so a failing upstream is not hammered.
+ */
+@Component
+@Slf4j
+public class ExternalCatalogClient {
+
+    static final String USERS_PATH = "/users";
+    static final String REQUEST_TIMER = "product.external.requests";
+
+    private static final ParameterizedTypeReference<List<Object>> LIST_OF_OBJECTS = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final Duration cacheTtl;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Mono<List<Object>>> sharedResponses = new ConcurrentHashMap<>();
+
+    public ExternalCatalogClient(WebClient externalCatalogWebClient,
+                                 @Value("${product.external.cache-ttl:30s}") Duration cacheTtl,
+                                 @Value("${product.external.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                 @Value("${product.external.circuit-breaker.open-duration:30s}") Duration openDuration,
+                                 MeterRegistry meterRegistry) {
+        this.webClient = externalCatalogWebClient;
+        this.meterRegistry = meterRegistry;
+        this.cacheTtl = cacheTtl;
+        this.circuitBreaker = new CircuitBreaker("external-catalog", failureThreshold, openDuration);
+    }
+
+    public Mono<List<Object>> fetchUsers() {
+        return sharedResponses.computeIfAbsent(USERS_PATH, this::sharedRequest);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private Mono<List<Object>> sharedRequest(String path) {
+        return Mono.defer(() -> request(path))
+                .cache(response -> cacheTtl, error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private Mono<List<Object>> request(String path) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return Mono.error(new CallNotPermittedException("Circuit breaker is open for external catalog call " + path));
+        }
+        log.debug("Calling external catalog {}", path);
+        // Times real upstream round trips only; callers served from the shared response are not counted
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return webClient.get()
+                .uri(path)
+                .retrieve()
+                .bodyToMono(LIST_OF_OBJECTS)
+                .defaultIfEmpty(List.of())
+                .doOnSuccess(response -> circuitBreaker.onSuccess())
+                .doOnError(error -> circuitBreaker.onError())
+                .doOnCancel(circuitBreaker::onCancel)
+                .doOnSuccess(response -> sample.stop(requestTimer(path, "success")))
+                .doOnError(error -> sample.stop(requestTimer(path, "error")));
+    }
+
+    private Timer requestTimer(String path, String outcome) {
+        return Timer.builder(REQUEST_TIMER)
+                .tag("path", path)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,70 @@
+package orgd.dinuka.productservice.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.Tag;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Backs Hibernate's second-level and query caches with bounded in-process Caffeine caches, one per region. Entries
+ * are replaced by Hibernate when a row is written through it and expire after {@code product.l2-cache.ttl}, which
+ * bounds how long an edit made outside this service can stay visible. Every region is created here and Hibernate is
+ * told to fail on any other, so a mapping that names an unknown region is caught at startup.
+ */
+@Configuration
+@Slf4j
+public class HibernateCacheConfiguration {
+
+    public static final String REFERENCE_QUERY_REGION = "reference-data-queries";
+
+    private static final List<String> BOUNDED_REGIONS = List.of(Category.CACHE_REGION, Tag.CACHE_REGION,
+            Product.TAGS_CACHE_REGION, REFERENCE_QUERY_REGION,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${product.l2-cache.maximum-size:10000}") long maximumSize,
+                                              @Value("${product.l2-cache.ttl:1h}") Duration ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // A manager of its own rather than the provider's shared default, so closing it cannot affect another context
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+        BOUNDED_REGIONS.forEach(region -> cacheManager.createCache(region, bounded(maximumSize, ttl)));
+        // One entry per table; an evicted timestamp would let a query result outlive a write to its table
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        log.info("Second-level cache regions created with maximum size {} and TTL {}", maximumSize, ttl);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuration;
+    }
+}
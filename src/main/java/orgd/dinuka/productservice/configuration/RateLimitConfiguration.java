@@ -0,0 +1,56 @@
+package orgd.dinuka.productservice.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import orgd.dinuka.productservice.dao.RepositoryConcurrencyLimiter;
+import orgd.dinuka.productservice.ratelimit.LoadSheddingFilter;
+import orgd.dinuka.productservice.ratelimit.RateLimitFilter;
+import orgd.dinuka.productservice.ratelimit.RateLimitProperties;
+
+import java.time.Duration;
+
+/**
+ * Puts rate limiting and then load shedding in front of the product API. Both run after Spring Boot's observation
+ * filter, so rejected requests still show up in {@code http.server.requests}, and neither covers the actuator
+ * endpoints, so health probes are always answered.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfiguration {
+
+    private static final String PRODUCT_API = "/product/*";
+
+    @Bean
+    @ConditionalOnProperty(name = "product.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties,
+                                                                   ApplicationAvailability availability,
+                                                                   ObjectMapper objectMapper,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(properties, availability, objectMapper, meterRegistry));
+        registration.addUrlPatterns(PRODUCT_API);
+        registration.setOrder(0);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(
+            RepositoryConcurrencyLimiter concurrencyLimiter,
+            @Value("${product.load-shedding.max-in-flight:200}") int maxInFlight,
+            @Value("${product.load-shedding.max-pool-wait:200ms}") Duration maxPoolWait,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(
+                new LoadSheddingFilter(concurrencyLimiter, maxInFlight, maxPoolWait, objectMapper, meterRegistry));
+        registration.addUrlPatterns(PRODUCT_API);
+        registration.setOrder(1);
+        return registration;
+    }
+}
@@ -0,0 +1,51 @@
+package orgd.dinuka.productservice.configuration;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import orgd.dinuka.productservice.dao.ReactiveDatabaseProperties;
+
+/**
+ * The R2DBC pool behind the reactive read path.
+ * <p>
+ * The pool is deliberately not a bean: Spring Boot stops configuring the JDBC data source as soon as an R2DBC
+ * {@code ConnectionFactory} bean exists, and JPA still needs it. Only the {@link DatabaseClient} is shared, and the
+ * pool is closed with this configuration.
+ */
+@Configuration
+@EnableConfigurationProperties(ReactiveDatabaseProperties.class)
+public class ReactiveDatabaseConfiguration implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ReactiveDatabaseProperties properties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.url()).mutate();
+        if (properties.username() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.username());
+        }
+        if (properties.password() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.password());
+        }
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("product-reactive")
+                .initialSize(properties.initialSize())
+                .maxSize(properties.maxSize())
+                .maxIdleTime(properties.maxIdleTime())
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package orgd.dinuka.productservice.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import orgd.dinuka.productservice.dao.RepositoryConcurrencyLimiter;
+import orgd.dinuka.productservice.datasource.ReadRouting;
+import orgd.dinuka.productservice.datasource.ReadYourWritesFilter;
+import orgd.dinuka.productservice.datasource.ReplicaDataSourceProperties;
+import orgd.dinuka.productservice.datasource.ReplicaRouter;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits reads from writes once {@code product.datasource.replicas} are configured; without them the auto-configured
+ * single pool is used as before.
+ * <p>
+ * The application data source is a {@link LazyConnectionDataSourceProxy} over the primary that fetches the physical
+ * connection on the first statement, when it knows whether the transaction is read-only. Read-only transactions,
+ * including Spring Data's own finders, then go to the {@link ReplicaRouter}; everything else, and work outside a
+ * transaction, goes to the primary. Each pool has its own Hikari settings and metrics. The
+ * {@link RepositoryConcurrencyLimiter} wraps the primary pool only, for writes and for the reads that fall back to
+ * it alike, so replica reads neither take its permits nor are held up by them.
+ */
+@Configuration
+@ConditionalOnProperty("product.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfiguration {
+
+    private static final String READ_ROUTING_HOOK = "read-routing";
+
+    @Bean
+    public ReplicaRouter replicaRouter(DataSourceProperties dataSourceProperties,
+                                       ReplicaDataSourceProperties replicaProperties,
+                                       Environment environment,
+                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                       RepositoryConcurrencyLimiter concurrencyLimiter) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, "product-primary", binder, "spring.datasource.hikari", meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.replicas().size(); i++) {
+            ReplicaDataSourceProperties.Replica replica = replicaProperties.replicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.url())
+                    .username(replica.username() != null ? replica.username() : dataSourceProperties.determineUsername())
+                    .password(replica.password() != null ? replica.password() : dataSourceProperties.determinePassword())
+                    .build();
+            configurePool(dataSource, "product-replica-" + i, binder, "product.datasource.replicas[" + i + "].hikari",
+                    meterRegistry);
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReplicaRouter(primary, concurrencyLimiter.limit(primary), replicas, replicaProperties.maxLag(),
+                replicaProperties.lagQuery(), replicaProperties.validationTimeout());
+    }
+
+    // Not named dataSource, which the limiter would wrap as a whole; its primary is limited already
+    @Bean
+    @Primary
+    public DataSource readWriteDataSource(ReplicaRouter replicaRouter) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaRouter.getPrimary());
+        dataSource.setReadOnlyDataSource(replicaRouter);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaDataSourceProperties replicaProperties) {
+        return new ReadYourWritesFilter(replicaProperties.stickyWindow());
+    }
+
+    // Applied to the application task executor, which runs MVC async work such as streaming responses
+    @Bean
+    public TaskDecorator readRoutingTaskDecorator() {
+        return ReadRouting::propagate;
+    }
+
+    // Reactor schedules work such as the change stream's catch-up reads on its own threads
+    @PostConstruct
+    void propagateReadRoutingToReactor() {
+        Schedulers.onScheduleHook(READ_ROUTING_HOOK, ReadRouting::propagate);
+    }
+
+    @PreDestroy
+    void stopPropagatingReadRoutingToReactor() {
+        Schedulers.resetOnScheduleHook(READ_ROUTING_HOOK);
+    }
+
+    private static void configurePool(HikariDataSource dataSource, String poolName, Binder binder, String prefix,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        dataSource.setPoolName(poolName);
+        binder.bind(prefix, Bindable.ofInstance(dataSource));
+        meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+}
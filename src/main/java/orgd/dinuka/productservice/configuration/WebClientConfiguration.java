@@ -0,0 +1,47 @@
+package orgd.dinuka.productservice.configuration;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+
+/**
+ * Non-blocking HTTP client for the external catalog. Connections are pooled and reused across requests, and both
+ * connecting and waiting for a response are bounded, so a slow upstream cannot hold resources indefinitely.
+ */
+
+@Configuration
+public class WebClientConfiguration {
+
+
+    @Bean
+    public WebClient externalCatalogWebClient(@Value("${product.external.base-url}") String baseUrl,
+                                              @Value("${product.external.max-connections:50}") int maxConnections,
+                                              @Value("${product.external.connect-timeout:2s}") Duration connectTimeout,
+                                              @Value("${product.external.read-timeout:5s}") Duration readTimeout) {
+        return buildWebClient(baseUrl, maxConnections, connectTimeout, readTimeout);
+    }
+
+    public static WebClient buildWebClient(String baseUrl, int maxConnections, Duration connectTimeout, Duration readTimeout) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("external-catalog")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(connectTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .evictInBackground(Duration.ofSeconds(60))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
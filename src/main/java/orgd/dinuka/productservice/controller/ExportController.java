@@ -0,0 +1,77 @@
+package orgd.dinuka.productservice.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import orgd.dinuka.productservice.dto.ExportJobStatus;
+import orgd.dinuka.productservice.export.ExportFormat;
+import orgd.dinuka.productservice.export.ExportJob;
+import orgd.dinuka.productservice.export.ProductExportService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/product/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    // Set by Tomcat's NIO connector when it can send a file from the kernel after the servlet returns
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ProductExportService exportService;
+
+    // Starts an export in the background; poll the returned location for progress
+    @PostMapping
+    public ResponseEntity<ExportJobStatus> startExport(@RequestParam(defaultValue = "csv") String format) {
+        ExportJobStatus status = exportService.start(ExportFormat.fromParam(format));
+        return ResponseEntity.accepted().location(URI.create("/product/export/" + status.id())).body(status);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJobStatus> getExport(@PathVariable String id) {
+        return ResponseEntity.ok(exportService.getStatus(id));
+    }
+
+    // Only the sendfile path is zero-copy: Tomcat hands the file to the kernel after the servlet returns. Without it
+    // (TLS, or another container) the file is copied through a heap buffer into the response stream.
+    @GetMapping("/{id}/file")
+    public ResponseEntity<ExportJobStatus> downloadExport(@PathVariable String id, HttpServletRequest request,
+                                                          HttpServletResponse response) throws IOException {
+        ExportJob job = exportService.getJob(id);
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.toStatus());
+        }
+        Path file = job.getFile();
+        long size = Files.size(file);
+        response.setContentType(job.getFormat().getContentType());
+        response.setContentLengthLong(size);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("products-" + id + "." + job.getFormat().getExtension())
+                .build()
+                .toString());
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return null;
+        }
+        Files.copy(file, response.getOutputStream());
+        return null;
+    }
+}
@@ -1,13 +1,41 @@
 package orgd.dinuka.productservice.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import orgd.dinuka.productservice.dto.BulkResult;
+import orgd.dinuka.productservice.dto.CategoryStats;
+import orgd.dinuka.productservice.dto.ProductBatch;
+import orgd.dinuka.productservice.dto.ProductChangeEvent;
+import orgd.dinuka.productservice.dto.ProductChangePage;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductFilter;
+import orgd.dinuka.productservice.dto.ProductFilterResult;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.dto.ProductPatch;
+import orgd.dinuka.productservice.dto.ProductSummary;
+import orgd.dinuka.productservice.dto.ProductView;
 import orgd.dinuka.productservice.entity.Product;
 import orgd.dinuka.productservice.service.ProductService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/product")
@@ -15,26 +43,134 @@ import java.util.List;
 @AllArgsConstructor
 public class ProductController {
 
+    // Shared caches may store responses but must revalidate them with the ETag before every reuse. ETags are weak:
+    // the same version may go out gzipped or not, and Tomcat does not compress responses carrying a strong ETag
+    private static final CacheControl REVALIDATE = CacheControl.maxAge(Duration.ZERO).cachePublic().mustRevalidate();
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
+    // The ETag is the catalog version, read before the listing so the body is never older than its tag
     @GetMapping("/all")
-    public ResponseEntity<List<Product>> getAll() {
-        return ResponseEntity.ok(productService.getAll());
+    public ResponseEntity<?> getAll(@RequestParam(defaultValue = "detail") String view,
+                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ProductView productView = ProductView.fromParam(view);
+        long catalogVersion = productService.getCatalogVersion();
+        String etag = catalogVersion < 0 ? null
+                : "W/\"catalog-" + catalogVersion + "-" + productView.name().toLowerCase(Locale.ROOT) + "\"";
+        if (isNotModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        Object body = switch (productView) {
+            case SUMMARY -> productService.getAllSummaries();
+            case IDS -> productService.getAllIds();
+            case DETAIL -> productService.getAll().stream().map(ProductDetail::of).toList();
+        };
+        return etag == null ? ResponseEntity.ok(body) : ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<ProductPage> getPage(@RequestParam(required = false) String after,
+                                               @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(productService.getPage(after, limit));
+    }
+
+    // Newline-delimited JSON, one product per line, written as rows come off the cursor
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = out -> productService.streamAll(product -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(ProductDetail.of(product)));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PostMapping("/add")
-    public ResponseEntity<Product> save(Product product){
-        return  ResponseEntity.ok(productService.addProduct(product));
+    public ResponseEntity<ProductDetail> save(Product product){
+        return  ResponseEntity.ok(ProductDetail.of(productService.addProduct(product)));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkResult> bulkUpsert(@RequestBody List<Product> products) {
+        return ResponseEntity.ok(productService.bulkUpsert(products.iterator()));
+    }
+
+    // NDJSON rows are parsed lazily, so the import never holds more than one chunk in memory
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkResult> bulkUpsertStream(InputStream body) throws IOException {
+        try (MappingIterator<Product> products = objectMapper.readerFor(Product.class).readValues(body)) {
+            return ResponseEntity.ok(productService.bulkUpsert(products));
+        }
+    }
+
+    // Updates only the fields present in the body; 409 if the product changed since the given version
+    @PatchMapping("/update/{id}")
+    public ResponseEntity<ProductDetail> patchProduct(@PathVariable long id, @RequestBody ProductPatch patch) {
+        return ResponseEntity.ok(ProductDetail.of(productService.patchProduct(id, patch)));
+    }
+
+    // Atomic stock change, e.g. delta=-2 for a sale; 409 if it would take the quantity below zero
+    @PostMapping("/quantity/{id}")
+    public ResponseEntity<Map<String, Integer>> adjustQuantity(@PathVariable long id, @RequestParam int delta) {
+        return ResponseEntity.ok(Map.of("quantity", productService.adjustQuantity(id, delta)));
+    }
+
+    // A revalidation against the cached version is answered without touching the database or serialising
+    @GetMapping("/get/{id:\\d+}")
+    public ResponseEntity<?> getProductById(@PathVariable Long id,
+                                            @RequestParam(defaultValue = "detail") String view,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return switch (ProductView.fromParam(view)) {
+            case SUMMARY -> ResponseEntity.ok(productService.getProductSummaryById(id));
+            case DETAIL -> {
+                if (ifNoneMatch != null) {
+                    String cachedEtag = productService.getCachedVersion(id).map(version -> productEtag(id, version)).orElse(null);
+                    if (isNotModified(ifNoneMatch, cachedEtag)) {
+                        yield notModified(cachedEtag);
+                    }
+                }
+                yield conditional(productService.getProductById(id), ifNoneMatch);
+            }
+            case IDS -> throw new IllegalArgumentException("View 'ids' is only supported for listings");
+        };
+    }
+
+    // Multi-get in one query; ids that do not exist are listed under "missing" instead of failing the request
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatch> getProductsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductBatch> getProductsByIdsFromBody(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
     }
 
-    @GetMapping("/get/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id){
-        return ResponseEntity.ok(productService.getProductById(id));
+    @GetMapping("/get/{name:.*\\D.*}")
+    public ResponseEntity<ProductDetail> getProductByName(@PathVariable String name,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return conditional(productService.getProductByName(name), ifNoneMatch);
     }
 
-    @GetMapping("/get/{name}")
-    public ResponseEntity<Product> getProductByName(@PathVariable String name){
-        return ResponseEntity.ok(productService.getProductByName(name));
+    // Typeahead: case-insensitive name prefix, at most 50 results
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSummary>> searchByNamePrefix(@RequestParam String prefix,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.searchByNamePrefix(prefix, limit));
+    }
+
+    // Faceted filter over the in-memory index: all of the given tags, in the category, within the price range
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResult> filter(@RequestParam(required = false) Set<Long> tags,
+                                                      @RequestParam(required = false) Long category,
+                                                      @RequestParam(required = false) Double minPrice,
+                                                      @RequestParam(required = false) Double maxPrice,
+                                                      @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(productService.filter(new ProductFilter(tags, category, minPrice, maxPrice, limit)));
     }
 
     @DeleteMapping("/delete/{id}")
@@ -44,12 +180,83 @@ public class ProductController {
 
 
 
+    // Incremental sync: changes after the given sequence, oldest first; resume from lastSequence
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangePage> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                        @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(productService.getChangesSince(since, limit));
+    }
+
+    // Server-sent events; a reconnecting EventSource sends Last-Event-ID and resumes where it left off
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProductChangeEvent>> streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long after = lastEventId != null ? lastEventId : since != null ? since : 0L;
+        return productService.streamChanges(after)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(Long.toString(event.sequence()))
+                        .event(event.type().name())
+                        .build());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Number>>> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    // Served from in-memory aggregates, one entry per category
+    @GetMapping("/categories/stats")
+    public ResponseEntity<List<CategoryStats>> getCategoryStats() {
+        return ResponseEntity.ok(productService.getCategoryStats());
+    }
+
+    @GetMapping("/categories/{categoryId}/stats")
+    public ResponseEntity<CategoryStats> getCategoryStats(@PathVariable long categoryId) {
+        return ResponseEntity.ok(productService.getCategoryStats(categoryId));
+    }
+
+    // Returns immediately; the response is written when the upstream call completes
     @GetMapping("/test")
-    public ResponseEntity<?> getUsers(){
-        return new ResponseEntity<>(productService.getExtProducts() , HttpStatus.OK);
+    public Mono<ResponseEntity<List<Object>>> getUsers(){
+        return productService.getExtProducts().map(users -> new ResponseEntity<>(users, HttpStatus.OK));
     }
 
+    private static ResponseEntity<ProductDetail> conditional(Product product, String ifNoneMatch) {
+        if (product.getVersion() == null) {
+            return ResponseEntity.ok(ProductDetail.of(product));
+        }
+        String etag = productEtag(product.getId(), product.getVersion());
+        if (isNotModified(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(ProductDetail.of(product));
+    }
 
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
 
+    private static String productEtag(Long id, Long version) {
+        return "W/\"" + id + "-" + version + "\"";
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored
+    static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaqueTag = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = stripWeak(candidate.trim());
+            if (tag.equals("*") || tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
 }
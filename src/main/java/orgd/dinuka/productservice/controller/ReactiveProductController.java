@@ -0,0 +1,50 @@
+package orgd.dinuka.productservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.service.ReactiveProductService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Product reads over R2DBC. The request thread is released while the query runs and the response is written when
+ * results arrive, so waiting on the database holds no thread.
+ */
+@RestController
+@RequestMapping("/product/reactive")
+@CrossOrigin(origins = "http://localhost:4200")
+@RequiredArgsConstructor
+public class ReactiveProductController {
+
+    private final ReactiveProductService reactiveProductService;
+
+    @GetMapping("/get/{id:\\d+}")
+    public Mono<ProductDetail> getProductById(@PathVariable long id) {
+        return reactiveProductService.getProductById(id);
+    }
+
+    @GetMapping("/get/{name:.*\\D.*}")
+    public Mono<ProductDetail> getProductByName(@PathVariable String name) {
+        return reactiveProductService.getProductByName(name);
+    }
+
+    @GetMapping("/page")
+    public Mono<ProductPage> getPage(@RequestParam(required = false) String after,
+                                     @RequestParam(defaultValue = "50") int limit) {
+        return reactiveProductService.getPage(after, limit);
+    }
+
+    // Newline-delimited JSON; the next products are only requested from the database once earlier ones are written
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDetail> streamAll() {
+        return reactiveProductService.streamAll();
+    }
+}
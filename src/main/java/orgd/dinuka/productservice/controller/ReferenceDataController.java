@@ -0,0 +1,59 @@
+package orgd.dinuka.productservice.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import orgd.dinuka.productservice.dto.ProductDetail.CategoryRef;
+import orgd.dinuka.productservice.dto.ProductDetail.TagRef;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Tag;
+import orgd.dinuka.productservice.service.ReferenceDataService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/product")
+@RequiredArgsConstructor
+public class ReferenceDataController {
+
+    private final ReferenceDataService referenceDataService;
+
+    // Ordered by id
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryRef>> getCategories() {
+        return ResponseEntity.ok(referenceDataService.getCategories());
+    }
+
+    @GetMapping("/categories/{id:\\d+}")
+    public ResponseEntity<CategoryRef> getCategory(@PathVariable long id) {
+        return ResponseEntity.ok(referenceDataService.getCategory(id));
+    }
+
+    // Replaces name and description
+    @PutMapping("/categories/{id:\\d+}")
+    public ResponseEntity<CategoryRef> updateCategory(@PathVariable long id, @Valid @RequestBody Category category) {
+        return ResponseEntity.ok(referenceDataService.updateCategory(id, category));
+    }
+
+    // Ordered by id
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagRef>> getTags() {
+        return ResponseEntity.ok(referenceDataService.getTags());
+    }
+
+    @GetMapping("/tags/{id:\\d+}")
+    public ResponseEntity<TagRef> getTag(@PathVariable long id) {
+        return ResponseEntity.ok(referenceDataService.getTag(id));
+    }
+
+    @PutMapping("/tags/{id:\\d+}")
+    public ResponseEntity<TagRef> updateTag(@PathVariable long id, @Valid @RequestBody Tag tag) {
+        return ResponseEntity.ok(referenceDataService.updateTag(id, tag));
+    }
+}
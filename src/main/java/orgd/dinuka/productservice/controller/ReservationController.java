@@ -0,0 +1,50 @@
+package orgd.dinuka.productservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import orgd.dinuka.productservice.dto.StockReservation;
+import orgd.dinuka.productservice.reservation.StockReservationService;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/product/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final StockReservationService reservationService;
+
+    // Holds stock until confirmed, released or ttl (10m or PT10M) passes; 409 if there is not enough left
+    @PostMapping
+    public ResponseEntity<StockReservation> reserve(@RequestParam long productId, @RequestParam int quantity,
+                                                    @RequestParam(required = false) String ttl) {
+        StockReservation reservation = reservationService.reserve(productId, quantity,
+                ttl == null ? null : DurationStyle.detectAndParse(ttl));
+        return ResponseEntity.created(URI.create("/product/reservations/" + reservation.id())).body(reservation);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StockReservation> getReservation(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.getReservation(id));
+    }
+
+    // 404 once the reservation has expired, its stock is then available again
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<StockReservation> confirm(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.confirm(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> release(@PathVariable String id) {
+        reservationService.release(id);
+        return ResponseEntity.noContent().build();
+    }
+}
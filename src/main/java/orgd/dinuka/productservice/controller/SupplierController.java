@@ -0,0 +1,84 @@
+package orgd.dinuka.productservice.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import orgd.dinuka.productservice.dto.SupplierDetail;
+import orgd.dinuka.productservice.dto.SupplierOffer;
+import orgd.dinuka.productservice.entity.Supplier;
+import orgd.dinuka.productservice.service.SupplierService;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/product/suppliers")
+@RequiredArgsConstructor
+public class SupplierController {
+
+    private final SupplierService supplierService;
+
+    // The address is created with the supplier, or referenced by id when it already exists
+    @PostMapping
+    public ResponseEntity<SupplierDetail> addSupplier(@Valid @RequestBody Supplier supplier) {
+        SupplierDetail saved = supplierService.addSupplier(supplier);
+        return ResponseEntity.created(URI.create("/product/suppliers/" + saved.id())).body(saved);
+    }
+
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<SupplierDetail> getSupplier(@PathVariable long id) {
+        return ResponseEntity.ok(supplierService.getSupplier(id));
+    }
+
+    @PutMapping("/{id:\\d+}")
+    public ResponseEntity<SupplierDetail> updateSupplier(@PathVariable long id,
+                                                         @Valid @RequestBody Supplier supplier) {
+        return ResponseEntity.ok(supplierService.updateSupplier(id, supplier));
+    }
+
+    @DeleteMapping("/{id:\\d+}")
+    public ResponseEntity<Void> deleteSupplier(@PathVariable long id) {
+        supplierService.deleteSupplier(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Ordered by postal code, then id
+    @GetMapping
+    public ResponseEntity<List<SupplierDetail>> findByPostalCode(@RequestParam String postalCodePrefix,
+                                                                 @RequestParam(defaultValue = "0") int limit) {
+        return ResponseEntity.ok(supplierService.findByPostalCodePrefix(postalCodePrefix, limit));
+    }
+
+    // Creates or replaces the supplier's offer for the product
+    @PutMapping("/{id:\\d+}/products/{productId}")
+    public ResponseEntity<SupplierOffer> linkProduct(@PathVariable long id, @PathVariable long productId,
+                                                     @RequestParam double unitPrice, @RequestParam int stock) {
+        return ResponseEntity.ok(supplierService.linkProduct(id, productId, unitPrice, stock));
+    }
+
+    @DeleteMapping("/{id:\\d+}/products/{productId}")
+    public ResponseEntity<Void> unlinkProduct(@PathVariable long id, @PathVariable long productId) {
+        supplierService.unlinkProduct(id, productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/cheapest")
+    public ResponseEntity<SupplierOffer> getCheapestInStock(@RequestParam long productId) {
+        return ResponseEntity.ok(supplierService.getCheapestInStockOffer(productId));
+    }
+
+    @GetMapping("/offers")
+    public ResponseEntity<List<SupplierOffer>> getInStockOffers(@RequestParam long productId,
+                                                               @RequestParam(defaultValue = "0") int limit) {
+        return ResponseEntity.ok(supplierService.getInStockOffers(productId, limit));
+    }
+}
@@ -0,0 +1,27 @@
+package orgd.dinuka.productservice.dao;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import orgd.dinuka.productservice.entity.ProductChange;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    List<ProductChange> findBySequenceIsNullOrderByIdAsc(Limit limit);
+
+    @Query("select coalesce(max(c.sequence), 0) from ProductChange c")
+    long findMaxSequence();
+
+    List<ProductChange> findBySequenceGreaterThanOrderBySequenceAsc(long after, Limit limit);
+
+    // Rows at or above keepFrom are kept so the highest sequence, and with it the numbering, survives a purge
+    @Modifying
+    @Query("delete from ProductChange c where c.sequence < :keepFrom and c.occurredAt < :before")
+    int deletePublishedBefore(Instant before, long keepFrom);
+}
@@ -1,11 +1,157 @@
 package orgd.dinuka.productservice.dao;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import orgd.dinuka.productservice.dto.CategoryStatsRow;
+import orgd.dinuka.productservice.dto.ProductExportRow;
+import orgd.dinuka.productservice.dto.ProductFacetRow;
+import orgd.dinuka.productservice.dto.ProductKey;
+import orgd.dinuka.productservice.dto.ProductStock;
+import orgd.dinuka.productservice.dto.ProductSummary;
+import orgd.dinuka.productservice.dto.ProductTagRef;
+import orgd.dinuka.productservice.dto.ProductValueRow;
 import orgd.dinuka.productservice.entity.Product;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Read-only finders run in read-only transactions, which go to a replica when replicas are configured
 @Repository
 public interface ProductRepository  extends JpaRepository<Product,Long> {
 
-    Product findByName(String name);
+    @Override
+    @EntityGraph(Product.DETAIL_GRAPH)
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(Product.DETAIL_GRAPH)
+    Optional<Product> findById(Long id);
+
+    // One IN query for a whole batch of ids, with the same graph as findById
+    @Override
+    @EntityGraph(Product.DETAIL_GRAPH)
+    List<Product> findAllById(Iterable<Long> ids);
+
+    // Backed by idx_product_normalized_name; first by id so duplicate names cannot make the lookup fail
+    @Transactional(readOnly = true)
+    @EntityGraph(Product.DETAIL_GRAPH)
+    Optional<Product> findFirstByNormalizedNameOrderByIdAsc(String normalizedName);
+
+    // Prefix is normalized and has its LIKE wildcards escaped with '!', so this is an index range scan
+    @Query("select new orgd.dinuka.productservice.dto.ProductSummary(p.id, p.name, p.price, p.quantity, c.id, c.name) "
+            + "from Product p left join p.category c "
+            + "where p.normalizedName like :prefix escape '!' order by p.normalizedName, p.id")
+    @Transactional(readOnly = true)
+    List<ProductSummary> searchByNormalizedNamePrefix(String prefix, Limit limit);
+
+    @Query("select new orgd.dinuka.productservice.dto.ProductSummary(p.id, p.name, p.price, p.quantity, c.id, c.name) "
+            + "from Product p left join p.category c order by p.id")
+    @Transactional(readOnly = true)
+    List<ProductSummary> findAllSummaries();
+
+    @Query("select new orgd.dinuka.productservice.dto.ProductSummary(p.id, p.name, p.price, p.quantity, c.id, c.name) "
+            + "from Product p left join p.category c where p.id = :id")
+    @Transactional(readOnly = true)
+    Optional<ProductSummary> findSummaryById(Long id);
+
+    @Query("select p.id from Product p order by p.id")
+    @Transactional(readOnly = true)
+    List<Long> findAllIds();
+
+    // Optimistic partial update in one statement: null arguments keep the current value, and a stale
+    // version matches no row. normalizedName is kept in step with name since entity callbacks do not run.
+    @Modifying
+    @Query("update Product p set p.name = coalesce(:name, p.name), "
+            + "p.normalizedName = coalesce(:normalizedName, p.normalizedName), "
+            + "p.price = coalesce(:price, p.price), p.quantity = coalesce(:quantity, p.quantity), "
+            + "p.version = p.version + 1 where p.id = :id and p.version = :version")
+    int patch(long id, long version, String name, String normalizedName, Double price, Integer quantity);
+
+    // Stock change applied by the database, refused rather than going below zero
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :delta, p.version = p.version + 1 "
+            + "where p.id = :id and p.quantity + :delta >= 0")
+    int adjustQuantity(long id, int delta);
+
+    @Query("select p.quantity from Product p where p.id = :id")
+    Optional<Integer> findQuantityById(long id);
+
+    @Query("select p.quantity from Product p where p.id = :id and p.version = :version")
+    Optional<Integer> findQuantityByIdAndVersion(long id, long version);
+
+    // Stock sold through reservations; not conditional, the reservation engine already held the stock and every
+    // decrease made through the service takes its stock from the same counter
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :delta, p.version = p.version + 1 where p.id = :id")
+    int writeBackQuantity(long id, int delta);
+
+    @Query("select new orgd.dinuka.productservice.dto.ProductStock(p.id, p.quantity) from Product p where p.id in :ids")
+    List<ProductStock> findStockByIds(Collection<Long> ids);
+
+    @Query("select new orgd.dinuka.productservice.dto.ProductFacetRow(p.id, c.id, p.price) "
+            + "from Product p left join p.category c where p.id > :after order by p.id")
+    List<ProductFacetRow> findFacetRowsAfter(long after, Limit limit);
+
+    @Query("select new orgd.dinuka.productservice.dto.ProductKey(p.id, p.normalizedName) "
+            + "from Product p where p.id > :after order by p.id")
+    @Transactional(readOnly = true)
+    List<ProductKey> findKeysAfter(long after, Limit limit);
+
+    @Query("select new orgd.dinuka.productservice.dto.ProductValueRow(p.id, c.id, c.name, p.price, p.quantity) "
+            + "from Product p left join p.category c where p.id > :after order by p.id")
+    List<ProductValueRow> findValueRowsAfter(long after, Limit limit);
+
+    // One pass over product grouped by category, for reconciling the in-memory category aggregates
+    @Query("select new orgd.dinuka.productservice.dto.CategoryStatsRow(c.id, c.name, count(p), sum(p.price * p.quantity), "
+            + "min(p.price), max(p.price), sum(p.price)) "
+            + "from Product p left join p.category c group by c.id, c.name")
+    List<CategoryStatsRow> aggregateByCategory();
+
+    // Products shown with a category or tag that is being edited, locked with their versions bumped on the spot,
+    // so their ETags change along with the name they show
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("select p from Product p where p.category.id = :categoryId")
+    List<Product> findForUpdateByCategoryId(long categoryId);
+
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    @Query("select p from Product p where p.id in (select pt.id from Product pt join pt.tags t where t.id = :tagId)")
+    List<Product> findForUpdateByTagId(long tagId);
+
+    @Query("select new orgd.dinuka.productservice.dto.ProductTagRef(p.id, t.id) "
+            + "from Product p join p.tags t where p.id in :productIds")
+    List<ProductTagRef> findTagRefs(Collection<Long> productIds);
+
+    // Keyset pagination: seeks past the last seen id instead of using OFFSET.
+    // Tags are not joined so the limit stays in SQL; they are batch fetched instead.
+    @Transactional(readOnly = true)
+    @EntityGraph(Product.SUMMARY_GRAPH)
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // Flat scan for exports, one row per product and tag; read-only rows, so nothing is held by the session.
+    // Must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new orgd.dinuka.productservice.dto.ProductExportRow(p.id, p.name, p.price, p.quantity, p.version, "
+            + "c.id, c.name, c.description, t.id, t.name) "
+            + "from Product p left join p.category c left join p.tags t order by p.id, t.id")
+    Stream<ProductExportRow> streamExportRows();
+
+    // Cursor-backed scan, the caller must consume it inside a transaction and close it
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph(Product.SUMMARY_GRAPH)
+    Stream<Product> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,29 @@
+package orgd.dinuka.productservice.dao;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import orgd.dinuka.productservice.entity.ProductSupplier;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductSupplierRepository extends JpaRepository<ProductSupplier, Long> {
+
+    Optional<ProductSupplier> findByProductIdAndSupplierId(long productId, long supplierId);
+
+    // Walks idx_product_supplier_price in price order and stops at the limit; suppliers and addresses come in the
+    // same query
+    @Query("select ps from ProductSupplier ps join fetch ps.supplier s left join fetch s.address "
+            + "where ps.product.id = :productId and ps.stock > 0 order by ps.unitPrice, s.id")
+    @Transactional(readOnly = true)
+    List<ProductSupplier> findInStockByProductId(long productId, Limit limit);
+
+    @Modifying
+    @Query("delete from ProductSupplier ps where ps.product.id = :productId and ps.supplier.id = :supplierId")
+    int deleteByProductIdAndSupplierId(long productId, long supplierId);
+}
@@ -0,0 +1,19 @@
+package orgd.dinuka.productservice.dao;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * The R2DBC connection under {@code product.reactive} used by {@link ReactiveProductRepository}.
+ *
+ * @param url          an R2DBC URL such as {@code r2dbc:mysql://host:3306/db}
+ * @param maxIdleTime  idle connections are closed after this long
+ */
+@ConfigurationProperties("product.reactive")
+public record ReactiveDatabaseProperties(String url, String username, String password,
+                                         @DefaultValue("2") int initialSize,
+                                         @DefaultValue("10") int maxSize,
+                                         @DefaultValue("30m") Duration maxIdleTime) {
+}
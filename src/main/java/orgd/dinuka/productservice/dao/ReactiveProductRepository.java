@@ -0,0 +1,97 @@
+package orgd.dinuka.productservice.dao;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Non-blocking product reads over R2DBC, next to the JPA repositories, for the same {@code product},
+ * {@code category} and {@code tag} tables.
+ * <p>
+ * Each query returns one row per product and tag, ordered by product id, and the rows are grouped back into
+ * products as they arrive. Nothing is collected on the way, so a listing flows from the driver to the response
+ * under the subscriber's demand.
+ */
+@Repository
+public class ReactiveProductRepository {
+
+    private static final String DETAIL_COLUMNS = "select p.id, p.name, p.price, p.quantity, p.version, "
+            + "c.id as category_id, c.category_name, c.description as category_description, "
+            + "t.id as tag_id, t.name as tag_name ";
+    private static final String DETAIL_JOINS = "left join category c on c.id = p.category_id "
+            + "left join product_tag pt on pt.product_id = p.id "
+            + "left join tag t on t.id = pt.tag_id ";
+    private static final String DETAIL_ORDER = "order by p.id, t.id";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<ProductDetail> findById(long id) {
+        return details(databaseClient.sql(DETAIL_COLUMNS + "from product p " + DETAIL_JOINS
+                        + "where p.id = :id " + DETAIL_ORDER)
+                .bind("id", id))
+                .next();
+    }
+
+    // The first product with the name, as in the blocking path
+    public Mono<ProductDetail> findFirstByNormalizedName(String normalizedName) {
+        return details(databaseClient.sql(DETAIL_COLUMNS + "from product p " + DETAIL_JOINS
+                        + "where p.id = (select min(id) from product where normalized_name = :name) " + DETAIL_ORDER)
+                .bind("name", normalizedName))
+                .next();
+    }
+
+    // Keyset page; the limit is taken in a derived table so it counts products, not product and tag rows
+    public Flux<ProductDetail> findPage(long after, int limit) {
+        return details(databaseClient.sql(DETAIL_COLUMNS + "from (select id, name, price, quantity, version, "
+                        + "category_id from product where id > :after order by id limit :limit) p " + DETAIL_JOINS
+                        + DETAIL_ORDER)
+                .bind("after", after)
+                .bind("limit", limit));
+    }
+
+    public Flux<ProductDetail> findAll() {
+        return details(databaseClient.sql(DETAIL_COLUMNS + "from product p " + DETAIL_JOINS + DETAIL_ORDER));
+    }
+
+    private static Flux<ProductDetail> details(DatabaseClient.GenericExecuteSpec query) {
+        return query.map(ReactiveProductRepository::toRow)
+                .all()
+                .bufferUntilChanged(Row::id)
+                .map(ReactiveProductRepository::toDetail);
+    }
+
+    private static Row toRow(Readable row) {
+        return new Row(row.get("id", Long.class), row.get("name", String.class), row.get("price", Double.class),
+                row.get("quantity", Integer.class), row.get("version", Long.class), row.get("category_id", Long.class),
+                row.get("category_name", String.class), row.get("category_description", String.class),
+                row.get("tag_id", Long.class), row.get("tag_name", String.class));
+    }
+
+    private static ProductDetail toDetail(List<Row> rows) {
+        Row first = rows.get(0);
+        List<ProductDetail.TagRef> tags = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.tagId() != null) {
+                tags.add(new ProductDetail.TagRef(row.tagId(), row.tagName()));
+            }
+        }
+        ProductDetail.CategoryRef category = first.categoryId() == null ? null
+                : new ProductDetail.CategoryRef(first.categoryId(), first.categoryName(), first.categoryDescription());
+        return new ProductDetail(first.id(), first.name(), first.price(), first.quantity(), first.version(),
+                category, tags);
+    }
+
+    private record Row(Long id, String name, double price, int quantity, Long version, Long categoryId,
+                       String categoryName, String categoryDescription, Long tagId, String tagName) {
+    }
+}
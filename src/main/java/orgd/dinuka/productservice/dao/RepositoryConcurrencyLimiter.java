@@ -0,0 +1,194 @@
+package orgd.dinuka.productservice.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+import orgd.dinuka.productservice.exception.ServiceOverloadedException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of threads holding a database connection at the size of the connection pool.
+ * <p>
+ * With virtual threads the number of concurrent requests is no longer bounded by the Tomcat pool, so without this
+ * thousands of threads would queue inside Hikari. The primary pool is wrapped, as the application data source or
+ * under the read/write split, so that every connection is taken under a permit of a fair semaphore and gives it back
+ * on close; a transaction holds its permit from the moment it gets its connection until it ends. Callers wait at
+ * most {@code max-waiting} at a time for at most {@code acquire-timeout}; the rest are rejected straight away with a
+ * 503. A thread that already holds a permit, such as one opening a {@code REQUIRES_NEW} transaction inside another,
+ * gets its nested connection without a second one, so it cannot deadlock waiting on itself.
+ */
+@Component
+@Slf4j
+public class RepositoryConcurrencyLimiter implements BeanPostProcessor {
+
+    // The auto-configured pool; the read/write split limits its primary pool itself, see ReplicaDataSourceConfiguration
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private static final double WAIT_SAMPLE_WEIGHT = 0.1;
+    private static final double WAIT_DECAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long acquireTimeoutNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+    // Connections the current thread took under a permit and has not closed yet
+    private final ThreadLocal<AtomicInteger> held = ThreadLocal.withInitial(AtomicInteger::new);
+    // Moving average of the time taken to get a connection, see getRecentWaitNanos
+    private final AtomicLong averageWaitBits = new AtomicLong(Double.doubleToLongBits(0));
+    private volatile long lastSampleNanos = System.nanoTime();
+
+    public RepositoryConcurrencyLimiter(@Value("${product.repository.max-concurrency:10}") int maxConcurrency,
+                                        @Value("${product.repository.max-waiting:500}") int maxWaiting,
+                                        @Value("${product.repository.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        log.info("Database connections limited to {} with up to {} waiting for {}", maxConcurrency, maxWaiting, acquireTimeout);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && DATA_SOURCE_BEAN.equals(beanName)) {
+            return limit(dataSource);
+        }
+        return bean;
+    }
+
+    public DataSource limit(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return acquire(super::getConnection);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return acquire(() -> super.getConnection(username, password));
+            }
+        };
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * Recent time callers took to get a connection: waiting for a permit and then for the pool, nested connections
+     * included, and failed attempts counted for as long as they waited. An exponentially weighted average of the
+     * recent acquisitions that decays while none happen, so it drops back once load is shed.
+     */
+    public long getRecentWaitNanos() {
+        long idle = System.nanoTime() - lastSampleNanos;
+        return (long) (Double.longBitsToDouble(averageWaitBits.get()) * Math.exp(-(double) idle / WAIT_DECAY_NANOS));
+    }
+
+    private void recordWait(long waitNanos) {
+        long now = System.nanoTime();
+        averageWaitBits.updateAndGet(bits -> Double.doubleToLongBits(
+                Double.longBitsToDouble(bits) * (1 - WAIT_SAMPLE_WEIGHT) + waitNanos * WAIT_SAMPLE_WEIGHT));
+        lastSampleNanos = now;
+    }
+
+    private Connection acquire(ConnectionSource source) throws SQLException {
+        long started = System.nanoTime();
+        boolean turnedAway = false;
+        try {
+            AtomicInteger heldByThread = held.get();
+            if (heldByThread.get() > 0) {
+                return source.getConnection();
+            }
+            if (!permits.tryAcquire()) {
+                // Turned away without waiting, so not a sample of the wait
+                turnedAway = waiting.incrementAndGet() > maxWaiting;
+                awaitPermit(turnedAway);
+            }
+            heldByThread.incrementAndGet();
+            try {
+                return releasingOnClose(source.getConnection(), heldByThread);
+            } catch (SQLException | RuntimeException ex) {
+                release(heldByThread);
+                throw ex;
+            }
+        } finally {
+            if (!turnedAway) {
+                recordWait(System.nanoTime() - started);
+            }
+        }
+    }
+
+    private void awaitPermit(boolean turnedAway) {
+        try {
+            if (turnedAway) {
+                throw new ServiceOverloadedException("Too many concurrent database requests");
+            }
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                log.warn("Timed out waiting for a database permit");
+                throw new ServiceOverloadedException("Timed out waiting for a database connection");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting for a database connection");
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    // The counter of the thread that took the permit, as a connection may be closed on another thread
+    private void release(AtomicInteger heldByThread) {
+        heldByThread.decrementAndGet();
+        permits.release();
+    }
+
+    private Connection releasingOnClose(Connection connection, AtomicInteger heldByThread) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTargetConnection":
+                            return connection;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            try {
+                                connection.close();
+                            } finally {
+                                if (closed.compareAndSet(false, true)) {
+                                    release(heldByThread);
+                                }
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException ex) {
+                                throw ex.getTargetException();
+                            }
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+}
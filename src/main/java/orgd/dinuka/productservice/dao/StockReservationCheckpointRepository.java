@@ -0,0 +1,9 @@
+package orgd.dinuka.productservice.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import orgd.dinuka.productservice.entity.StockReservationCheckpoint;
+
+@Repository
+public interface StockReservationCheckpointRepository extends JpaRepository<StockReservationCheckpoint, String> {
+}
@@ -0,0 +1,36 @@
+package orgd.dinuka.productservice.dao;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import orgd.dinuka.productservice.dto.SupplierPostalCode;
+import orgd.dinuka.productservice.entity.Supplier;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Suppliers are always read together with their address in one join
+@Repository
+public interface SupplierRepository extends JpaRepository<Supplier, Long> {
+
+    @Query("select s from Supplier s left join fetch s.address where s.id = :id")
+    @Transactional(readOnly = true)
+    Optional<Supplier> findWithAddressById(long id);
+
+    @Query("select s from Supplier s left join fetch s.address where s.id in :ids")
+    @Transactional(readOnly = true)
+    List<Supplier> findAllWithAddressByIdIn(Collection<Long> ids);
+
+    // Fallback for the postal code index while it loads; the prefix is normalized and escaped with '!'
+    @Query("select s from Supplier s join fetch s.address a "
+            + "where a.postalCode like :prefix escape '!' order by a.postalCode, s.id")
+    @Transactional(readOnly = true)
+    List<Supplier> findWithAddressByPostalCodePrefix(String prefix, Limit limit);
+
+    @Query("select new orgd.dinuka.productservice.dto.SupplierPostalCode(s.id, a.postalCode) "
+            + "from Supplier s join s.address a where s.id > :after order by s.id")
+    List<SupplierPostalCode> findPostalCodesAfter(long after, Limit limit);
+}
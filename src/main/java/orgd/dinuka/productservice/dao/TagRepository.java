@@ -0,0 +1,25 @@
+package orgd.dinuka.productservice.dao;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import orgd.dinuka.productservice.configuration.HibernateCacheConfiguration;
+import orgd.dinuka.productservice.entity.Tag;
+
+import java.util.List;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+
+    // Query cached as a list of ids, dropped by any write to the table; the rows then come from the entity cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION,
+                    value = HibernateCacheConfiguration.REFERENCE_QUERY_REGION)
+    })
+    @Transactional(readOnly = true)
+    List<Tag> findAllByOrderByIdAsc();
+}
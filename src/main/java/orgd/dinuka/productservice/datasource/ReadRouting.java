@@ -0,0 +1,56 @@
+package orgd.dinuka.productservice.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that sends read-only transactions to the primary instead of a replica. Used for
+ * read-your-writes stickiness and for reads whose result is cached, where a lagging replica would otherwise
+ * pin a stale row for the whole cache TTL. Has no effect when no replicas are configured. Work a pinned thread
+ * hands to another thread carries the pin along when it goes through {@link #propagate}.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = pin(true);
+        try {
+            return action.get();
+        } finally {
+            pin(previous);
+        }
+    }
+
+    // Runs the task pinned if the thread handing it over is pinned now, for executors and schedulers to decorate with
+    public static Runnable propagate(Runnable task) {
+        if (!isPinnedToPrimary()) {
+            return task;
+        }
+        return () -> {
+            boolean previous = pin(true);
+            try {
+                task.run();
+            } finally {
+                pin(previous);
+            }
+        };
+    }
+
+    // Returns the previous setting so callers can restore it
+    static boolean pin(boolean pinned) {
+        boolean previous = isPinnedToPrimary();
+        if (pinned) {
+            PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        } else {
+            PINNED_TO_PRIMARY.remove();
+        }
+        return previous;
+    }
+}
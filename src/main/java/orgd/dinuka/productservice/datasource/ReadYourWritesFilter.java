@@ -0,0 +1,84 @@
+package orgd.dinuka.productservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes stickiness across requests. A write request (any method other than GET, HEAD and OPTIONS) gets a
+ * cookie holding the time until which the client's reads must see the primary; requests that carry an unexpired
+ * one are pinned to it. The window should cover the replicas' {@code max-lag}.
+ * <p>
+ * The decision is kept on the request, so the dispatches of an asynchronous request are pinned like its first one;
+ * work handed to other threads in between carries the pin through {@link ReadRouting#propagate}.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "product-primary-until";
+    static final String PINNED_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".pinned";
+
+    private final Duration stickyWindow;
+
+    public ReadYourWritesFilter(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean pinned;
+        if (request.getAttribute(PINNED_ATTRIBUTE) instanceof Boolean decided) {
+            pinned = decided;
+        } else {
+            long now = System.currentTimeMillis();
+            pinned = stickyUntil(request) > now;
+            request.setAttribute(PINNED_ATTRIBUTE, pinned);
+            if (isWrite(request.getMethod())) {
+                // Set up front, the response may be committed by the time the handler returns
+                Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + stickyWindow.toMillis()));
+                cookie.setMaxAge((int) Math.max(1, stickyWindow.toSeconds()));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                response.addCookie(cookie);
+            }
+        }
+        boolean previous = ReadRouting.pin(pinned);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.pin(previous);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private static boolean isWrite(String method) {
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+
+    private static long stickyUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
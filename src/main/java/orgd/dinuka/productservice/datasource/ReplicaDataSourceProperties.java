@@ -0,0 +1,29 @@
+package orgd.dinuka.productservice.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas under {@code product.datasource}. Each replica's pool is tuned under
+ * {@code product.datasource.replicas[n].hikari.*}, the same keys as {@code spring.datasource.hikari.*}; a replica
+ * without credentials uses the primary's.
+ *
+ * @param maxLag        replicas further behind than this are skipped until they catch up
+ * @param lagQuery      query run on each replica returning its lag in seconds, either in a column named
+ *                      {@code Seconds_Behind_Source} or in the first column; a null lag or no row counts as unhealthy.
+ *                      Without it only connectivity is checked
+ * @param stickyWindow  how long a client's reads stay on the primary after it wrote
+ */
+@ConfigurationProperties("product.datasource")
+public record ReplicaDataSourceProperties(List<Replica> replicas,
+                                          @DefaultValue("5s") Duration maxLag,
+                                          String lagQuery,
+                                          @DefaultValue("2s") Duration validationTimeout,
+                                          @DefaultValue("5s") Duration stickyWindow) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,142 @@
+package orgd.dinuka.productservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The data source read-only transactions are given: a healthy replica, taken round robin, or the primary when
+ * the thread is pinned to it or no replica is healthy. Primary connections are taken through
+ * {@code primaryConnections}, so a limit on the primary also covers the reads that fall back to it, while replica
+ * reads are left outside it.
+ * <p>
+ * Every {@code health-check-interval} each replica is checked for a working connection and, when a lag query is
+ * configured, for lag within {@code max-lag}. Replicas start out unhealthy, so reads stay on the primary until a
+ * replica has passed its first check.
+ */
+@Slf4j
+public class ReplicaRouter extends AbstractDataSource implements Closeable {
+
+    private final HikariDataSource primary;
+    private final DataSource primaryConnections;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRouter(HikariDataSource primary, DataSource primaryConnections, List<HikariDataSource> replicas,
+                         Duration maxLag, String lagQuery, Duration validationTimeout) {
+        this.primary = primary;
+        this.primaryConnections = primaryConnections;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+    }
+
+    // The primary as connections to it should be taken, for the writes that go to it directly
+    public DataSource getPrimary() {
+        return primaryConnections;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTarget().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTarget().getConnection(username, password);
+    }
+
+    DataSource determineTarget() {
+        if (ReadRouting.isPinnedToPrimary()) {
+            return primaryConnections;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.dataSource;
+            }
+        }
+        return primaryConnections;
+    }
+
+    @Scheduled(fixedDelayString = "${product.datasource.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = isHealthy(replica.dataSource);
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("Replica {} is healthy, routing reads to it", replica.dataSource.getPoolName());
+                } else {
+                    log.warn("Replica {} is unhealthy or lagging, routing its reads to the primary",
+                            replica.dataSource.getPoolName());
+                }
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    private boolean isHealthy(HikariDataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(validationTimeoutSeconds)) {
+                return false;
+            }
+            if (lagQuery == null) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(validationTimeoutSeconds);
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    long lag = resultSet.getLong(lagColumn(resultSet));
+                    // Null while replication is stopped
+                    return !resultSet.wasNull() && lag <= maxLagSeconds;
+                }
+            }
+        } catch (SQLException ex) {
+            log.debug("Health check of replica {} failed", dataSource.getPoolName(), ex);
+            return false;
+        }
+    }
+
+    private static int lagColumn(ResultSet resultSet) {
+        try {
+            return resultSet.findColumn("Seconds_Behind_Source");
+        } catch (SQLException ex) {
+            return 1;
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package orgd.dinuka.productservice.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of one row of a bulk request; {@code index} is the row's zero-based position in the request.
+ */
+public record BulkItemResult(int index, Long id, Status status, List<String> errors) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID,
+        FAILED
+    }
+
+    public static BulkItemResult created(int index, Long id) {
+        return new BulkItemResult(index, id, Status.CREATED, List.of());
+    }
+
+    public static BulkItemResult updated(int index, Long id) {
+        return new BulkItemResult(index, id, Status.UPDATED, List.of());
+    }
+
+    public static BulkItemResult invalid(int index, Long id, List<String> errors) {
+        return new BulkItemResult(index, id, Status.INVALID, errors);
+    }
+
+    public static BulkItemResult failed(int index, Long id, String error) {
+        return new BulkItemResult(index, id, Status.FAILED, List.of(error));
+    }
+}
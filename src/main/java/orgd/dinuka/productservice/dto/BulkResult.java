@@ -0,0 +1,19 @@
+package orgd.dinuka.productservice.dto;
+
+import java.util.List;
+
+public record BulkResult(int total, int created, int updated, int rejected, List<BulkItemResult> items) {
+
+    public static BulkResult of(List<BulkItemResult> items) {
+        int created = 0;
+        int updated = 0;
+        for (BulkItemResult item : items) {
+            if (item.status() == BulkItemResult.Status.CREATED) {
+                created++;
+            } else if (item.status() == BulkItemResult.Status.UPDATED) {
+                updated++;
+            }
+        }
+        return new BulkResult(items.size(), created, updated, items.size() - created - updated, items);
+    }
+}
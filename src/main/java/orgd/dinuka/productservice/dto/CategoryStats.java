@@ -0,0 +1,9 @@
+package orgd.dinuka.productservice.dto;
+
+/**
+ * Dashboard figures for one category; {@code categoryId} is null for products without a category. Total stock value
+ * is the sum of price times quantity.
+ */
+public record CategoryStats(Long categoryId, String categoryName, long productCount, double totalStockValue,
+                            double minPrice, double maxPrice, double averagePrice) {
+}
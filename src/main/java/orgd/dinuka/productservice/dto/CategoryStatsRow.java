@@ -0,0 +1,8 @@
+package orgd.dinuka.productservice.dto;
+
+/**
+ * Per-category totals computed by the database, which the in-memory aggregates are reconciled against.
+ */
+public record CategoryStatsRow(Long categoryId, String categoryName, Long productCount, Double totalStockValue,
+                               Double minPrice, Double maxPrice, Double priceSum) {
+}
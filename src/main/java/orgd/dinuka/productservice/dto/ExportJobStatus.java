@@ -0,0 +1,14 @@
+package orgd.dinuka.productservice.dto;
+
+import orgd.dinuka.productservice.export.ExportFormat;
+import orgd.dinuka.productservice.export.ExportJob;
+
+import java.time.Instant;
+
+/**
+ * Progress of an export job. {@code totalRows} is the product count when the job started, so {@code rowsWritten}
+ * can end up slightly above or below it if the catalog changes meanwhile. {@code sizeBytes} is set once completed.
+ */
+public record ExportJobStatus(String id, ExportFormat format, ExportJob.Status status, long rowsWritten,
+                              long totalRows, Long sizeBytes, Instant createdAt, Instant finishedAt, String error) {
+}
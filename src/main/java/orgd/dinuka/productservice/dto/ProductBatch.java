@@ -0,0 +1,9 @@
+package orgd.dinuka.productservice.dto;
+
+import java.util.List;
+
+/**
+ * Result of a multi-get: the products found, in the order their ids were requested, and the ids that do not exist.
+ */
+public record ProductBatch(List<ProductDetail> found, List<Long> missing) {
+}
@@ -0,0 +1,18 @@
+package orgd.dinuka.productservice.dto;
+
+import orgd.dinuka.productservice.entity.ProductChange;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A published product change. {@code sequence} increases by one per change; consumers resume from the last one
+ * they saw. {@code product} is the state after the change: null for deletes, and only the quantity for
+ * {@link ProductChange.Type#QUANTITY_CHANGED}.
+ */
+public record ProductChangeEvent(long sequence, ProductChange.Type type, Long productId, Long version,
+                                 Instant occurredAt, ProductState product) {
+
+    public record ProductState(String name, Double price, Integer quantity, Long categoryId, List<Long> tagIds) {
+    }
+}
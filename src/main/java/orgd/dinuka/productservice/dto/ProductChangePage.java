@@ -0,0 +1,10 @@
+package orgd.dinuka.productservice.dto;
+
+import java.util.List;
+
+/**
+ * Changes after a given sequence, oldest first. {@code lastSequence} is where the next request should resume
+ * from, and equals the requested sequence when there is nothing new.
+ */
+public record ProductChangePage(List<ProductChangeEvent> changes, long lastSequence) {
+}
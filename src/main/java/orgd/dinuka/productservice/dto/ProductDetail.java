@@ -0,0 +1,35 @@
+package orgd.dinuka.productservice.dto;
+
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.Tag;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read model of a product with its category and tags, as returned by the detail endpoints. Built from the entity
+ * once, so serialization never walks the entity graph or touches a lazy association. Tags are ordered by id, which
+ * keeps identical products byte-identical on the wire.
+ */
+public record ProductDetail(Long id, String name, double price, int quantity, Long version,
+                            CategoryRef category, List<TagRef> tags) {
+
+    public record CategoryRef(Long id, String name, String description) {
+    }
+
+    public record TagRef(Long id, String name) {
+    }
+
+    public static ProductDetail of(Product product) {
+        Category category = product.getCategory();
+        CategoryRef categoryRef = category == null ? null
+                : new CategoryRef(category.getId(), category.getName(), category.getDescription());
+        List<TagRef> tagRefs = product.getTags() == null ? List.of() : product.getTags().stream()
+                .sorted(Comparator.comparing(Tag::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(tag -> new TagRef(tag.getId(), tag.getName()))
+                .toList();
+        return new ProductDetail(product.getId(), product.getName(), product.getPrice(), product.getQuantity(),
+                product.getVersion(), categoryRef, tagRefs);
+    }
+}
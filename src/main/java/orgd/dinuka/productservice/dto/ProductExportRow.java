@@ -0,0 +1,10 @@
+package orgd.dinuka.productservice.dto;
+
+/**
+ * One row of the export scan: a product with its category and one of its tags, or no tag. A product with several
+ * tags spans consecutive rows.
+ */
+public record ProductExportRow(Long id, String name, double price, int quantity, Long version,
+                               Long categoryId, String categoryName, String categoryDescription,
+                               Long tagId, String tagName) {
+}
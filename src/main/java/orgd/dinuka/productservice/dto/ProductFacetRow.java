@@ -0,0 +1,7 @@
+package orgd.dinuka.productservice.dto;
+
+/**
+ * The columns of a product the filter index needs, read without loading the entity.
+ */
+public record ProductFacetRow(Long id, Long categoryId, double price) {
+}
@@ -0,0 +1,10 @@
+package orgd.dinuka.productservice.dto;
+
+import java.util.Set;
+
+/**
+ * Filter over the catalog: products carrying all of {@code tagIds}, in {@code categoryId}, priced within
+ * [{@code minPrice}, {@code maxPrice}]. Null or empty criteria do not restrict the result.
+ */
+public record ProductFilter(Set<Long> tagIds, Long categoryId, Double minPrice, Double maxPrice, int limit) {
+}
@@ -0,0 +1,12 @@
+package orgd.dinuka.productservice.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matching product ids in ascending order (at most the requested limit), the total number of matches, and how
+ * many of the matches fall under each tag and category.
+ */
+public record ProductFilterResult(long total, List<Long> ids, Map<Long, Integer> tagCounts,
+                                  Map<Long, Integer> categoryCounts) {
+}
@@ -0,0 +1,4 @@
+package orgd.dinuka.productservice.dto;
+
+public record ProductKey(Long id, String normalizedName) {
+}
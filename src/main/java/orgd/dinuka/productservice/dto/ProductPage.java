@@ -0,0 +1,10 @@
+package orgd.dinuka.productservice.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) paginated product listing. {@code nextCursor} is opaque to clients
+ * and is null once the last page has been returned.
+ */
+public record ProductPage(List<ProductDetail> items, String nextCursor) {
+}
@@ -0,0 +1,8 @@
+package orgd.dinuka.productservice.dto;
+
+/**
+ * Partial update of a product. {@code version} is the version the client last read and is required; fields
+ * left null keep their current value.
+ */
+public record ProductPatch(Long version, String name, Double price, Integer quantity) {
+}
@@ -0,0 +1,7 @@
+package orgd.dinuka.productservice.dto;
+
+/**
+ * The stored quantity of a product, read without loading the entity.
+ */
+public record ProductStock(Long id, int quantity) {
+}
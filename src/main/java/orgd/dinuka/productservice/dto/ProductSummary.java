@@ -0,0 +1,7 @@
+package orgd.dinuka.productservice.dto;
+
+/**
+ * Flat projection of a product and its category, read with a single query and no tag collection.
+ */
+public record ProductSummary(Long id, String name, double price, int quantity, Long categoryId, String categoryName) {
+}
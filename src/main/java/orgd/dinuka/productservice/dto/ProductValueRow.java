@@ -0,0 +1,7 @@
+package orgd.dinuka.productservice.dto;
+
+/**
+ * The columns of a product the category aggregates need, read without loading the entity.
+ */
+public record ProductValueRow(Long id, Long categoryId, String categoryName, double price, int quantity) {
+}
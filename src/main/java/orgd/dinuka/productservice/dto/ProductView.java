@@ -0,0 +1,24 @@
+package orgd.dinuka.productservice.dto;
+
+import java.util.Locale;
+
+/**
+ * Fetch plans a read endpoint can be asked for via its {@code view} request parameter.
+ */
+public enum ProductView {
+
+    /** Scalar columns plus category name, no tags. */
+    SUMMARY,
+    /** {@link ProductDetail}: the product with its category and tags, fetched up front. */
+    DETAIL,
+    /** Only the product ids. */
+    IDS;
+
+    public static ProductView fromParam(String view) {
+        try {
+            return valueOf(view.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown view '" + view + "', expected one of summary, detail, ids");
+        }
+    }
+}
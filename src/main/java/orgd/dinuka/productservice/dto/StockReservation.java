@@ -0,0 +1,9 @@
+package orgd.dinuka.productservice.dto;
+
+import java.time.Instant;
+
+/**
+ * Stock held for a client until it is confirmed, released or {@code expiresAt} passes.
+ */
+public record StockReservation(String id, long productId, int quantity, Instant expiresAt) {
+}
@@ -0,0 +1,21 @@
+package orgd.dinuka.productservice.dto;
+
+import orgd.dinuka.productservice.entity.Address;
+import orgd.dinuka.productservice.entity.Supplier;
+
+/**
+ * Read model of a supplier with its address. Built while the address is loaded, so serialization never touches a
+ * lazy association.
+ */
+public record SupplierDetail(Long id, String name, String contactNumber, AddressRef address) {
+
+    public record AddressRef(Long id, String line1, String street, String unitNumber, String postalCode) {
+    }
+
+    public static SupplierDetail of(Supplier supplier) {
+        Address address = supplier.getAddress();
+        AddressRef addressRef = address == null ? null : new AddressRef(address.getId(), address.getLine1(),
+                address.getStreet(), address.getUnitNumber(), address.getPostalCode());
+        return new SupplierDetail(supplier.getId(), supplier.getName(), supplier.getContactNumber(), addressRef);
+    }
+}
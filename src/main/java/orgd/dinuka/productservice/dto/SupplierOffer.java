@@ -0,0 +1,12 @@
+package orgd.dinuka.productservice.dto;
+
+import orgd.dinuka.productservice.entity.ProductSupplier;
+
+public record SupplierOffer(Long productId, double unitPrice, int stock, SupplierDetail supplier) {
+
+    // The product id is read off the lazy reference without loading the product
+    public static SupplierOffer of(ProductSupplier offer) {
+        return new SupplierOffer(offer.getProduct().getId(), offer.getUnitPrice(), offer.getStock(),
+                SupplierDetail.of(offer.getSupplier()));
+    }
+}
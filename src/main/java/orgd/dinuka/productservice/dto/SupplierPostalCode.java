@@ -0,0 +1,4 @@
+package orgd.dinuka.productservice.dto;
+
+public record SupplierPostalCode(Long supplierId, String postalCode) {
+}
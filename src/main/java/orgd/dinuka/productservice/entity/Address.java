@@ -1,11 +1,20 @@
 package orgd.dinuka.productservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
-@Table(name = "address")
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "address", indexes = @Index(name = "idx_address_postal_code", columnList = "postal_code"))
 public class Address {
 
     @Id
@@ -15,11 +24,33 @@ public class Address {
     private String line1;
     private String street;
     private String unitNumber;
+
+    // Stored trimmed and upper-cased so prefix lookups are an index range scan
+    @Column(name = "postal_code", length = 16)
     private String postalCode;
 
+    // Back-reference only; suppliers are read with their address in one join, never through this list
+    @JsonIgnore
     @OneToMany(mappedBy = "address", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Supplier> suppliers = new ArrayList<>();
 
+    public Address(String line1, String street, String unitNumber, String postalCode) {
+        this.line1 = line1;
+        this.street = street;
+        this.unitNumber = unitNumber;
+        this.postalCode = postalCode;
+    }
+
+    public static String normalizePostalCode(String postalCode) {
+        return postalCode == null ? null : postalCode.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateNormalizedPostalCode() {
+        postalCode = normalizePostalCode(postalCode);
+    }
+
     // Helper methods to maintain bidirectional relationship
     public void addSupplier(Supplier supplier) {
         suppliers.add(supplier);
@@ -30,6 +61,4 @@ public class Address {
         suppliers.remove(supplier);
         supplier.setAddress(null);
     }
-
-    // Getters and Setters
 }
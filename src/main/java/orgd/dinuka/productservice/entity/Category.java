@@ -1,21 +1,33 @@
 package orgd.dinuka.productservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Data
+@Getter
+@Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "category")
+// Reference data that rarely changes, so rows are kept in the second-level cache and product loads find them there
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Category.CACHE_REGION)
 public class Category {
+
+    public static final String CACHE_REGION = "category";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "category_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "category_name")
@@ -23,6 +35,22 @@ public class Category {
 
     private String description;
 
+    // Back-reference only; never serialized, so writing a product cannot recurse through its category
+    @JsonIgnore
     @OneToMany(mappedBy = "category" , cascade = CascadeType.ALL)
     private List<Product> products = new ArrayList<>();
+
+    // Custom equals and hashCode using only id, so hashing a category never loads its products
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Category category = (Category) o;
+        return id != null && id.equals(category.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
@@ -1,48 +1,100 @@
 package orgd.dinuka.productservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_name", columnList = "name"),
+        @Index(name = "idx_product_normalized_name", columnList = "normalized_name")
+})
+@NamedEntityGraph(name = Product.SUMMARY_GRAPH, attributeNodes = @NamedAttributeNode("category"))
+@NamedEntityGraph(name = Product.DETAIL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("tags")
+})
 public class Product {
 
+    public static final String SUMMARY_GRAPH = "Product.summary";
+    public static final String DETAIL_GRAPH = "Product.detail";
+    public static final String TAGS_CACHE_REGION = "product.tags";
+    public static final int TAGS_BATCH_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Name cannot be null")
     @Size(min = 2, max = 30, message = "Name must be between 2 and 30 characters")
     private String name;
 
+    // Trimmed, lower-cased copy of name backing case-insensitive and prefix lookups
+    @JsonIgnore
+    @Column(name = "normalized_name", length = 30)
+    private String normalizedName;
+
     @NotNull(message = "price cannot be null")
     private double price;
 
     private int quantity;
 
+    // Bumped by every write, including the conditional UPDATEs in ProductRepository, so stale edits are refused
+    @Version
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
 
+    // Loaded for up to 100 products per round trip when the graph does not fetch them. The tag ids of each product
+    // are also kept in the second-level cache, and the tags themselves come from the Tag region
     @ManyToMany
+    @BatchSize(size = TAGS_BATCH_SIZE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.TAGS_CACHE_REGION)
     @JoinTable(
             name = "product_tag",
             joinColumns = @JoinColumn(name = "product_id"),
-            inverseJoinColumns = @JoinColumn(name = "tag_id")
+            inverseJoinColumns = @JoinColumn(name = "tag_id"),
+            // The primary key (product_id, tag_id) serves lookups by product; this one serves lookups by tag
+            indexes = @Index(name = "idx_product_tag_tag_id", columnList = "tag_id, product_id")
     )
     private Set<Tag> tags = new HashSet<>();
 
+    public Product(Long id, String name, double price, int quantity, Category category, Set<Tag> tags) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.quantity = quantity;
+        this.category = category;
+        this.tags = tags;
+    }
+
+    public static String normalizeName(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateNormalizedName() {
+        normalizedName = normalizeName(name);
+    }
+
     // Custom equals and hashCode using only id
     @Override
     public boolean equals(Object o) {
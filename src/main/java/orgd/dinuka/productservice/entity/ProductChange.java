@@ -0,0 +1,63 @@
+package orgd.dinuka.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Outbox row for one product mutation, written in the same transaction as the mutation itself.
+ * <p>
+ * {@code id} only orders rows within the outbox; concurrent transactions can commit them out of id order.
+ * {@code sequence} is what consumers see: the relay assigns it when it publishes the row, densely and in the
+ * order rows became visible, so "changes since N" never skips a change that committed late.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "product_outbox", indexes = {
+        @Index(name = "idx_product_outbox_sequence", columnList = "seq_no", unique = true)
+})
+public class ProductChange {
+
+    public enum Type {
+        CREATED, UPDATED, QUANTITY_CHANGED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_outbox_seq")
+    @SequenceGenerator(name = "product_outbox_seq", sequenceName = "product_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    // Null until the relay publishes the row
+    @Column(name = "seq_no")
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_version")
+    private Long productVersion;
+
+    // JSON of the product state after the change; null for deletes
+    @Column(length = 4000)
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    public ProductChange(Type type, Long productId, Long productVersion, String payload, Instant occurredAt) {
+        this.type = type;
+        this.productId = productId;
+        this.productVersion = productVersion;
+        this.payload = payload;
+        this.occurredAt = occurredAt;
+    }
+}
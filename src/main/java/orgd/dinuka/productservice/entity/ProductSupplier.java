@@ -0,0 +1,55 @@
+package orgd.dinuka.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * A supplier's offer for a product: the price it sells at and the stock it holds. At most one per product and
+ * supplier. Deleting either side deletes the offer in the database, so product and supplier deletes need not load
+ * their offers first.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "product_supplier",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_supplier", columnNames = {"product_id", "supplier_id"}),
+        indexes = {
+                // Cheapest offers for a product come straight off this index, in-stock filtering included
+                @Index(name = "idx_product_supplier_price", columnList = "product_id, unit_price, stock"),
+                @Index(name = "idx_product_supplier_supplier_id", columnList = "supplier_id, product_id")
+        })
+public class ProductSupplier {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_supplier_seq")
+    @SequenceGenerator(name = "product_supplier_seq", sequenceName = "product_supplier_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "supplier_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Supplier supplier;
+
+    @Column(name = "unit_price", nullable = false)
+    private double unitPrice;
+
+    @Column(nullable = false)
+    private int stock;
+
+    public ProductSupplier(Product product, Supplier supplier, double unitPrice, int stock) {
+        this.product = product;
+        this.supplier = supplier;
+        this.unitPrice = unitPrice;
+        this.stock = stock;
+    }
+}
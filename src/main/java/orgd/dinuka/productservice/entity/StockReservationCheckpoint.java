@@ -0,0 +1,31 @@
+package orgd.dinuka.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * How far a node's reservation log has been written back to product quantities. It is updated in the same
+ * transaction as the quantities, so on recovery confirmations up to {@code lastSequence} are known to be applied and
+ * later ones are applied again.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "stock_reservation_checkpoint")
+public class StockReservationCheckpoint {
+
+    @Id
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    public StockReservationCheckpoint(String nodeId, long lastSequence) {
+        this.nodeId = nodeId;
+        this.lastSequence = lastSequence;
+    }
+}
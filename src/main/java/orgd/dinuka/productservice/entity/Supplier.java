@@ -2,15 +2,15 @@ package orgd.dinuka.productservice.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
-import lombok.Data;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
-import orgd.dinuka.productservice.entity.Address;
 
 @Entity
-@Table(name = "supplier")
+@Table(name = "supplier", indexes = @Index(name = "idx_supplier_address_id", columnList = "address_id"))
 @Getter
 @Setter
+@NoArgsConstructor
 public class Supplier {
 
     @Id
@@ -23,8 +23,28 @@ public class Supplier {
     @NotNull
     private String contactNumber;
 
-    @ManyToOne
+    // Lazy so a list of suppliers is not one address query per row; reads that need it join fetch it
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "address_id")
     private Address address;
 
+    public Supplier(String name, String contactNumber, Address address) {
+        this.name = name;
+        this.contactNumber = contactNumber;
+        this.address = address;
+    }
+
+    // Custom equals and hashCode using only id
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Supplier supplier = (Supplier) o;
+        return id != null && id.equals(supplier.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
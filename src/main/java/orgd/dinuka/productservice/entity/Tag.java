@@ -1,11 +1,15 @@
 package orgd.dinuka.productservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.HashSet;
 import java.util.Set;
 
@@ -15,15 +19,23 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "tag")
+// Reference data that rarely changes, kept in the second-level cache like Category
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Tag.CACHE_REGION)
 public class Tag {
 
+    public static final String CACHE_REGION = "tag";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tag_seq")
+    @SequenceGenerator(name = "tag_seq", sequenceName = "tag_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
     private String name;
 
+    // Back-reference only; never serialized, so writing a tag cannot pull in every product carrying it
+    @JsonIgnore
     @ManyToMany(mappedBy = "tags")
     private Set<Product> products = new HashSet<>();
 
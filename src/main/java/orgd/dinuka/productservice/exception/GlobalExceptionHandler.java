@@ -1,23 +1,68 @@
 package orgd.dinuka.productservice.exception;
 
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler   {
 
+    // Shared by every 404 so a miss allocates only its message body
+    private static final HttpHeaders NOT_FOUND_HEADERS;
+
+    static {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        NOT_FOUND_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    @ExceptionHandler({ResourceNotFoundException.class, ProductNotFoundException.class})
+    public ResponseEntity<Map<String, String>> handleNotFoundException(RuntimeException ex){
+        return new ResponseEntity<>(Collections.singletonMap("message", ex.getMessage()), NOT_FOUND_HEADERS,
+                HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        Map<String, String> errorDetails = new HashMap<>();
+        errorDetails.put("message", ex.getMessage());
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    // Stale version on a patch or full update, or a stock change that would go below zero
+    @ExceptionHandler({ProductConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Map<String, String>> handleConflictException(RuntimeException ex) {
+        Map<String, String> errorDetails = new HashMap<>();
+        errorDetails.put("message", ex.getMessage());
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Map<String, String>> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        Map<String, String> errorDetails = new HashMap<>();
+        errorDetails.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDetails);
+    }
+
+    // Malformed row in a streamed (NDJSON) request body
     @ExceptionHandler
-    public ResponseEntity<?> handleResourceNotFoundException(ResourceNotFoundException ex){
-        Map<String,String> errorDetails = new HashMap<>();
-        errorDetails.put("message",ex.getMessage());
-        return new ResponseEntity<>(errorDetails,HttpStatus.NOT_FOUND);
+    public ResponseEntity<Map<String, String>> handleRuntimeJsonMappingException(RuntimeJsonMappingException ex) {
+        Map<String, String> errorDetails = new HashMap<>();
+        errorDetails.put("message", ex.getMessage());
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
     // Exception handler for validation errors
@@ -0,0 +1,8 @@
+package orgd.dinuka.productservice.exception;
+
+public class ProductConflictException extends RuntimeException{
+
+    public ProductConflictException(String message){
+        super(message);
+    }
+}
@@ -1,8 +1,9 @@
 package orgd.dinuka.productservice.exception;
 
+// Misses are routine (stale links, scrapers), so no stack trace is captured; the message says everything
 public class ProductNotFoundException  extends RuntimeException{
 
     public ProductNotFoundException(String message){
-        super(message);
+        super(message, null, false, false);
     }
 }
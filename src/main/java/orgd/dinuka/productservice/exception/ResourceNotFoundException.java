@@ -1,7 +1,8 @@
 package orgd.dinuka.productservice.exception;
 
+// Stackless, like ProductNotFoundException: a 404 is an answer, not a fault
 public class ResourceNotFoundException extends RuntimeException{
     public ResourceNotFoundException(String message){
-        super(message);
+        super(message, null, false, false);
     }
 }
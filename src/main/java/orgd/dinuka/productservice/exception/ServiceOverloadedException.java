@@ -0,0 +1,8 @@
+package orgd.dinuka.productservice.exception;
+
+public class ServiceOverloadedException extends RuntimeException{
+
+    public ServiceOverloadedException(String message){
+        super(message);
+    }
+}
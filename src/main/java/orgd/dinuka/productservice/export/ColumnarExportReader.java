@@ -0,0 +1,95 @@
+package orgd.dinuka.productservice.export;
+
+import orgd.dinuka.productservice.dto.ProductDetail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads files written by {@link ColumnarExportWriter}, one row group at a time.
+ */
+public final class ColumnarExportReader {
+
+    private ColumnarExportReader() {
+    }
+
+    public static void read(Path file, Consumer<ProductDetail> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer trailer = readFully(channel, fileSize - Integer.BYTES - ColumnarExportWriter.MAGIC.length,
+                    Integer.BYTES + ColumnarExportWriter.MAGIC.length);
+            int footerLength = trailer.getInt();
+            byte[] magic = new byte[ColumnarExportWriter.MAGIC.length];
+            trailer.get(magic);
+            if (!Arrays.equals(magic, ColumnarExportWriter.MAGIC)) {
+                throw new IOException("Not a columnar product export: " + file);
+            }
+            ByteBuffer footer = readFully(channel, fileSize - trailer.capacity() - footerLength, footerLength);
+            Map<Long, ProductDetail.CategoryRef> categories = new HashMap<>();
+            for (long i = ColumnBuffer.readVarLong(footer); i > 0; i--) {
+                long id = ColumnBuffer.readVarLong(footer);
+                categories.put(id, new ProductDetail.CategoryRef(id, ColumnBuffer.readString(footer),
+                        ColumnBuffer.readString(footer)));
+            }
+            Map<Long, String> tags = new HashMap<>();
+            for (long i = ColumnBuffer.readVarLong(footer); i > 0; i--) {
+                long id = ColumnBuffer.readVarLong(footer);
+                tags.put(id, ColumnBuffer.readString(footer));
+            }
+            footer.getLong();
+            int groupCount = footer.getInt();
+            for (int group = 0; group < groupCount; group++) {
+                readGroup(channel, footer.getLong(), categories, tags, consumer);
+            }
+        }
+    }
+
+    private static void readGroup(FileChannel channel, long offset, Map<Long, ProductDetail.CategoryRef> categories,
+                                  Map<Long, String> tags, Consumer<ProductDetail> consumer) throws IOException {
+        int rows = readFully(channel, offset, Integer.BYTES).getInt();
+        long position = offset + Integer.BYTES;
+        ByteBuffer[] columns = new ByteBuffer[ColumnarExportWriter.COLUMN_COUNT];
+        for (int i = 0; i < columns.length; i++) {
+            int length = readFully(channel, position, Integer.BYTES).getInt();
+            columns[i] = readFully(channel, position + Integer.BYTES, length);
+            position += Integer.BYTES + length;
+        }
+        long id = 0;
+        for (int row = 0; row < rows; row++) {
+            id += ColumnBuffer.readZigZag(columns[0]);
+            String name = ColumnBuffer.readString(columns[1]);
+            double price = columns[2].getDouble();
+            int quantity = (int) ColumnBuffer.readZigZag(columns[3]);
+            long version = ColumnBuffer.readVarLong(columns[4]);
+            long categoryId = ColumnBuffer.readVarLong(columns[5]);
+            int tagCount = (int) ColumnBuffer.readVarLong(columns[6]);
+            List<ProductDetail.TagRef> productTags = new ArrayList<>(tagCount);
+            long tagId = 0;
+            for (int i = 0; i < tagCount; i++) {
+                tagId += ColumnBuffer.readZigZag(columns[6]);
+                productTags.add(new ProductDetail.TagRef(tagId, tags.get(tagId)));
+            }
+            consumer.accept(new ProductDetail(id, name, price, quantity, version == 0 ? null : version - 1,
+                    categoryId == 0 ? null : categories.get(categoryId - 1), productTags));
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar product export");
+            }
+        }
+        return buffer.flip();
+    }
+}
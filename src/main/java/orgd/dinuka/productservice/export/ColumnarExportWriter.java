@@ -0,0 +1,142 @@
+package orgd.dinuka.productservice.export;
+
+import orgd.dinuka.productservice.dto.ProductDetail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the compact columnar export format, a row group at a time, through a {@link FileChannel}.
+ * <p>
+ * Layout, all fixed-width numbers big-endian:
+ * <pre>
+ * file      := "PCOL" version:u8 rowGroup* footer footerLength:i32 "PCOL"
+ * rowGroup  := rowCount:i32 (byteLength:i32 bytes){7}
+ * footer    := categoryCount:varint (id:varint name:string description:string)*
+ *              tagCount:varint (id:varint name:string)* rowCount:i64 groupCount:i32 groupOffset:i64*
+ * </pre>
+ * The columns of a row group, in order: id (zigzag delta from the previous id), name (string), price (f64),
+ * quantity (zigzag), version (varint, value + 1, 0 for none), category id (varint, id + 1, 0 for none) and tag ids
+ * (count, then zigzag deltas). A string is its UTF-8 length + 1 as a varint, 0 for null, followed by the bytes.
+ * Category and tag names are stored once, in the footer. Only one row group is held in memory at a time.
+ */
+class ColumnarExportWriter implements ProductExportWriter {
+
+    static final byte[] MAGIC = "PCOL".getBytes(StandardCharsets.US_ASCII);
+    static final byte VERSION = 1;
+    static final int COLUMN_COUNT = 7;
+    static final int ROW_GROUP_SIZE = 8192;
+
+    private final FileChannel channel;
+    private final ColumnBuffer[] columns = new ColumnBuffer[COLUMN_COUNT];
+    private final Map<Long, ProductDetail.CategoryRef> categories = new LinkedHashMap<>();
+    private final Map<Long, String> tags = new LinkedHashMap<>();
+    private final List<Long> groupOffsets = new ArrayList<>();
+    private int groupRows;
+    private long totalRows;
+    private long previousId;
+
+    ColumnarExportWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columns[i] = new ColumnBuffer();
+        }
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 1).put(MAGIC).put(VERSION);
+        writeFully(header.flip());
+    }
+
+    @Override
+    public void write(ProductDetail product) throws IOException {
+        long id = product.id();
+        columns[0].writeZigZag(id - previousId);
+        previousId = id;
+        columns[1].writeString(product.name());
+        columns[2].writeDouble(product.price());
+        columns[3].writeZigZag(product.quantity());
+        columns[4].writeVarLong(product.version() == null ? 0 : product.version() + 1);
+        if (product.category() == null || product.category().id() == null) {
+            columns[5].writeVarLong(0);
+        } else {
+            columns[5].writeVarLong(product.category().id() + 1);
+            categories.putIfAbsent(product.category().id(), product.category());
+        }
+        columns[6].writeVarLong(product.tags().size());
+        long previousTagId = 0;
+        for (ProductDetail.TagRef tag : product.tags()) {
+            columns[6].writeZigZag(tag.id() - previousTagId);
+            previousTagId = tag.id();
+            tags.putIfAbsent(tag.id(), tag.name());
+        }
+        totalRows++;
+        if (++groupRows == ROW_GROUP_SIZE) {
+            flushGroup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (groupRows > 0) {
+                flushGroup();
+            }
+            ColumnBuffer footer = new ColumnBuffer();
+            footer.writeVarLong(categories.size());
+            categories.forEach((id, category) -> {
+                footer.writeVarLong(id);
+                footer.writeString(category.name());
+                footer.writeString(category.description());
+            });
+            footer.writeVarLong(tags.size());
+            tags.forEach((id, name) -> {
+                footer.writeVarLong(id);
+                footer.writeString(name);
+            });
+            footer.writeLong(totalRows);
+            footer.writeInt(groupOffsets.size());
+            groupOffsets.forEach(footer::writeLong);
+            footer.writeInt(footer.size());
+            footer.writeBytes(MAGIC);
+            writeFully(footer.toByteBuffer());
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flushGroup() throws IOException {
+        groupOffsets.add(channel.position());
+        ByteBuffer[] buffers = new ByteBuffer[COLUMN_COUNT * 2 + 1];
+        buffers[0] = ByteBuffer.allocate(Integer.BYTES).putInt(0, groupRows);
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            buffers[1 + i * 2] = ByteBuffer.allocate(Integer.BYTES).putInt(0, columns[i].size());
+            buffers[2 + i * 2] = columns[i].toByteBuffer();
+        }
+        // One gathering write per row group
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        for (ColumnBuffer column : columns) {
+            column.reset();
+        }
+        groupRows = 0;
+        previousId = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package orgd.dinuka.productservice.export;
+
+import orgd.dinuka.productservice.dto.ProductDetail;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped RFC 4180 CSV written through a {@link FileChannel}. Only a 64KB buffer is held in memory.
+ * <p>
+ * A product's tags share one cell per column, separated by {@code |}; a {@code |} or {@code \} inside a tag name is
+ * escaped with a backslash so the cell splits back into the original names.
+ */
+class CsvExportWriter implements ProductExportWriter {
+
+    static final String HEADER = "id,name,price,quantity,version,category_id,category_name,tag_ids,tag_names";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+
+    CsvExportWriter(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        this.writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(ProductDetail product) throws IOException {
+        writer.write(String.valueOf(product.id()));
+        writer.write(',');
+        writer.write(quote(product.name()));
+        writer.write(',');
+        writer.write(Double.toString(product.price()));
+        writer.write(',');
+        writer.write(Integer.toString(product.quantity()));
+        writer.write(',');
+        writer.write(product.version() == null ? "" : product.version().toString());
+        writer.write(',');
+        writer.write(product.category() == null ? "" : String.valueOf(product.category().id()));
+        writer.write(',');
+        writer.write(product.category() == null ? "" : quote(product.category().name()));
+        writer.write(',');
+        writer.write(product.tags().stream().map(tag -> String.valueOf(tag.id())).collect(Collectors.joining("|")));
+        writer.write(',');
+        writer.write(quote(product.tags().stream()
+                .map(tag -> escapeTag(tag.name()))
+                .collect(Collectors.joining("|"))));
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Finishes the gzip trailer and closes the channel
+        writer.close();
+    }
+
+    static String escapeTag(String name) {
+        return name == null ? "" : name.replace("\\", "\\\\").replace("|", "\\|");
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
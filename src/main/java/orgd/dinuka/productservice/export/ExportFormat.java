@@ -0,0 +1,47 @@
+package orgd.dinuka.productservice.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * File formats an export can be written in.
+ */
+public enum ExportFormat {
+
+    /** Gzipped CSV with a header row; a product's tag ids and names are each joined with '|'. */
+    CSV("csv.gz", "application/gzip"),
+    /** The column-oriented binary layout described in {@link ColumnarExportWriter}. */
+    COLUMNAR("pcol", "application/octet-stream");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    ProductExportWriter open(Path file) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvExportWriter(file);
+            case COLUMNAR -> new ColumnarExportWriter(file);
+        };
+    }
+
+    public static ExportFormat fromParam(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown export format '" + format + "', expected one of csv, columnar");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package orgd.dinuka.productservice.export;
+
+import orgd.dinuka.productservice.dto.ExportJobStatus;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one export, written by the worker running it and read by status requests.
+ */
+public class ExportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final ExportFormat format;
+    private final Path file;
+    private final Instant createdAt;
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile Status status = Status.QUEUED;
+    private volatile long totalRows;
+    private volatile Long sizeBytes;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ExportJob(String id, ExportFormat format, Path file, Instant createdAt) {
+        this.id = id;
+        this.format = format;
+        this.file = file;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    void started(long totalRows) {
+        this.totalRows = totalRows;
+        this.status = Status.RUNNING;
+    }
+
+    void rowWritten() {
+        rowsWritten.incrementAndGet();
+    }
+
+    void completed(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    public ExportJobStatus toStatus() {
+        return new ExportJobStatus(id, format, status, rowsWritten.get(), totalRows, sizeBytes, createdAt, finishedAt,
+                error);
+    }
+}
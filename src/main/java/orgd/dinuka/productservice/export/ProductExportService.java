@@ -0,0 +1,166 @@
+package orgd.dinuka.productservice.export;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.ExportJobStatus;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductExportRow;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Runs catalog exports in the background and keeps the finished files on local disk for {@code retention}.
+ * <p>
+ * A job streams the product, category and tag join in one read-only transaction, on a replica when one is
+ * configured, with a driver fetch size of 1000, and writes each product to the file as soon as its last row has been
+ * read. Neither a request thread nor the heap ever holds the catalog. At most {@code max-concurrent} jobs run at a
+ * time, each holding one connection; the rest wait their turn. The file is written under a temporary name and moved
+ * into place when complete.
+ */
+@Component
+@Slf4j
+public class ProductExportService {
+
+    private final ProductRepository repository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path directory;
+    private final Duration retention;
+    private final ExecutorService executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ProductExportService(ProductRepository repository, PlatformTransactionManager transactionManager,
+                                @Value("${product.export.directory:${java.io.tmpdir}/product-exports}") Path directory,
+                                @Value("${product.export.max-concurrent:1}") int maxConcurrent,
+                                @Value("${product.export.retention:1h}") Duration retention) throws IOException {
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.directory = Files.createDirectories(directory);
+        this.retention = retention;
+        this.executor = Executors.newFixedThreadPool(maxConcurrent, new CustomizableThreadFactory("product-export-"));
+    }
+
+    public ExportJobStatus start(ExportFormat format) {
+        String id = UUID.randomUUID().toString();
+        ExportJob job = new ExportJob(id, format, directory.resolve(id + "." + format.getExtension()), Instant.now());
+        jobs.put(id, job);
+        executor.execute(() -> run(job));
+        log.info("Queued {} export {}", format, id);
+        return job.toStatus();
+    }
+
+    public ExportJobStatus getStatus(String id) {
+        return getJob(id).toStatus();
+    }
+
+    public ExportJob getJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Export " + id + " not found");
+        }
+        return job;
+    }
+
+    @Scheduled(fixedDelayString = "${product.export.purge-interval:PT10M}")
+    public void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.getFinishedAt() == null || job.getFinishedAt().isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void run(ExportJob job) {
+        Path partial = job.getFile().resolveSibling(job.getFile().getFileName() + ".part");
+        try {
+            job.started(repository.count());
+            long started = System.nanoTime();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductExportRow> rows = repository.streamExportRows();
+                     ProductExportWriter writer = job.getFormat().open(partial)) {
+                    writeGrouped(rows.iterator(), writer, job);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            Files.move(partial, job.getFile(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.completed(Files.size(job.getFile()));
+            log.info("Export {} wrote {} products ({} bytes) in {} ms", job.getId(), job.toStatus().rowsWritten(),
+                    job.toStatus().sizeBytes(), (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception ex) {
+            log.error("Export {} failed", job.getId(), ex);
+            deleteQuietly(partial);
+            job.failed(ex.getMessage());
+        }
+    }
+
+    // Rows come ordered by product id, so a product is complete when the next id starts
+    private static void writeGrouped(Iterator<ProductExportRow> rows, ProductExportWriter writer, ExportJob job)
+            throws IOException {
+        ProductExportRow first = null;
+        List<ProductDetail.TagRef> tags = new ArrayList<>();
+        while (rows.hasNext()) {
+            ProductExportRow row = rows.next();
+            if (first != null && !first.id().equals(row.id())) {
+                writer.write(toDetail(first, tags));
+                job.rowWritten();
+                tags = new ArrayList<>();
+            }
+            if (first == null || !first.id().equals(row.id())) {
+                first = row;
+            }
+            if (row.tagId() != null) {
+                tags.add(new ProductDetail.TagRef(row.tagId(), row.tagName()));
+            }
+        }
+        if (first != null) {
+            writer.write(toDetail(first, tags));
+            job.rowWritten();
+        }
+    }
+
+    private static ProductDetail toDetail(ProductExportRow row, List<ProductDetail.TagRef> tags) {
+        ProductDetail.CategoryRef category = row.categoryId() == null ? null
+                : new ProductDetail.CategoryRef(row.categoryId(), row.categoryName(), row.categoryDescription());
+        return new ProductDetail(row.id(), row.name(), row.price(), row.quantity(), row.version(), category, tags);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete export file {}", file, ex);
+        }
+    }
+}
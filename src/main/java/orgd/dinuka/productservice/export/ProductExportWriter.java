@@ -0,0 +1,14 @@
+package orgd.dinuka.productservice.export;
+
+import orgd.dinuka.productservice.dto.ProductDetail;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Appends products to an export file. Closing it completes the file.
+ */
+interface ProductExportWriter extends Closeable {
+
+    void write(ProductDetail product) throws IOException;
+}
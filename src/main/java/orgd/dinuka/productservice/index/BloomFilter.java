@@ -0,0 +1,96 @@
+package orgd.dinuka.productservice.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over longs and strings. Sized for {@code expectedInsertions} at a false positive rate of
+ * {@code falsePositiveRate}; past that the rate climbs, so the owner rebuilds it bigger. Bits are set with CAS, so
+ * adds and lookups need no lock, and a lookup that starts after an add has returned sees it.
+ */
+final class BloomFilter {
+
+    private static final long STRING_SEED = 0x9E3779B97F4A7C15L;
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter needs positive insertions and a rate between 0 and 1");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = Math.toIntExact(Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    void add(long value) {
+        set(mix(value));
+    }
+
+    void add(String value) {
+        set(hash(value));
+    }
+
+    boolean mightContain(long value) {
+        return test(mix(value));
+    }
+
+    boolean mightContain(String value) {
+        return test(hash(value));
+    }
+
+    long getBitSize() {
+        return bitSize;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    // Kirsch-Mitzenmacher: the k positions are h1 + i * h2, so one 64-bit hash and a remix are enough
+    private void set(long hash) {
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash + i * h2, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    private boolean test(long hash) {
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash + i * h2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value) {
+        long hash = STRING_SEED;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 finalizer; sequential ids would otherwise land on neighbouring bits
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE1A85EC3L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,254 @@
+package orgd.dinuka.productservice.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.datasource.ReadRouting;
+import orgd.dinuka.productservice.dto.CategoryStats;
+import orgd.dinuka.productservice.dto.CategoryStatsRow;
+import orgd.dinuka.productservice.dto.ProductValueRow;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.exception.ServiceOverloadedException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Product count, total stock value and min, max and average price per category, kept in memory so a dashboard
+ * read costs one entry per category instead of a pass over the catalog.
+ * <p>
+ * Each product's category, price and quantity are remembered, so a write moves exactly its old contribution out
+ * and its new one in; prices are also counted per value so min and max survive deletes. Loading and replaying
+ * writes that arrive meanwhile work as in every {@link ReplayingIndex}. Every {@code reconcile-interval} the
+ * figures are compared with a GROUP BY over the product table; on any difference, whether from drifting double
+ * sums or a write that bypassed the service, the aggregates are rebuilt. A write landing between the query and the
+ * comparison can trigger a rebuild that was not needed, which costs one scan. The current aggregates keep
+ * answering during that scan; only the first build refuses reads.
+ */
+@Component
+@Slf4j
+public class CategoryAggregates extends ReplayingIndex<CategoryAggregates.State> {
+
+    private static final double RELATIVE_TOLERANCE = 1e-9;
+
+    private final ProductRepository repository;
+    private final Counter driftCounter;
+
+    public CategoryAggregates(ProductRepository repository, MeterRegistry meterRegistry,
+                              @Value("${product.index.load-page-size:5000}") int loadPageSize) {
+        super("Category aggregates", loadPageSize, new State());
+        this.repository = repository;
+        this.driftCounter = Counter.builder("product.category-stats.drift")
+                .description("Reconciliations that found the category aggregates out of step with the database")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected State load() {
+        State loaded = new State();
+        loadPages(repository::findValueRowsAfter, ProductValueRow::id, rows -> {
+            for (ProductValueRow row : rows) {
+                loaded.put(row.id(), new Doc(row.categoryId(), row.price(), row.quantity()));
+                if (row.categoryId() != null) {
+                    loaded.names.put(row.categoryId(), row.categoryName());
+                }
+            }
+        });
+        return loaded;
+    }
+
+    @Override
+    protected String describe(State loaded) {
+        return loaded.docs.size() + " products in " + loaded.byCategory.size() + " categories";
+    }
+
+    @Scheduled(initialDelayString = "${product.category-stats.reconcile-interval:PT10M}",
+            fixedDelayString = "${product.category-stats.reconcile-interval:PT10M}")
+    public void reconcile() {
+        if (!isReady()) {
+            return;
+        }
+        List<CategoryStatsRow> rows = ReadRouting.onPrimary(repository::aggregateByCategory);
+        List<Long> drifted = read(current -> {
+            List<Long> differing = new ArrayList<>();
+            Set<Long> seen = new HashSet<>();
+            for (CategoryStatsRow row : rows) {
+                seen.add(row.categoryId());
+                if (!current.matches(row)) {
+                    differing.add(row.categoryId());
+                }
+            }
+            current.byCategory.keySet().stream().filter(id -> !seen.contains(id)).forEach(differing::add);
+            return differing;
+        });
+        // Renames made outside this service are only seen here, so names are refreshed on every pass
+        apply(target -> rows.stream()
+                .filter(row -> row.categoryId() != null)
+                .forEach(row -> target.names.put(row.categoryId(), row.categoryName())));
+        if (drifted.isEmpty()) {
+            log.debug("Category aggregates match the database for {} categories", rows.size());
+            return;
+        }
+        driftCounter.increment();
+        log.info("Category aggregates differ from the database for categories {}, rebuilding", drifted);
+        rebuild();
+    }
+
+    public void onSaved(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        Long productId = product.getId();
+        Category category = product.getCategory();
+        Long categoryId = category == null ? null : category.getId();
+        // A detached reference that was never loaded has no name to read, and must not blank a known one
+        String categoryName = category == null || !Hibernate.isInitialized(category) ? null : category.getName();
+        Doc doc = new Doc(categoryId, product.getPrice(), product.getQuantity());
+        apply(target -> {
+            target.put(productId, doc);
+            if (categoryId != null && categoryName != null) {
+                target.names.put(categoryId, categoryName);
+            }
+        });
+    }
+
+    public void onQuantityChanged(Long productId, int quantity) {
+        if (productId != null) {
+            apply(target -> target.setQuantity(productId, quantity));
+        }
+    }
+
+    public void onDeleted(Long productId) {
+        if (productId != null) {
+            apply(target -> target.remove(productId));
+        }
+    }
+
+    public void onCategoryRenamed(Long categoryId, String categoryName) {
+        if (categoryId != null) {
+            apply(target -> target.names.put(categoryId, categoryName));
+        }
+    }
+
+    // Ordered by category id, uncategorized products last
+    public List<CategoryStats> getAll() {
+        return readIfReady(current -> current.byCategory.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(entry -> entry.getValue().toStats(entry.getKey(), current.names.get(entry.getKey())))
+                .toList())
+                .orElseThrow(CategoryAggregates::stillLoading);
+    }
+
+    // Empty when the category has no products
+    public Optional<CategoryStats> get(Long categoryId) {
+        return readIfReady(current -> Optional.ofNullable(current.byCategory.get(categoryId))
+                .map(aggregate -> aggregate.toStats(categoryId, current.names.get(categoryId))))
+                .orElseThrow(CategoryAggregates::stillLoading);
+    }
+
+    private static ServiceOverloadedException stillLoading() {
+        return new ServiceOverloadedException("Category statistics are still loading");
+    }
+
+    private static boolean close(double expected, double actual) {
+        return Math.abs(expected - actual) <= RELATIVE_TOLERANCE * Math.max(1.0, Math.abs(expected));
+    }
+
+    private record Doc(Long categoryId, double price, int quantity) {
+    }
+
+    /**
+     * Running totals of one category.
+     */
+    private static final class Aggregate {
+
+        private long count;
+        private double totalStockValue;
+        private double priceSum;
+        // Price to number of products at that price, for min and max
+        private final TreeMap<Double, Integer> prices = new TreeMap<>();
+
+        void add(Doc doc) {
+            count++;
+            totalStockValue += doc.price() * doc.quantity();
+            priceSum += doc.price();
+            prices.merge(doc.price(), 1, Integer::sum);
+        }
+
+        void subtract(Doc doc) {
+            count--;
+            totalStockValue -= doc.price() * doc.quantity();
+            priceSum -= doc.price();
+            prices.computeIfPresent(doc.price(), (price, products) -> products == 1 ? null : products - 1);
+        }
+
+        CategoryStats toStats(Long categoryId, String categoryName) {
+            return new CategoryStats(categoryId, categoryName, count, totalStockValue, prices.firstKey(),
+                    prices.lastKey(), priceSum / count);
+        }
+    }
+
+    /**
+     * The per-product values and per-category totals. Not thread-safe; the enclosing class guards every access
+     * with its lock.
+     */
+    static final class State {
+
+        private final Map<Long, Doc> docs = new HashMap<>();
+        // Keyed by category id, with null for products without a category
+        private final Map<Long, Aggregate> byCategory = new HashMap<>();
+        private final Map<Long, String> names = new HashMap<>();
+
+        void put(Long productId, Doc doc) {
+            remove(productId);
+            docs.put(productId, doc);
+            byCategory.computeIfAbsent(doc.categoryId(), id -> new Aggregate()).add(doc);
+        }
+
+        void setQuantity(Long productId, int quantity) {
+            Doc doc = docs.get(productId);
+            if (doc != null && doc.quantity() != quantity) {
+                put(productId, new Doc(doc.categoryId(), doc.price(), quantity));
+            }
+        }
+
+        void remove(Long productId) {
+            Doc doc = docs.remove(productId);
+            if (doc == null) {
+                return;
+            }
+            Aggregate aggregate = byCategory.get(doc.categoryId());
+            aggregate.subtract(doc);
+            // Dropped when empty, which also clears whatever rounding the sums had gathered
+            if (aggregate.count == 0) {
+                byCategory.remove(doc.categoryId());
+            }
+        }
+
+        boolean matches(CategoryStatsRow row) {
+            Aggregate aggregate = byCategory.get(row.categoryId());
+            if (aggregate == null) {
+                return row.productCount() == 0;
+            }
+            return aggregate.count == row.productCount()
+                    && Objects.equals(aggregate.prices.firstKey(), row.minPrice())
+                    && Objects.equals(aggregate.prices.lastKey(), row.maxPrice())
+                    && close(row.totalStockValue(), aggregate.totalStockValue)
+                    && close(row.priceSum(), aggregate.priceSum);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package orgd.dinuka.productservice.index;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import orgd.dinuka.productservice.dao.ProductChangeRepository;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.ProductChangeEvent;
+import orgd.dinuka.productservice.dto.ProductKey;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductChange;
+import orgd.dinuka.productservice.outbox.ProductChangeRelay;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bloom filters over every product id and normalized name, so lookups for products that were never created are
+ * answered without a query. A negative answer is definite; a positive one may be wrong at about
+ * {@code false-positive-rate} and falls through to the database as before.
+ * <p>
+ * The filters are built from a projection query once the application is ready and rebuilt every
+ * {@code rebuild-interval}, sized for twice the catalog or {@code expected-insertions}, whichever is larger. The
+ * service's write paths add to them through {@link #onSaved}, and so does the product change feed, which brings in
+ * products saved on other instances; while a rebuild runs the new filters get those adds too, so nothing saved
+ * during the scan goes missing. The feed is followed from before the first scan, so a product saved anywhere is
+ * either in the scan or arrives through the feed. A product saved on another instance can still be reported missing
+ * for the short time until its change is published. Bloom filters cannot forget, so deleted products and old
+ * names stay positive until the next rebuild, which is only a wasted query. Until the first build finishes
+ * nothing is reported missing.
+ */
+@Component
+@Slf4j
+public class ProductExistenceIndex {
+
+    private final ProductRepository repository;
+    private final ProductChangeRepository changeRepository;
+    private final ProductChangeRelay changeRelay;
+    private final int loadPageSize;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile Filters current;
+    private volatile Filters building;
+    private volatile long lastSeenChange;
+    private Disposable changeSubscription;
+
+    public ProductExistenceIndex(ProductRepository repository, ProductChangeRepository changeRepository,
+                                 ProductChangeRelay changeRelay,
+                                 @Value("${product.index.load-page-size:5000}") int loadPageSize,
+                                 @Value("${product.existence.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${product.existence.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.repository = repository;
+        this.changeRepository = changeRepository;
+        this.changeRelay = changeRelay;
+        this.loadPageSize = loadPageSize;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${product.existence.rebuild-interval:PT6H}",
+            fixedDelayString = "${product.existence.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        if (changeSubscription == null) {
+            followChanges();
+        }
+        Filters loaded = new Filters(Math.max(expectedInsertions, 2 * repository.count()), falsePositiveRate);
+        // Published before the scan, so a save that commits after the scan has passed its row is still added
+        building = loaded;
+        long count = 0;
+        try {
+            long after = 0L;
+            List<ProductKey> keys;
+            do {
+                keys = repository.findKeysAfter(after, Limit.of(loadPageSize));
+                keys.forEach(key -> loaded.add(key.id(), key.normalizedName()));
+                count += keys.size();
+                if (!keys.isEmpty()) {
+                    after = keys.get(keys.size() - 1).id();
+                }
+            } while (keys.size() == loadPageSize);
+            current = loaded;
+        } finally {
+            building = null;
+        }
+        log.info("Product existence index built with {} products ({} bits, {} hashes per key) in {} ms", count,
+                loaded.ids.getBitSize(), loaded.ids.getHashCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (changeSubscription != null) {
+            changeSubscription.dispose();
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public void onSaved(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        add(product.getId(), Product.normalizeName(product.getName()));
+    }
+
+    public boolean isDefinitelyMissing(Long id) {
+        Filters filters = current;
+        return filters != null && id != null && !filters.ids.mightContain(id);
+    }
+
+    // Takes the name as requested; it is normalized the same way the lookup normalizes it
+    public boolean isDefinitelyMissingName(String name) {
+        Filters filters = current;
+        String normalizedName = Product.normalizeName(name);
+        return filters != null && normalizedName != null && !filters.names.mightContain(normalizedName);
+    }
+
+    // Adds products saved on any instance, from the change feed; started before the first scan
+    private void followChanges() {
+        lastSeenChange = changeRepository.findMaxSequence();
+        changeSubscription = Flux.defer(() -> changeRelay.stream(lastSeenChange))
+                .doOnNext(event -> {
+                    lastSeenChange = event.sequence();
+                    if ((event.type() == ProductChange.Type.CREATED || event.type() == ProductChange.Type.UPDATED)
+                            && event.productId() != null) {
+                        add(event.productId(), event.product() == null ? null
+                                : Product.normalizeName(event.product().name()));
+                    }
+                })
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofSeconds(1)))
+                .subscribe();
+    }
+
+    private void add(long id, String normalizedName) {
+        // Building first: once it reads null, a rebuild has not scanned yet or has already swapped in
+        Filters target = building;
+        if (target != null) {
+            target.add(id, normalizedName);
+        }
+        target = current;
+        if (target != null) {
+            target.add(id, normalizedName);
+        }
+    }
+
+    private static final class Filters {
+
+        private final BloomFilter ids;
+        private final BloomFilter names;
+
+        Filters(long expectedInsertions, double falsePositiveRate) {
+            this.ids = new BloomFilter(expectedInsertions, falsePositiveRate);
+            this.names = new BloomFilter(expectedInsertions, falsePositiveRate);
+        }
+
+        void add(long id, String normalizedName) {
+            ids.add(id);
+            if (normalizedName != null) {
+                names.add(normalizedName);
+            }
+        }
+    }
+}
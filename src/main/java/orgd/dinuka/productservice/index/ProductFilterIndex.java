@@ -0,0 +1,201 @@
+package orgd.dinuka.productservice.index;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.ProductFacetRow;
+import orgd.dinuka.productservice.dto.ProductFilter;
+import orgd.dinuka.productservice.dto.ProductFilterResult;
+import orgd.dinuka.productservice.dto.ProductTagRef;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.Tag;
+import orgd.dinuka.productservice.exception.ServiceOverloadedException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index for faceted filtering: one compressed bitmap of product ids per tag and per
+ * category, plus the ids grouped by price in a sorted map. A filter is a handful of bitmap intersections and
+ * facet counts are intersection cardinalities, so neither touches the database.
+ * <p>
+ * The index is a {@link ReplayingIndex}, built from projection queries once the application is ready and kept
+ * current by the service's write paths through {@link #onSaved} and {@link #onDeleted}. Until the first build
+ * finishes {@link #filter} answers with {@link ServiceOverloadedException}. Product ids are stored as
+ * 32-bit bitmap positions, which holds while the sequence stays below {@link Integer#MAX_VALUE}.
+ */
+@Component
+public class ProductFilterIndex extends ReplayingIndex<ProductFilterIndex.State> {
+
+    private final ProductRepository repository;
+
+    public ProductFilterIndex(ProductRepository repository,
+                              @Value("${product.index.load-page-size:5000}") int loadPageSize) {
+        super("Product filter index", loadPageSize, new State());
+        this.repository = repository;
+    }
+
+    @Override
+    protected State load() {
+        State loaded = new State();
+        loadPages(repository::findFacetRowsAfter, ProductFacetRow::id, rows -> {
+            Map<Long, Set<Long>> tagsByProduct = new HashMap<>();
+            for (ProductTagRef ref : repository.findTagRefs(rows.stream().map(ProductFacetRow::id).toList())) {
+                tagsByProduct.computeIfAbsent(ref.productId(), id -> new HashSet<>()).add(ref.tagId());
+            }
+            for (ProductFacetRow row : rows) {
+                loaded.add(row.id(), new Doc(row.categoryId(), row.price(),
+                        tagsByProduct.getOrDefault(row.id(), Set.of())));
+            }
+        });
+        return loaded;
+    }
+
+    @Override
+    protected String describe(State loaded) {
+        return loaded.all.getCardinality() + " products";
+    }
+
+    public void onSaved(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        Long productId = product.getId();
+        Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+        Set<Long> tagIds = product.getTags() == null ? Set.of() : product.getTags().stream()
+                .map(Tag::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        Doc doc = new Doc(categoryId, product.getPrice(), tagIds);
+        apply(target -> target.add(productId, doc));
+    }
+
+    public void onDeleted(Long productId) {
+        if (productId != null) {
+            apply(target -> target.remove(productId));
+        }
+    }
+
+    public ProductFilterResult filter(ProductFilter filter) {
+        return readIfReady(current -> current.filter(filter))
+                .orElseThrow(() -> new ServiceOverloadedException("Product filter index is still loading"));
+    }
+
+    private record Doc(Long categoryId, double price, Set<Long> tagIds) {
+    }
+
+    /**
+     * The bitmaps themselves. Not thread-safe; the enclosing index guards every access with its lock.
+     */
+    static final class State {
+
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<Long, RoaringBitmap> byTag = new HashMap<>();
+        private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+        private final NavigableMap<Double, RoaringBitmap> byPrice = new TreeMap<>();
+
+        void add(Long productId, Doc doc) {
+            remove(productId);
+            int position = position(productId);
+            docs.put(productId, doc);
+            all.add(position);
+            if (doc.categoryId() != null) {
+                byCategory.computeIfAbsent(doc.categoryId(), id -> new RoaringBitmap()).add(position);
+            }
+            doc.tagIds().forEach(tagId -> byTag.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(position));
+            byPrice.computeIfAbsent(doc.price(), price -> new RoaringBitmap()).add(position);
+        }
+
+        void remove(Long productId) {
+            Doc doc = docs.remove(productId);
+            if (doc == null) {
+                return;
+            }
+            int position = position(productId);
+            all.remove(position);
+            if (doc.categoryId() != null) {
+                removeFrom(byCategory, doc.categoryId(), position);
+            }
+            doc.tagIds().forEach(tagId -> removeFrom(byTag, tagId, position));
+            removeFrom(byPrice, doc.price(), position);
+        }
+
+        ProductFilterResult filter(ProductFilter filter) {
+            RoaringBitmap matches = all.clone();
+            if (filter.categoryId() != null) {
+                matches.and(byCategory.getOrDefault(filter.categoryId(), new RoaringBitmap()));
+            }
+            if (filter.tagIds() != null) {
+                for (Long tagId : filter.tagIds()) {
+                    if (matches.isEmpty()) {
+                        break;
+                    }
+                    matches.and(byTag.getOrDefault(tagId, new RoaringBitmap()));
+                }
+            }
+            if (filter.minPrice() != null || filter.maxPrice() != null) {
+                matches.and(priceRange(filter.minPrice(), filter.maxPrice()));
+            }
+
+            List<Long> ids = new ArrayList<>(Math.min(filter.limit(), matches.getCardinality()));
+            IntIterator positions = matches.getIntIterator();
+            while (ids.size() < filter.limit() && positions.hasNext()) {
+                ids.add((long) positions.next());
+            }
+            return new ProductFilterResult(matches.getLongCardinality(), ids,
+                    facetCounts(byTag, matches), facetCounts(byCategory, matches));
+        }
+
+        private RoaringBitmap priceRange(Double minPrice, Double maxPrice) {
+            NavigableMap<Double, RoaringBitmap> range = byPrice;
+            if (minPrice != null && maxPrice != null) {
+                if (minPrice > maxPrice) {
+                    return new RoaringBitmap();
+                }
+                range = byPrice.subMap(minPrice, true, maxPrice, true);
+            } else if (minPrice != null) {
+                range = byPrice.tailMap(minPrice, true);
+            } else if (maxPrice != null) {
+                range = byPrice.headMap(maxPrice, true);
+            }
+            return FastAggregation.or(range.values().iterator());
+        }
+
+        private static Map<Long, Integer> facetCounts(Map<Long, RoaringBitmap> facets, RoaringBitmap matches) {
+            Map<Long, Integer> counts = new TreeMap<>();
+            facets.forEach((id, bitmap) -> {
+                int count = RoaringBitmap.andCardinality(bitmap, matches);
+                if (count > 0) {
+                    counts.put(id, count);
+                }
+            });
+            return counts;
+        }
+
+        private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int position) {
+            RoaringBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.remove(position);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+
+        private static int position(Long productId) {
+            return Math.toIntExact(productId);
+        }
+    }
+}
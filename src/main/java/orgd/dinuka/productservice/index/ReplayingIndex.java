@@ -0,0 +1,149 @@
+package orgd.dinuka.productservice.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * An in-memory structure loaded from the database and kept current by the service's write paths.
+ * <p>
+ * {@link #rebuild} loads a fresh state aside, first once the application is ready and again whenever a subclass
+ * asks. Writes go through {@link #apply}, which changes the current state and, while a load runs, records the write
+ * so it is replayed over the loaded state before that is swapped in; a row read before such a write cannot win over
+ * it. The current state keeps answering during the load, so only the first build leaves the index not ready, and
+ * it keeps answering if the load fails.
+ *
+ * @param <S> the loaded state; not thread-safe, every access goes through this class's lock
+ */
+public abstract class ReplayingIndex<S> {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final String name;
+    private final int loadPageSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private S state;
+    private List<Consumer<S>> pendingWrites = new ArrayList<>();
+    private boolean ready;
+
+    protected ReplayingIndex(String name, int loadPageSize, S empty) {
+        this.name = name;
+        this.loadPageSize = loadPageSize;
+        this.state = empty;
+    }
+
+    // Synchronized so a scheduled rebuild cannot start a second load while another runs
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        S loaded;
+        try {
+            loaded = load();
+        } catch (RuntimeException ex) {
+            // The current state keeps serving; writes stop being recorded until the next rebuild
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingWrites.forEach(write -> write.accept(loaded));
+            log.info("{} built with {} ({} writes replayed) in {} ms", name, describe(loaded), pendingWrites.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+            state = loaded;
+            pendingWrites = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A fresh state read from the database, called without the lock held
+    protected abstract S load();
+
+    // What a built state holds, for the log, such as "12 products"
+    protected abstract String describe(S loaded);
+
+    /**
+     * Walks a keyset-paged finder from the first id, handing each page to {@code rows}, until a page comes back
+     * short.
+     */
+    protected <R> void loadPages(BiFunction<Long, Limit, List<R>> finder, ToLongFunction<R> id,
+                                 Consumer<List<R>> rows) {
+        long after = 0L;
+        List<R> page;
+        do {
+            page = finder.apply(after, Limit.of(loadPageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            rows.accept(page);
+            after = id.applyAsLong(page.get(page.size() - 1));
+        } while (page.size() == loadPageSize);
+    }
+
+    protected void apply(Consumer<S> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(state);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Whatever state is current, even before the first build finished
+    protected <R> R read(Function<S, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(state);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Empty until the first build finished
+    protected <R> Optional<R> readIfReady(Function<S, R> reader) {
+        lock.readLock().lock();
+        try {
+            return ready ? Optional.of(reader.apply(state)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
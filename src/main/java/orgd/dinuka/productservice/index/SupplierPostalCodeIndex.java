@@ -0,0 +1,126 @@
+package orgd.dinuka.productservice.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import orgd.dinuka.productservice.dao.SupplierRepository;
+import orgd.dinuka.productservice.dto.SupplierPostalCode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Supplier ids sorted by normalized postal code, so "suppliers by postal code prefix" is a range walk over a sorted
+ * set in memory rather than a query.
+ * <p>
+ * A {@link ReplayingIndex} like {@link ProductFilterIndex}: loaded from a projection query once the application is
+ * ready and kept current by the supplier service through {@link #onSaved} and {@link #onDeleted}. Until then
+ * {@link #findByPrefix} answers empty and the caller queries the database. Every {@code rebuild-interval} it is
+ * reloaded while the current entries keep answering, which picks up suppliers written elsewhere.
+ */
+@Component
+public class SupplierPostalCodeIndex extends ReplayingIndex<SupplierPostalCodeIndex.State> {
+
+    private final SupplierRepository repository;
+
+    public SupplierPostalCodeIndex(SupplierRepository repository,
+                                   @Value("${product.index.load-page-size:5000}") int loadPageSize) {
+        super("Supplier postal code index", loadPageSize, new State());
+        this.repository = repository;
+    }
+
+    // Suppliers written by another instance or outside the service reach the index here
+    @Scheduled(initialDelayString = "${product.supplier-index.rebuild-interval:PT10M}",
+            fixedDelayString = "${product.supplier-index.rebuild-interval:PT10M}")
+    public void refresh() {
+        if (isReady()) {
+            rebuild();
+        }
+    }
+
+    @Override
+    protected State load() {
+        State loaded = new State();
+        loadPages(repository::findPostalCodesAfter, SupplierPostalCode::supplierId,
+                rows -> rows.forEach(row -> loaded.put(row.supplierId(), row.postalCode())));
+        return loaded;
+    }
+
+    @Override
+    protected String describe(State loaded) {
+        return loaded.bySupplier.size() + " suppliers";
+    }
+
+    // A null postal code takes the supplier out of the index, as when its address is removed
+    public void onSaved(Long supplierId, String postalCode) {
+        if (supplierId != null) {
+            apply(target -> target.put(supplierId, postalCode));
+        }
+    }
+
+    public void onDeleted(Long supplierId) {
+        if (supplierId != null) {
+            apply(target -> target.remove(supplierId));
+        }
+    }
+
+    /**
+     * Ids of up to {@code limit} suppliers whose postal code starts with the normalized {@code prefix}, ordered by
+     * postal code and then id; empty while the index is loading.
+     */
+    public Optional<List<Long>> findByPrefix(String prefix, int limit) {
+        return readIfReady(current -> current.findByPrefix(prefix, limit));
+    }
+
+    private record Entry(String postalCode, long supplierId) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byPostalCode = postalCode.compareTo(other.postalCode);
+            return byPostalCode != 0 ? byPostalCode : Long.compare(supplierId, other.supplierId);
+        }
+    }
+
+    /**
+     * The sorted entries. Not thread-safe; the enclosing index guards every access with its lock.
+     */
+    static final class State {
+
+        private final NavigableSet<Entry> entries = new TreeSet<>();
+        private final Map<Long, String> bySupplier = new HashMap<>();
+
+        void put(Long supplierId, String postalCode) {
+            remove(supplierId);
+            if (postalCode != null) {
+                bySupplier.put(supplierId, postalCode);
+                entries.add(new Entry(postalCode, supplierId));
+            }
+        }
+
+        void remove(Long supplierId) {
+            String postalCode = bySupplier.remove(supplierId);
+            if (postalCode != null) {
+                entries.remove(new Entry(postalCode, supplierId));
+            }
+        }
+
+        List<Long> findByPrefix(String prefix, int limit) {
+            // Every code with the prefix sorts at or after (prefix, 0) and before (prefix + U+FFFF, 0)
+            NavigableSet<Entry> range = entries.subSet(new Entry(prefix, Long.MIN_VALUE), true,
+                    new Entry(prefix + Character.MAX_VALUE, Long.MIN_VALUE), false);
+            List<Long> ids = new ArrayList<>();
+            for (Entry entry : range) {
+                if (ids.size() == limit) {
+                    break;
+                }
+                ids.add(entry.supplierId());
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package orgd.dinuka.productservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every {@code ProductService} method and every repository call into Micrometer timers with percentile
+ * histograms, tagged by method and outcome, and repository calls also by repository, as many repositories share
+ * method names such as {@code findById}.
+ * <p>
+ * It runs outside every other advice, so service timings include the transaction commit and waiting for a database
+ * permit in the {@code RepositoryConcurrencyLimiter}. A {@link Mono} result is timed until it terminates.
+ * Calls slower than {@code slow-call-threshold} are always logged, and {@code log-sample-rate} of the rest, which
+ * keeps per-call visibility in production without logging every call.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ProductMetricsAspect {
+
+    static final String SERVICE_TIMER = "product.service.calls";
+    static final String REPOSITORY_TIMER = "product.repository.calls";
+
+    private final MeterRegistry meterRegistry;
+    private final double logSampleRate;
+    private final long slowCallThresholdNanos;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public ProductMetricsAspect(MeterRegistry meterRegistry,
+                                @Value("${product.metrics.log-sample-rate:0.01}") double logSampleRate,
+                                @Value("${product.metrics.slow-call-threshold:500ms}") Duration slowCallThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.logSampleRate = logSampleRate;
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+    }
+
+    @Around("target(orgd.dinuka.productservice.service.ProductService)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, null, joinPoint);
+    }
+
+    // Stream results are timed until the stream is returned, not until it is consumed
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(),
+                type -> repositoryName(type, joinPoint));
+        return time(REPOSITORY_TIMER, repository, joinPoint);
+    }
+
+    // The application's repository interface the proxy implements, since inherited methods such as findById are
+    // declared on CrudRepository
+    private static String repositoryName(Class<?> proxyType, ProceedingJoinPoint joinPoint) {
+        for (Class<?> type : proxyType.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(type) && type != Repository.class) {
+                return type.getSimpleName();
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName();
+    }
+
+    // repository is null for service calls, which are not tagged with one
+    private Object time(String timerName, String repository, ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long started = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            record(timerName, repository, method, "error", started);
+            throw ex;
+        }
+        if (result instanceof Mono<?> mono) {
+            return mono.doOnSuccess(value -> record(timerName, repository, method, "success", started))
+                    .doOnError(ex -> record(timerName, repository, method, "error", started));
+        }
+        record(timerName, repository, method, "success", started);
+        return result;
+    }
+
+    private void record(String timerName, String repository, String method, String outcome, long started) {
+        long elapsed = System.nanoTime() - started;
+        timer(timerName, repository, method, outcome).record(elapsed, TimeUnit.NANOSECONDS);
+        String call = repository == null ? method : repository + '.' + method;
+        if (elapsed >= slowCallThresholdNanos) {
+            log.warn("Slow call {} {} took {} ms ({})", timerName, call, elapsed / 1_000_000, outcome);
+        } else if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            log.info("Sampled call {} {} took {} ms ({})", timerName, call, elapsed / 1_000_000, outcome);
+        }
+    }
+
+    private Timer timer(String timerName, String repository, String method, String outcome) {
+        return timers.computeIfAbsent(timerName + '|' + repository + '|' + method + '|' + outcome, key -> {
+            Timer.Builder builder = Timer.builder(timerName);
+            if (repository != null) {
+                builder.tag("repository", repository);
+            }
+            return builder.tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        });
+    }
+}
@@ -0,0 +1,191 @@
+package orgd.dinuka.productservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import orgd.dinuka.productservice.dao.ProductChangeRepository;
+import orgd.dinuka.productservice.dto.ProductChangeEvent;
+import orgd.dinuka.productservice.dto.ProductChangePage;
+import orgd.dinuka.productservice.entity.ProductChange;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox rows as {@link ProductChangeEvent}s and serves them to consumers.
+ * <p>
+ * Every {@code relay-interval} the relay takes unpublished rows in batches of {@code batch-size}, numbers them after
+ * the highest sequence published so far and commits that, then pushes the events to live subscribers. Only one
+ * relay may publish against a database, as a second one would collide on the unique sequence index and roll back, so
+ * with several instances {@code relay-enabled} must be true on exactly one of them. Every instance follows the outbox
+ * on each tick, so changes published by another instance's relay reach its live subscribers and its
+ * {@link #getLastPublishedSequence} as well. Published rows are kept for {@code retention}
+ * so consumers can catch up with {@link #changesSince}.
+ */
+@Component
+@Slf4j
+public class ProductChangeRelay {
+
+    private final ProductChangeRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean publishing;
+    private final int batchSize;
+    private final int subscriberBufferSize;
+    private final Duration retention;
+    // Drops events for subscribers that are not keeping up; each subscriber buffers up to its own limit instead
+    private final Sinks.Many<ProductChangeEvent> liveEvents = Sinks.many().multicast().directBestEffort();
+    // Highest sequence seen committed in the outbox, -1 until the first run has read it
+    private volatile long lastPublishedSequence = -1;
+
+    public ProductChangeRelay(ProductChangeRepository repository, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${product.outbox.relay-enabled:true}") boolean publishing,
+                              @Value("${product.outbox.batch-size:500}") int batchSize,
+                              @Value("${product.outbox.subscriber-buffer-size:1000}") int subscriberBufferSize,
+                              @Value("${product.outbox.retention:7d}") Duration retention) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.publishing = publishing;
+        this.batchSize = batchSize;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.relay-interval:PT0.2S}")
+    public void relay() {
+        if (lastPublishedSequence < 0) {
+            lastPublishedSequence = repository.findMaxSequence();
+        }
+        if (!publishing) {
+            followOutbox();
+            return;
+        }
+        try {
+            List<ProductChangeEvent> published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+                // Only committed changes reach subscribers, and only straight after the last one they saw; anything
+                // published elsewhere in between is picked up in order by followOutbox
+                if (!published.isEmpty() && published.get(0).sequence() == lastPublishedSequence + 1) {
+                    lastPublishedSequence = published.get(published.size() - 1).sequence();
+                    published.forEach(liveEvents::tryEmitNext);
+                }
+            } while (published.size() == batchSize);
+        } finally {
+            followOutbox();
+        }
+    }
+
+    /**
+     * The sequence of the last change committed to the outbox as of this instance's latest relay run, whichever
+     * instance published it, or -1 before the first run. It only grows, and a change is committed before its
+     * sequence shows up here.
+     */
+    public long getLastPublishedSequence() {
+        return lastPublishedSequence;
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.purge-interval:PT1H}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status -> repository.deletePublishedBefore(
+                Instant.now().minus(retention), repository.findMaxSequence()));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} published product changes older than {}", deleted, retention);
+        }
+    }
+
+    public ProductChangePage changesSince(long after, int limit) {
+        List<ProductChangeEvent> changes = repository.findBySequenceGreaterThanOrderBySequenceAsc(after, Limit.of(limit))
+                .stream()
+                .map(this::toEvent)
+                .toList();
+        long lastSequence = changes.isEmpty() ? after : changes.get(changes.size() - 1).sequence();
+        return new ProductChangePage(changes, lastSequence);
+    }
+
+    /**
+     * Changes after {@code after}, first those already published and then live ones as they are published. Live
+     * events are buffered from the start so none are lost between the catch-up query and the switch to live. A
+     * subscriber that falls more than {@code subscriber-buffer-size} events behind gets an error and should resume
+     * from the last sequence it saw.
+     */
+    public Flux<ProductChangeEvent> stream(long after) {
+        return Flux.defer(() -> {
+            ConnectableFlux<ProductChangeEvent> live = liveEvents.asFlux()
+                    .onBackpressureBuffer(subscriberBufferSize)
+                    .publish();
+            Disposable connection = live.connect();
+            AtomicLong lastSequence = new AtomicLong(after);
+            Flux<ProductChangeEvent> catchUp = Mono.fromCallable(() -> changesSince(after, batchSize))
+                    .expand(page -> page.changes().size() < batchSize ? Mono.empty()
+                            : Mono.fromCallable(() -> changesSince(page.lastSequence(), batchSize)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .concatMapIterable(ProductChangePage::changes);
+            return Flux.concat(catchUp, live)
+                    .filter(event -> event.sequence() > lastSequence.get())
+                    .doOnNext(event -> lastSequence.set(event.sequence()))
+                    .doFinally(signal -> connection.dispose());
+        });
+    }
+
+    // Emits changes published after the last one seen, by this relay or another instance's
+    private void followOutbox() {
+        List<ProductChangeEvent> changes;
+        boolean advanced;
+        do {
+            changes = changesSince(lastPublishedSequence, batchSize).changes();
+            advanced = false;
+            for (ProductChangeEvent event : changes) {
+                if (event.sequence() > lastPublishedSequence) {
+                    lastPublishedSequence = event.sequence();
+                    liveEvents.tryEmitNext(event);
+                    advanced = true;
+                }
+            }
+        } while (advanced && changes.size() == batchSize);
+    }
+
+    private List<ProductChangeEvent> publishBatch() {
+        List<ProductChange> pending = repository.findBySequenceIsNullOrderByIdAsc(Limit.of(batchSize));
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        long sequence = repository.findMaxSequence();
+        List<ProductChangeEvent> events = new ArrayList<>(pending.size());
+        for (ProductChange change : pending) {
+            change.setSequence(++sequence);
+            events.add(toEvent(change));
+        }
+        log.debug("Publishing {} product changes up to sequence {}", events.size(), sequence);
+        return events;
+    }
+
+    private ProductChangeEvent toEvent(ProductChange change) {
+        ProductChangeEvent.ProductState state;
+        try {
+            state = change.getPayload() == null ? null
+                    : objectMapper.readValue(change.getPayload(), ProductChangeEvent.ProductState.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable payload in product change " + change.getId(), ex);
+        }
+        return new ProductChangeEvent(change.getSequence(), change.getType(), change.getProductId(),
+                change.getProductVersion(), change.getOccurredAt(), state);
+    }
+}
@@ -0,0 +1,70 @@
+package orgd.dinuka.productservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import orgd.dinuka.productservice.dto.ProductChangeEvent;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductChange;
+import orgd.dinuka.productservice.entity.Tag;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Records product changes in the outbox. Every method joins the caller's transaction and refuses to run without
+ * one, so a change is recorded if and only if the mutation itself commits.
+ */
+@Component
+public class ProductOutbox {
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ProductOutbox(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records the state of a created or updated product. Updates must be flushed first so the version recorded is
+     * the one being committed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSaved(ProductChange.Type type, Product product) {
+        List<Long> tagIds = product.getTags() == null ? List.of() : product.getTags().stream()
+                .map(Tag::getId)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+        Long categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+        ProductChangeEvent.ProductState state = new ProductChangeEvent.ProductState(product.getName(),
+                product.getPrice(), product.getQuantity(), categoryId, tagIds);
+        persist(type, product.getId(), product.getVersion(), state);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordQuantityChanged(Long productId, int quantity) {
+        persist(ProductChange.Type.QUANTITY_CHANGED, productId, null,
+                new ProductChangeEvent.ProductState(null, null, quantity, null, null));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long productId) {
+        persist(ProductChange.Type.DELETED, productId, null, null);
+    }
+
+    private void persist(ProductChange.Type type, Long productId, Long version, ProductChangeEvent.ProductState state) {
+        String payload;
+        try {
+            payload = state == null ? null : objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialise change of product " + productId, ex);
+        }
+        entityManager.persist(new ProductChange(type, productId, version, payload, Instant.now()));
+    }
+}
@@ -0,0 +1,125 @@
+package orgd.dinuka.productservice.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import orgd.dinuka.productservice.dao.RepositoryConcurrencyLimiter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers 503 with {@code Retry-After} instead of letting requests queue for the connection pool until they time out.
+ * <p>
+ * A request is shed when more than {@code max-in-flight} are already being served. Above {@code max-pool-wait} of
+ * recent connection wait, measured by {@link RepositoryConcurrencyLimiter} on every connection the application takes,
+ * a growing share of requests is shed: none at the threshold, all at twice it. The wait decays while requests are
+ * shed, so admission recovers on its own as the pool drains. An asynchronous request, such as a stream or a
+ * {@code Mono} result, counts as in flight until its async processing completes, errors or times out, not only while
+ * its first dispatch runs.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final RepositoryConcurrencyLimiter concurrencyLimiter;
+    private final int maxInFlight;
+    private final long maxPoolWaitNanos;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadSheddingFilter(RepositoryConcurrencyLimiter concurrencyLimiter, int maxInFlight, Duration maxPoolWait,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.maxInFlight = maxInFlight;
+        this.maxPoolWaitNanos = maxPoolWait.toNanos();
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("product.requests.in-flight", inFlight, AtomicInteger::get)
+                .description("Product API requests being served")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                shed(response, "in-flight", "Too many requests in progress");
+            } else if (shouldShedForPoolWait(concurrencyLimiter.getRecentWaitNanos())) {
+                shed(response, "pool-wait", "Database is overloaded");
+            } else {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new InFlightListener());
+            } else {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    boolean shouldShedForPoolWait(long recentWaitNanos) {
+        if (recentWaitNanos <= maxPoolWaitNanos) {
+            return false;
+        }
+        double excess = (double) (recentWaitNanos - maxPoolWaitNanos) / maxPoolWaitNanos;
+        return excess >= 1 || ThreadLocalRandom.current().nextDouble() < excess;
+    }
+
+    // Async dispatches skip this filter, so the request leaves the count when its async processing ends
+    private class InFlightListener implements AsyncListener {
+
+        // An error or timeout is followed by completion, which must not count the request out twice
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            finish();
+        }
+
+        // Listeners are dropped when async processing is started again, so this one registers itself anew
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void finish() {
+            if (done.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private void shed(HttpServletResponse response, String reason, String message) throws IOException {
+        meterRegistry.counter(RateLimitFilter.REJECTED_METRIC, "reason", reason, "quota", "none").increment();
+        RateLimitFilter.reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), message,
+                objectMapper);
+    }
+}
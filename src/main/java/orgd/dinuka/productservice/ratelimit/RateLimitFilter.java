@@ -0,0 +1,118 @@
+package orgd.dinuka.productservice.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers 429 with {@code Retry-After} once a client has used up any quota matching the request.
+ * <p>
+ * Clients are told apart by a known API key, otherwise by remote address, which behind a load balancer is the one it
+ * forwarded ({@code server.forward-headers-strategy}). Each client has one {@link TokenBucket} per quota, created on
+ * first use and dropped after {@code idle-expiry}. Requests are not limited until the application accepts traffic,
+ * so the startup warm-up is never throttled.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String REJECTED_METRIC = "product.requests.rejected";
+
+    private final List<CompiledQuota> quotas;
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final Cache<String, TokenBucket> buckets;
+    private final ApplicationAvailability availability;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimitProperties properties, ApplicationAvailability availability,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        PathPatternParser parser = new PathPatternParser();
+        Map<String, RateLimitProperties.Quota> configured = properties.quotas() == null ? Map.of() : properties.quotas();
+        this.quotas = configured.entrySet().stream()
+                .map(entry -> new CompiledQuota(entry.getKey(),
+                        entry.getValue().paths().stream().map(parser::parse).toList(),
+                        entry.getValue().permitsPerSecond(), entry.getValue().burst()))
+                .toList();
+        this.clientHeader = properties.clientHeader();
+        this.apiKeys = properties.apiKeys() == null ? Set.of() : Set.copyOf(properties.apiKeys());
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.idleExpiry())
+                .maximumSize(properties.maxClients())
+                .build();
+        this.availability = availability;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            chain.doFilter(request, response);
+            return;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        String client = clientId(request);
+        long now = System.nanoTime();
+        for (CompiledQuota quota : quotas) {
+            if (!quota.matches(path)) {
+                continue;
+            }
+            long wait = buckets.get(quota.name() + '|' + client, key -> new TokenBucket(quota.permitsPerSecond(),
+                    quota.burst())).tryAcquire(now);
+            if (wait > 0) {
+                meterRegistry.counter(REJECTED_METRIC, "reason", "rate-limit", "quota", quota.name()).increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, wait,
+                        "Rate limit exceeded for " + quota.name() + " requests", objectMapper);
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    String clientId(HttpServletRequest request) {
+        String key = request.getHeader(clientHeader);
+        return key != null && apiKeys.contains(key) ? "key:" + key : "ip:" + request.getRemoteAddr();
+    }
+
+    static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message,
+                       ObjectMapper objectMapper) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+    }
+
+    private record CompiledQuota(String name, List<PathPattern> paths, double permitsPerSecond, int burst) {
+
+        boolean matches(PathContainer path) {
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
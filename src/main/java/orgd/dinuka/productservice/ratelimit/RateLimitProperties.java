@@ -0,0 +1,35 @@
+package orgd.dinuka.productservice.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-client quotas under {@code product.rate-limit}.
+ *
+ * @param clientHeader header carrying the client's API key
+ * @param apiKeys      keys that identify a client; requests without a known key are limited by remote address, so an
+ *                     invented key does not buy a fresh bucket
+ * @param quotas       named quotas; a request takes a permit from every quota whose paths match it
+ * @param idleExpiry   buckets of clients idle this long are dropped
+ * @param maxClients   bound on the buckets kept at once
+ */
+@ConfigurationProperties("product.rate-limit")
+public record RateLimitProperties(@DefaultValue("X-API-Key") String clientHeader,
+                                  Set<String> apiKeys,
+                                  Map<String, Quota> quotas,
+                                  @DefaultValue("10m") Duration idleExpiry,
+                                  @DefaultValue("100000") long maxClients) {
+
+    /**
+     * @param paths           path patterns below the context path, such as {@code /product/**}
+     * @param permitsPerSecond sustained rate per client
+     * @param burst           requests a client may make at once after being idle
+     */
+    public record Quota(List<String> paths, double permitsPerSecond, int burst) {
+    }
+}
@@ -0,0 +1,45 @@
+package orgd.dinuka.productservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as a single theoretical arrival time (the generic cell rate algorithm).
+ * <p>
+ * Each permit pushes the arrival time one emission interval further; a request is allowed while that time is at most
+ * {@code burst} intervals ahead of now. That is the same as a bucket of {@code burst} tokens refilled at the rate,
+ * without a refill step or a second field to keep consistent, so one compare-and-set is enough.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("A quota needs a positive rate and a burst of at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000 / permitsPerSecond));
+        this.capacityNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * Takes a permit if one is available at {@code nowNanos}.
+     *
+     * @return 0 when the permit was taken, otherwise how long until one is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = (arrival == Long.MIN_VALUE || arrival - nowNanos < 0 ? nowNanos : arrival)
+                    + emissionIntervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
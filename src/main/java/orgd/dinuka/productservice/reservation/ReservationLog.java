@@ -0,0 +1,187 @@
+package orgd.dinuka.productservice.reservation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only file of reservation events, one line each, replayed after a crash.
+ * <p>
+ * Appends must be serialized by the caller, which keeps the file in the same order as its own state changes. Making
+ * them durable is separate and group committed: whichever caller forces the file covers everything appended before
+ * it, so concurrent callers share one {@code fsync}. A torn last line left by a crash is dropped on replay.
+ */
+@Slf4j
+final class ReservationLog implements Closeable {
+
+    enum Type {
+        RESERVED, CONFIRMED, RELEASED
+    }
+
+    record Entry(long sequence, Type type, String reservationId, long productId, int quantity, long expiresAtMillis) {
+
+        String format() {
+            return sequence + "," + type.name().charAt(0) + "," + reservationId + "," + productId + "," + quantity
+                    + "," + expiresAtMillis + "\n";
+        }
+
+        static Entry parse(String line) {
+            String[] fields = line.split(",");
+            if (fields.length != 6) {
+                throw new IllegalArgumentException("Malformed reservation log line: " + line);
+            }
+            Type type = switch (fields[1]) {
+                case "R" -> Type.RESERVED;
+                case "C" -> Type.CONFIRMED;
+                case "X" -> Type.RELEASED;
+                default -> throw new IllegalArgumentException("Unknown reservation log entry: " + line);
+            };
+            return new Entry(Long.parseLong(fields[0]), type, fields[2], Long.parseLong(fields[3]),
+                    Integer.parseInt(fields[4]), Long.parseLong(fields[5]));
+        }
+    }
+
+    private final Path file;
+    private final boolean sync;
+    private final Object forceLock = new Object();
+    private FileChannel channel;
+    private long lastSequence;
+    private volatile long writtenSequence;
+    private volatile long durableSequence;
+
+    ReservationLog(Path file, boolean sync) throws IOException {
+        this.file = file;
+        this.sync = sync;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Reads the entries in the file and opens it for appending after them.
+     */
+    List<Entry> replay() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long validLength = 0;
+        if (Files.exists(file)) {
+            byte[] content = Files.readAllBytes(file);
+            int lineStart = 0;
+            for (int i = 0; i < content.length; i++) {
+                if (content[i] != '\n') {
+                    continue;
+                }
+                String line = new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                try {
+                    entries.add(Entry.parse(line));
+                } catch (IllegalArgumentException ex) {
+                    log.warn("Reservation log {} is damaged after {} entries, dropping the rest", file, entries.size());
+                    break;
+                }
+                lineStart = i + 1;
+                validLength = lineStart;
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        entries.forEach(entry -> lastSequence = Math.max(lastSequence, entry.sequence()));
+        writtenSequence = lastSequence;
+        durableSequence = lastSequence;
+        return entries;
+    }
+
+    // Sequences keep growing past what earlier runs wrote back, even once the file has been compacted away
+    void startAfter(long sequence) {
+        lastSequence = Math.max(lastSequence, sequence);
+        writtenSequence = lastSequence;
+        durableSequence = lastSequence;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    Entry append(Type type, String reservationId, long productId, int quantity, long expiresAtMillis) {
+        Entry entry = new Entry(lastSequence + 1, type, reservationId, productId, quantity, expiresAtMillis);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(entry.format().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not append to reservation log " + file, ex);
+        }
+        lastSequence = entry.sequence();
+        writtenSequence = lastSequence;
+        return entry;
+    }
+
+    /**
+     * Returns once the entry with {@code sequence}, and everything before it, is on disk.
+     */
+    void awaitDurable(long sequence) {
+        if (!sync || durableSequence >= sequence) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long upTo = writtenSequence;
+            try {
+                channel.force(false);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not sync reservation log " + file, ex);
+            }
+            durableSequence = upTo;
+        }
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Replaces the file with just {@code entries}. Appends must be held off by the caller meanwhile.
+     */
+    void rewrite(List<Entry> entries) throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        StringBuilder content = new StringBuilder();
+        entries.forEach(entry -> content.append(entry.format()));
+        synchronized (forceLock) {
+            try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            channel.force(false);
+            Files.move(compacted, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            durableSequence = writtenSequence;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            if (sync) {
+                channel.force(false);
+            }
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package orgd.dinuka.productservice.reservation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock of one product that may still be reserved: the stored quantity, less what is held by open reservations and
+ * what has been confirmed but not yet written back.
+ * <p>
+ * Taking stock is a compare-and-set on one word, which can never go below zero. Striped counters would spread the
+ * contention further, but a floor cannot be enforced across stripes without a lock, and a single CAS already handles
+ * far more than the reservation log can record.
+ */
+final class StockCounter {
+
+    private final AtomicLong available;
+    // Taken for decreases made outside reservations and committed, but not yet seen by a resync
+    private final AtomicLong adjusted = new AtomicLong();
+    // Quantity last read from the database; only touched by the write-back
+    private long storedQuantity;
+
+    StockCounter(long storedQuantity, long available) {
+        this.storedQuantity = storedQuantity;
+        this.available = new AtomicLong(available);
+    }
+
+    boolean tryTake(int quantity) {
+        while (true) {
+            long current = available.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (available.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    void giveBack(long quantity) {
+        available.addAndGet(quantity);
+    }
+
+    long getAvailable() {
+        return available.get();
+    }
+
+    // A decrease taken with tryTake has been committed to the stored quantity
+    void adjusted(long quantity) {
+        adjusted.addAndGet(quantity);
+    }
+
+    long getAdjusted() {
+        return adjusted.get();
+    }
+
+    /**
+     * Catches up with the stored quantity read after {@code written} was written back. Any other difference is a
+     * change made outside reservations, such as a restock, and is applied to the available stock; a decrease can
+     * take it below zero, in which case reservations are refused until it recovers. {@code adjustedBefore} is what
+     * {@link #getAdjusted} returned before the quantity was read: those decreases were committed by then and were
+     * taken from the available stock already, so they are not applied again.
+     */
+    void resync(long stored, long written, long adjustedBefore) {
+        long external = stored - (storedQuantity - written) + adjustedBefore;
+        storedQuantity = stored;
+        adjusted.addAndGet(-adjustedBefore);
+        if (external != 0) {
+            available.addAndGet(external);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package orgd.dinuka.productservice.reservation;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import orgd.dinuka.productservice.cache.ProductCache;
+import orgd.dinuka.productservice.dao.ProductChangeRepository;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dao.StockReservationCheckpointRepository;
+import orgd.dinuka.productservice.dto.ProductStock;
+import orgd.dinuka.productservice.dto.StockReservation;
+import orgd.dinuka.productservice.entity.StockReservationCheckpoint;
+import orgd.dinuka.productservice.exception.ProductConflictException;
+import orgd.dinuka.productservice.exception.ProductNotFoundException;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+import orgd.dinuka.productservice.index.CategoryAggregates;
+import orgd.dinuka.productservice.outbox.ProductChangeRelay;
+import orgd.dinuka.productservice.outbox.ProductOutbox;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reserves product stock in memory and writes what is sold back to {@code Product.quantity} in batches.
+ * <p>
+ * Each product that has been reserved gets a {@link StockCounter}, loaded from the stored quantity, so reserving is
+ * one compare-and-set and never touches the product row. Every reservation, confirmation and release is appended to
+ * a {@link ReservationLog} and synced before the call returns. Every {@code write-back-interval} the quantities
+ * confirmed since the last run are subtracted from the products in one transaction, which also records the outbox
+ * events and the log sequence written back up to. After a crash the log is replayed: open reservations come back and
+ * confirmations past that sequence are written back again, so none is lost or applied twice.
+ * <p>
+ * Quantity changes made elsewhere (restocks, edits) reach the counters through the product change relay. Decreases
+ * made through this instance, whether adjustments, edits or bulk updates, take their stock from the counter first,
+ * see {@link #takeForAdjustment}, so none can lower the stored quantity under what the write-back will subtract.
+ * The counters are only correct if all reservations for a product go through one instance.
+ */
+@Component
+@Slf4j
+public class StockReservationService {
+
+    private final ProductRepository repository;
+    private final StockReservationCheckpointRepository checkpointRepository;
+    private final ProductChangeRepository changeRepository;
+    private final ProductChangeRelay changeRelay;
+    private final ProductOutbox outbox;
+    private final ProductCache productCache;
+    private final CategoryAggregates categoryAggregates;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationLog reservationLog;
+    private final String nodeId;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final long compactThresholdBytes;
+
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, StockReservation> active = new ConcurrentHashMap<>();
+    // Products changed elsewhere whose counters are re-read on the next write-back
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+    // Orders log appends with the state changes they record; guards unflushed
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final List<ReservationLog.Entry> unflushed = new ArrayList<>();
+    private volatile long lastSeenChange;
+    private Disposable changeSubscription;
+
+    public StockReservationService(ProductRepository repository,
+                                   StockReservationCheckpointRepository checkpointRepository,
+                                   ProductChangeRepository changeRepository, ProductChangeRelay changeRelay,
+                                   ProductOutbox outbox, ProductCache productCache,
+                                   CategoryAggregates categoryAggregates, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                   @Value("${product.reservation.log-file:${java.io.tmpdir}/product-reservations.log}") Path logFile,
+                                   @Value("${product.reservation.log-sync:true}") boolean logSync,
+                                   @Value("${product.reservation.node-id:default}") String nodeId,
+                                   @Value("${product.reservation.default-ttl:5m}") Duration defaultTtl,
+                                   @Value("${product.reservation.max-ttl:1h}") Duration maxTtl,
+                                   @Value("${product.reservation.compact-threshold:64MB}") DataSize compactThreshold)
+            throws IOException {
+        this.repository = repository;
+        this.checkpointRepository = checkpointRepository;
+        this.changeRepository = changeRepository;
+        this.changeRelay = changeRelay;
+        this.outbox = outbox;
+        this.productCache = productCache;
+        this.categoryAggregates = categoryAggregates;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservationLog = new ReservationLog(logFile, logSync);
+        this.nodeId = nodeId;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+        this.compactThresholdBytes = compactThreshold.toBytes();
+        Gauge.builder("product.reservations.active", active, Map::size)
+                .description("Stock reservations neither confirmed, released nor expired")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        long checkpoint = checkpointRepository.findById(nodeId)
+                .map(StockReservationCheckpoint::getLastSequence)
+                .orElse(0L);
+        List<ReservationLog.Entry> entries = reservationLog.replay();
+        reservationLog.startAfter(checkpoint);
+        for (ReservationLog.Entry entry : entries) {
+            switch (entry.type()) {
+                case RESERVED -> active.put(entry.reservationId(), new StockReservation(entry.reservationId(),
+                        entry.productId(), entry.quantity(), Instant.ofEpochMilli(entry.expiresAtMillis())));
+                case CONFIRMED -> {
+                    active.remove(entry.reservationId());
+                    if (entry.sequence() > checkpoint) {
+                        unflushed.add(entry);
+                    }
+                }
+                case RELEASED -> active.remove(entry.reservationId());
+            }
+        }
+        int recoveredConfirmations = unflushed.size();
+        writeBack();
+        // Counters of products with open reservations start with those held; expired ones are released shortly
+        Map<Long, Long> held = new HashMap<>();
+        active.values().forEach(reservation -> held.merge(reservation.productId(), (long) reservation.quantity(), Long::sum));
+        held.forEach((productId, quantity) -> repository.findQuantityById(productId).ifPresent(stored ->
+                counters.put(productId, new StockCounter(stored, stored - quantity))));
+        if (!entries.isEmpty()) {
+            log.info("Recovered {} open reservations and {} confirmations to write back from {} log entries",
+                    active.size(), recoveredConfirmations, entries.size());
+        }
+        lastSeenChange = changeRepository.findMaxSequence();
+        changeSubscription = Flux.defer(() -> changeRelay.stream(lastSeenChange))
+                .doOnNext(event -> {
+                    lastSeenChange = event.sequence();
+                    if (event.productId() != null && counters.containsKey(event.productId())) {
+                        stale.add(event.productId());
+                    }
+                })
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofSeconds(1)))
+                .subscribe();
+    }
+
+    public StockReservation reserve(long productId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Reservation quantity must be positive");
+        }
+        Duration effectiveTtl = ttl == null ? defaultTtl : ttl;
+        if (effectiveTtl.isNegative() || effectiveTtl.isZero() || effectiveTtl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("Reservation ttl must be positive and at most " + maxTtl);
+        }
+        StockCounter counter = counter(productId);
+        if (!counter.tryTake(quantity)) {
+            throw new ProductConflictException("Insufficient stock to reserve " + quantity
+                    + " of product with ID " + productId);
+        }
+        // Milliseconds, as kept by the log
+        StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), productId, quantity,
+                Instant.now().plus(effectiveTtl).truncatedTo(ChronoUnit.MILLIS));
+        ReservationLog.Entry entry;
+        stateLock.lock();
+        try {
+            entry = reservationLog.append(ReservationLog.Type.RESERVED, reservation.id(), productId, quantity,
+                    reservation.expiresAt().toEpochMilli());
+            active.put(reservation.id(), reservation);
+        } catch (RuntimeException ex) {
+            counter.giveBack(quantity);
+            throw ex;
+        } finally {
+            stateLock.unlock();
+        }
+        reservationLog.awaitDurable(entry.sequence());
+        return reservation;
+    }
+
+    /**
+     * Takes stock that a decrease made outside reservations is about to remove from a product, so the decrease
+     * cannot also take stock that is held or confirmed but not yet written back. Refused with
+     * {@link ProductConflictException} when that stock is not available. Must be called inside the transaction that
+     * writes the decrease: the stock is given back if it rolls back. Products without a counter have nothing held,
+     * and are left to the stored quantity check.
+     */
+    public void takeForAdjustment(long productId, int quantity) {
+        StockCounter counter = counters.get(productId);
+        if (counter == null) {
+            return;
+        }
+        if (!counter.tryTake(quantity)) {
+            throw new ProductConflictException("Insufficient unreserved stock to take " + quantity
+                    + " from product with ID " + productId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    counter.adjusted(quantity);
+                } else {
+                    counter.giveBack(quantity);
+                }
+            }
+        });
+    }
+
+    public StockReservation getReservation(String id) {
+        StockReservation reservation = active.get(id);
+        if (reservation == null || reservation.expiresAt().isBefore(Instant.now())) {
+            throw new ResourceNotFoundException("Reservation " + id + " not found or expired");
+        }
+        return reservation;
+    }
+
+    // The stock stays taken and is subtracted from the product on the next write-back
+    public StockReservation confirm(String id) {
+        StockReservation reservation;
+        ReservationLog.Entry entry;
+        stateLock.lock();
+        try {
+            reservation = active.get(id);
+            if (reservation == null || reservation.expiresAt().isBefore(Instant.now())) {
+                throw new ResourceNotFoundException("Reservation " + id + " not found or expired");
+            }
+            entry = reservationLog.append(ReservationLog.Type.CONFIRMED, id, reservation.productId(),
+                    reservation.quantity(), reservation.expiresAt().toEpochMilli());
+            active.remove(id);
+            unflushed.add(entry);
+        } finally {
+            stateLock.unlock();
+        }
+        reservationLog.awaitDurable(entry.sequence());
+        return reservation;
+    }
+
+    public void release(String id) {
+        ReservationLog.Entry entry = releaseIfActive(id);
+        if (entry == null) {
+            throw new ResourceNotFoundException("Reservation " + id + " not found");
+        }
+        reservationLog.awaitDurable(entry.sequence());
+    }
+
+    @Scheduled(fixedDelayString = "${product.reservation.expiry-interval:PT1S}")
+    public void releaseExpired() {
+        Instant now = Instant.now();
+        long lastSequence = 0;
+        int released = 0;
+        for (StockReservation reservation : active.values()) {
+            if (reservation.expiresAt().isBefore(now)) {
+                ReservationLog.Entry entry = releaseIfActive(reservation.id());
+                if (entry != null) {
+                    lastSequence = entry.sequence();
+                    released++;
+                }
+            }
+        }
+        if (released > 0) {
+            reservationLog.awaitDurable(lastSequence);
+            log.debug("Released {} expired reservations", released);
+        }
+    }
+
+    /**
+     * Subtracts the confirmed quantities from their products, refreshes counters of products changed elsewhere,
+     * and compacts the log once it has grown past {@code compact-threshold}.
+     */
+    @Scheduled(fixedDelayString = "${product.reservation.write-back-interval:PT0.2S}")
+    public synchronized void writeBack() {
+        List<ReservationLog.Entry> confirmed;
+        long upTo;
+        stateLock.lock();
+        try {
+            confirmed = new ArrayList<>(unflushed);
+            unflushed.clear();
+            upTo = reservationLog.getLastSequence();
+        } finally {
+            stateLock.unlock();
+        }
+        Set<Long> refresh = new TreeSet<>();
+        for (Long productId : stale) {
+            stale.remove(productId);
+            refresh.add(productId);
+        }
+        if (!confirmed.isEmpty() || !refresh.isEmpty()) {
+            writeBack(confirmed, upTo, refresh);
+        }
+        compactIfNeeded();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (changeSubscription != null) {
+            changeSubscription.dispose();
+        }
+        try {
+            writeBack();
+        } finally {
+            reservationLog.close();
+        }
+    }
+
+    long getAvailable(long productId) {
+        StockCounter counter = counters.get(productId);
+        return counter == null ? -1 : counter.getAvailable();
+    }
+
+    private StockCounter counter(long productId) {
+        return counters.computeIfAbsent(productId, id -> repository.findQuantityById(id)
+                .map(stored -> new StockCounter(stored, stored))
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found")));
+    }
+
+    private ReservationLog.Entry releaseIfActive(String id) {
+        StockReservation reservation;
+        ReservationLog.Entry entry;
+        stateLock.lock();
+        try {
+            reservation = active.get(id);
+            if (reservation == null) {
+                return null;
+            }
+            entry = reservationLog.append(ReservationLog.Type.RELEASED, id, reservation.productId(),
+                    reservation.quantity(), reservation.expiresAt().toEpochMilli());
+            active.remove(id);
+        } finally {
+            stateLock.unlock();
+        }
+        StockCounter counter = counters.get(reservation.productId());
+        if (counter != null) {
+            counter.giveBack(reservation.quantity());
+        }
+        return entry;
+    }
+
+    private void writeBack(List<ReservationLog.Entry> confirmed, long upTo, Set<Long> refresh) {
+        // In product id order, so concurrent writers lock rows in the same order
+        Map<Long, Long> sold = new TreeMap<>();
+        confirmed.forEach(entry -> sold.merge(entry.productId(), (long) entry.quantity(), Long::sum));
+        Set<Long> reread = new TreeSet<>(sold.keySet());
+        refresh.stream().filter(counters::containsKey).forEach(reread::add);
+        // Read before the quantities, so only decreases committed before they were read count as seen
+        Map<Long, Long> adjustedBefore = new HashMap<>();
+        reread.forEach(productId -> {
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                adjustedBefore.put(productId, counter.getAdjusted());
+            }
+        });
+        List<ProductStock> stocks;
+        try {
+            // Nothing may be written back that a crash could still take out of the log
+            reservationLog.awaitDurable(upTo);
+            stocks = transactionTemplate.execute(status -> {
+                sold.forEach((productId, quantity) -> {
+                    if (repository.writeBackQuantity(productId, (int) -quantity) == 0) {
+                        log.warn("Product with ID {} was deleted with {} confirmed reservations not written back",
+                                productId, quantity);
+                    }
+                });
+                // The updated rows stay locked until commit, so this reads exactly what was written
+                List<ProductStock> read = reread.isEmpty() ? List.of() : repository.findStockByIds(reread);
+                read.stream()
+                        .filter(stock -> sold.containsKey(stock.id()))
+                        .forEach(stock -> outbox.recordQuantityChanged(stock.id(), stock.quantity()));
+                if (!confirmed.isEmpty()) {
+                    checkpointRepository.save(new StockReservationCheckpoint(nodeId, upTo));
+                }
+                return read;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Write-back of {} confirmed reservations failed, retrying", confirmed.size(), ex);
+            stateLock.lock();
+            try {
+                unflushed.addAll(0, confirmed);
+            } finally {
+                stateLock.unlock();
+            }
+            stale.addAll(refresh);
+            return;
+        }
+        Map<Long, Integer> stored = new HashMap<>();
+        stocks.forEach(stock -> stored.put(stock.id(), stock.quantity()));
+        for (Long productId : reread) {
+            Integer quantity = stored.get(productId);
+            if (quantity == null) {
+                counters.remove(productId);
+            } else {
+                StockCounter counter = counters.get(productId);
+                if (counter != null) {
+                    counter.resync(quantity, sold.getOrDefault(productId, 0L),
+                            adjustedBefore.getOrDefault(productId, 0L));
+                }
+            }
+        }
+        sold.keySet().forEach(productCache::evict);
+        stocks.stream()
+                .filter(stock -> sold.containsKey(stock.id()))
+                .forEach(stock -> categoryAggregates.onQuantityChanged(stock.id(), stock.quantity()));
+        if (!confirmed.isEmpty()) {
+            log.debug("Wrote back {} confirmed reservations for {} products", confirmed.size(), sold.size());
+        }
+    }
+
+    private void compactIfNeeded() {
+        stateLock.lock();
+        try {
+            if (reservationLog.size() < compactThresholdBytes) {
+                return;
+            }
+            List<ReservationLog.Entry> live = new ArrayList<>(active.size() + unflushed.size());
+            active.values().forEach(reservation -> live.add(new ReservationLog.Entry(0, ReservationLog.Type.RESERVED,
+                    reservation.id(), reservation.productId(), reservation.quantity(),
+                    reservation.expiresAt().toEpochMilli())));
+            live.addAll(unflushed);
+            reservationLog.rewrite(live);
+            log.info("Compacted the reservation log to {} entries", live.size());
+        } catch (IOException ex) {
+            log.warn("Could not compact the reservation log", ex);
+        } finally {
+            stateLock.unlock();
+        }
+    }
+}
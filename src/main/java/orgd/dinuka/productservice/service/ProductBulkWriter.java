@@ -0,0 +1,124 @@
+package orgd.dinuka.productservice.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.BulkItemResult;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductChange;
+import orgd.dinuka.productservice.entity.Tag;
+import orgd.dinuka.productservice.outbox.ProductOutbox;
+import orgd.dinuka.productservice.reservation.StockReservationService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes one chunk of a bulk request in its own transaction. Hibernate groups the inserts and updates into
+ * JDBC batches of {@code hibernate.jdbc.batch_size}, which the MySQL driver rewrites into multi-row statements.
+ */
+@Component
+@Slf4j
+public class ProductBulkWriter {
+
+    /**
+     * A row of the bulk request. {@code requestedId} is the id the client sent, kept apart from the entity
+     * because a failed attempt leaves a generated id behind on it.
+     */
+    public record Row(int index, Long requestedId, Product product) {
+    }
+
+    private final ProductRepository repository;
+    private final EntityManager entityManager;
+    private final ProductOutbox outbox;
+    private final StockReservationService reservationService;
+    private final int batchSize;
+
+    public ProductBulkWriter(ProductRepository repository, EntityManager entityManager, ProductOutbox outbox,
+                             StockReservationService reservationService,
+                             @Value("${product.bulk.batch-size:100}") int batchSize) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.outbox = outbox;
+        this.reservationService = reservationService;
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Transactional
+    public List<BulkItemResult> writeChunk(List<Row> rows) {
+        Set<Long> requestedIds = rows.stream()
+                .map(Row::requestedId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // Loads every row to be updated in one query so merge() below finds them in the persistence context
+        Map<Long, Product> existing = requestedIds.isEmpty() ? Map.of()
+                : repository.findAllById(requestedIds).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<BulkItemResult> results = new ArrayList<>(rows.size());
+        List<Map.Entry<ProductChange.Type, Product>> written = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Product product = row.product();
+            product.setId(row.requestedId());
+            resolveReferences(product);
+            if (row.requestedId() == null) {
+                entityManager.persist(product);
+                written.add(Map.entry(ProductChange.Type.CREATED, product));
+                results.add(BulkItemResult.created(row.index(), product.getId()));
+            } else if (existing.containsKey(row.requestedId())) {
+                Product current = existing.get(row.requestedId());
+                if (product.getVersion() == null) {
+                    product.setVersion(current.getVersion());
+                }
+                // A decrease cannot take stock held by reservations; refusing it fails the chunk, whose rows are
+                // then retried one by one, and a rolled back chunk gives the stock back
+                if (product.getQuantity() < current.getQuantity()) {
+                    reservationService.takeForAdjustment(row.requestedId(),
+                            current.getQuantity() - product.getQuantity());
+                }
+                written.add(Map.entry(ProductChange.Type.UPDATED, entityManager.merge(product)));
+                results.add(BulkItemResult.updated(row.index(), row.requestedId()));
+            } else {
+                results.add(BulkItemResult.failed(row.index(), row.requestedId(),
+                        "Product with ID " + row.requestedId() + " does not exist"));
+            }
+        }
+        // Flush first so updated rows carry their new version into the outbox, then send the outbox batch too
+        entityManager.flush();
+        written.forEach(change -> outbox.recordSaved(change.getKey(), change.getValue()));
+        // The category aggregates take the name after commit, so it is loaded while there is a session; categories
+        // are in the second-level cache, so this rarely queries
+        written.forEach(change -> Hibernate.initialize(change.getValue().getCategory()));
+        // Send the batches now and drop the chunk so the persistence context does not grow with the import
+        entityManager.flush();
+        entityManager.clear();
+        log.debug("Wrote bulk chunk of {} rows", rows.size());
+        return results;
+    }
+
+    private void resolveReferences(Product product) {
+        if (product.getCategory() != null) {
+            product.setCategory(entityManager.getReference(Category.class, product.getCategory().getId()));
+        }
+        if (product.getTags() != null && !product.getTags().isEmpty()) {
+            Set<Tag> tags = new HashSet<>();
+            product.getTags().forEach(tag -> tags.add(entityManager.getReference(Tag.class, tag.getId())));
+            product.setTags(tags);
+        }
+    }
+}
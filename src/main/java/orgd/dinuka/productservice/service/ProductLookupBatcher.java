@@ -0,0 +1,116 @@
+package orgd.dinuka.productservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.entity.Product;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent single-id lookups into one {@code IN} query.
+ * <p>
+ * The first caller to arrive opens a batch and becomes its leader. If another batch query is already running, the
+ * leader waits up to {@code batch-window} for other callers to join, or until the batch holds {@code max-batch-size}
+ * ids; otherwise it goes straight away, so sequential lookups pay no added latency. It then runs one
+ * {@link ProductRepository#findAllById} for everyone and hands each caller its row. No extra threads are involved.
+ * Setting the window to zero turns batching off.
+ */
+@Component
+@Slf4j
+public class ProductLookupBatcher {
+
+    private final ProductRepository repository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+
+    private Batch openBatch;
+    private int runningQueries;
+
+    public ProductLookupBatcher(ProductRepository repository,
+                                @Value("${product.lookup.batch-window:2ms}") Duration batchWindow,
+                                @Value("${product.lookup.max-batch-size:100}") int maxBatchSize) {
+        this.repository = repository;
+        this.windowNanos = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return windowNanos > 0;
+    }
+
+    public Optional<Product> load(Long id) {
+        Batch batch;
+        boolean leader = false;
+        boolean contended = false;
+        CompletableFuture<Optional<Product>> result;
+        synchronized (lock) {
+            if (openBatch == null) {
+                openBatch = new Batch();
+                leader = true;
+                contended = runningQueries > 0;
+            }
+            batch = openBatch;
+            result = batch.waiters.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (batch.waiters.size() >= maxBatchSize) {
+                openBatch = null;
+                batch.full.countDown();
+            }
+        }
+        if (leader) {
+            lead(batch, contended);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void lead(Batch batch, boolean contended) {
+        if (contended) {
+            try {
+                batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            if (openBatch == batch) {
+                openBatch = null;
+            }
+            runningQueries++;
+        }
+        // Closed now, so the map is no longer written to
+        try {
+            Map<Long, Product> found = new LinkedHashMap<>();
+            repository.findAllById(batch.waiters.keySet()).forEach(product -> found.put(product.getId(), product));
+            log.debug("Resolved batch of {} product lookups in one query", batch.waiters.size());
+            batch.waiters.forEach((id, waiter) -> waiter.complete(Optional.ofNullable(found.get(id))));
+        } catch (Throwable ex) {
+            // Every caller, the leader included, rethrows this from its own join()
+            batch.waiters.values().forEach(waiter -> waiter.completeExceptionally(ex));
+        } finally {
+            synchronized (lock) {
+                runningQueries--;
+            }
+        }
+    }
+
+    private static final class Batch {
+        private final Map<Long, CompletableFuture<Optional<Product>>> waiters = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
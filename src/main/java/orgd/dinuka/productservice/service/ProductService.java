@@ -1,19 +1,63 @@
 package orgd.dinuka.productservice.service;
 
+import orgd.dinuka.productservice.dto.BulkResult;
+import orgd.dinuka.productservice.dto.CategoryStats;
+import orgd.dinuka.productservice.dto.ProductBatch;
+import orgd.dinuka.productservice.dto.ProductChangeEvent;
+import orgd.dinuka.productservice.dto.ProductChangePage;
+import orgd.dinuka.productservice.dto.ProductFilter;
+import orgd.dinuka.productservice.dto.ProductFilterResult;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.dto.ProductPatch;
+import orgd.dinuka.productservice.dto.ProductSummary;
 import orgd.dinuka.productservice.entity.Product;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
     Product addProduct(Product product);
     List<Product> getAll();
+    List<ProductSummary> getAllSummaries();
+    List<Long> getAllIds();
     Product getProductById(Long id);
+    Optional<Long> getCachedVersion(Long id);
+    long getCatalogVersion();
+    ProductBatch getProductsByIds(List<Long> ids);
+    ProductSummary getProductSummaryById(Long id);
     Product getProductByName(String name);
+    List<ProductSummary> searchByNamePrefix(String prefix, int limit);
+    ProductFilterResult filter(ProductFilter filter);
     void  deleteProduct(Long id);
-    List<Object> getExtProducts();
+    Mono<List<Object>> getExtProducts();
 
     Product updateProduct(long l, Product existingProduct);
 
+    Product patchProduct(long id, ProductPatch patch);
+
+    int adjustQuantity(long id, int delta);
+
     void deleteProductById(long l);
+
+    ProductPage getPage(String cursor, int limit);
+
+    void streamAll(Consumer<Product> consumer);
+
+    ProductChangePage getChangesSince(long after, int limit);
+
+    Flux<ProductChangeEvent> streamChanges(long after);
+
+    Map<String, Map<String, Number>> getCacheStats();
+
+    List<CategoryStats> getCategoryStats();
+
+    CategoryStats getCategoryStats(long categoryId);
+
+    BulkResult bulkUpsert(Iterator<Product> products);
 }
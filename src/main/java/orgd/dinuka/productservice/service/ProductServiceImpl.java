@@ -1,106 +1,572 @@
 package orgd.dinuka.productservice.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import orgd.dinuka.productservice.cache.ProductCache;
+import orgd.dinuka.productservice.cache.ProductSnapshot;
+import orgd.dinuka.productservice.cache.SecondLevelCacheStats;
+import orgd.dinuka.productservice.client.CallNotPermittedException;
+import orgd.dinuka.productservice.client.ExternalCatalogClient;
 import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.datasource.ReadRouting;
+import orgd.dinuka.productservice.dto.BulkItemResult;
+import orgd.dinuka.productservice.dto.BulkResult;
+import orgd.dinuka.productservice.dto.CategoryStats;
+import orgd.dinuka.productservice.dto.ProductBatch;
+import orgd.dinuka.productservice.dto.ProductChangeEvent;
+import orgd.dinuka.productservice.dto.ProductChangePage;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductFilter;
+import orgd.dinuka.productservice.dto.ProductFilterResult;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.dto.ProductPatch;
+import orgd.dinuka.productservice.dto.ProductSummary;
 import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductChange;
+import orgd.dinuka.productservice.exception.ProductConflictException;
 import orgd.dinuka.productservice.exception.ProductNotFoundException;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+import orgd.dinuka.productservice.index.CategoryAggregates;
+import orgd.dinuka.productservice.index.ProductExistenceIndex;
+import orgd.dinuka.productservice.index.ProductFilterIndex;
+import orgd.dinuka.productservice.outbox.ProductChangeRelay;
+import orgd.dinuka.productservice.outbox.ProductOutbox;
+import orgd.dinuka.productservice.reservation.StockReservationService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class ProductServiceImpl implements ProductService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_SEARCH_LIMIT = 10;
+    static final int MAX_SEARCH_LIMIT = 50;
+    static final int DEFAULT_FILTER_LIMIT = 100;
+    static final int MAX_FILTER_LIMIT = 1000;
+    static final int MAX_BATCH_IDS = 500;
+    private static final String CURSOR_PREFIX = "id:";
+
     private final ProductRepository repository;
-    private final RestTemplate restTemplate;
+    private final ExternalCatalogClient externalCatalogClient;
+    private final EntityManager entityManager;
+    private final ProductCache productCache;
+    private final ProductBulkWriter bulkWriter;
+    private final Validator validator;
+    private final ProductFilterIndex filterIndex;
+    private final ProductLookupBatcher lookupBatcher;
+    private final ProductOutbox outbox;
+    private final ProductChangeRelay changeRelay;
+    private final ProductExistenceIndex existenceIndex;
+    private final CategoryAggregates categoryAggregates;
+    private final StockReservationService reservationService;
+    private final SecondLevelCacheStats secondLevelCacheStats;
 
     @Override
+    @Transactional
     public Product addProduct(Product product) {
-        log.info("Adding new product: {}", product.getName());
-        return repository.save(product);
+        log.debug("Adding new product: {}", product.getName());
+        Product savedProduct = repository.save(product);
+        outbox.recordSaved(ProductChange.Type.CREATED, savedProduct);
+        afterCommitSaved(savedProduct);
+        return savedProduct;
     }
 
     @Override
     public List<Product> getAll() {
-        log.info("Fetching all products from the repository");
+        log.debug("Fetching all products from the repository");
         return repository.findAll();
     }
 
+    @Override
+    public List<ProductSummary> getAllSummaries() {
+        log.debug("Fetching product summaries from the repository");
+        return repository.findAllSummaries();
+    }
+
+    @Override
+    public List<Long> getAllIds() {
+        log.debug("Fetching all product IDs from the repository");
+        return repository.findAllIds();
+    }
+
     @Override
     public Product getProductById(Long id) {
-        log.info("Fetching product by ID: {}", id);
-        return repository.findById(id)
+        log.debug("Fetching product by ID: {}", id);
+        if (existenceIndex.isDefinitelyMissing(id)) {
+            throw new ProductNotFoundException("Product with ID " + id + " not found");
+        }
+        return productCache.getById(id, this::loadForCache)
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
+    }
+
+    // Cache fills read the primary, a lagging replica would pin a stale row for the whole TTL.
+    // Concurrent misses are coalesced into one IN query when batching is enabled.
+    private Optional<Product> loadForCache(Long id) {
+        return ReadRouting.onPrimary(() -> lookupBatcher.isEnabled() ? lookupBatcher.load(id) : repository.findById(id));
+    }
+
+    @Override
+    public Optional<Long> getCachedVersion(Long id) {
+        return productCache.getCachedVersion(id);
+    }
+
+    // Advances with every published change, so it changes whenever any product does
+    @Override
+    public long getCatalogVersion() {
+        return changeRelay.getLastPublishedSequence();
+    }
+
+    @Override
+    public ProductBatch getProductsByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids can be fetched at once");
+        }
+        log.debug("Fetching {} products by ID", requested.size());
+        Map<Long, Product> found = productCache.getAllPresent(requested);
+        List<Long> toLoad = requested.stream()
+                .filter(id -> !found.containsKey(id) && !existenceIndex.isDefinitelyMissing(id))
+                .toList();
+        if (!toLoad.isEmpty()) {
+            for (Product product : ReadRouting.onPrimary(() -> repository.findAllById(toLoad))) {
+                productCache.put(product);
+                found.put(product.getId(), product);
+            }
+        }
+        List<ProductDetail> products = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(ProductDetail.of(product));
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatch(products, missing);
+    }
+
+    @Override
+    public ProductSummary getProductSummaryById(Long id) {
+        log.debug("Fetching product summary by ID: {}", id);
+        if (existenceIndex.isDefinitelyMissing(id)) {
+            throw new ProductNotFoundException("Product with ID " + id + " not found");
+        }
+        return repository.findSummaryById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
     }
 
     @Override
     public Product getProductByName(String name) {
-        log.info("Fetching product by name: {}", name);
-        Product product = repository.findByName(name);
-        if (product == null) {
-            log.warn("Product with name {} not found", name);
+        log.debug("Fetching product by name: {}", name);
+        if (existenceIndex.isDefinitelyMissingName(name)) {
             throw new ProductNotFoundException("Product with name " + name + " not found");
         }
-        return product;
+        return productCache.getByName(name, repository::findFirstByNormalizedNameOrderByIdAsc, this::loadForCache)
+                .orElseThrow(() -> {
+                    log.warn("Product with name {} not found", name);
+                    return new ProductNotFoundException("Product with name " + name + " not found");
+                });
     }
 
     @Override
+    public List<ProductSummary> searchByNamePrefix(String prefix, int limit) {
+        String normalizedPrefix = Product.normalizeName(prefix);
+        if (normalizedPrefix == null || normalizedPrefix.isEmpty()) {
+            throw new IllegalArgumentException("Search prefix must not be empty");
+        }
+        int resultLimit = limit <= 0 ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_SEARCH_LIMIT);
+        log.debug("Searching products by name prefix: {}", normalizedPrefix);
+        return repository.searchByNormalizedNamePrefix(escapeLike(normalizedPrefix) + "%", Limit.of(resultLimit));
+    }
+
+    @Override
+    public ProductFilterResult filter(ProductFilter filter) {
+        int resultLimit = filter.limit() <= 0 ? DEFAULT_FILTER_LIMIT : Math.min(filter.limit(), MAX_FILTER_LIMIT);
+        log.debug("Filtering products by tags {}, category {}, price {} to {}",
+                filter.tagIds(), filter.categoryId(), filter.minPrice(), filter.maxPrice());
+        return filterIndex.filter(new ProductFilter(filter.tagIds(), filter.categoryId(),
+                filter.minPrice(), filter.maxPrice(), resultLimit));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    @Override
+    @Transactional
     public void deleteProduct(Long id) {
-        log.info("Deleting product by ID: {}", id);
-        if (!repository.existsById(id)) {
+        log.debug("Deleting product by ID: {}", id);
+        if (existenceIndex.isDefinitelyMissing(id) || !repository.existsById(id)) {
             log.warn("Product with ID {} not found for deletion", id);
             throw new ProductNotFoundException("Product with ID " + id + " does not exist");
         }
         repository.deleteById(id);
+        outbox.recordDeleted(id);
+        AfterCommit.run(() -> {
+            productCache.evict(id);
+            filterIndex.onDeleted(id);
+            categoryAggregates.onDeleted(id);
+        });
         log.info("Product with ID {} successfully deleted", id);
     }
 
-    // External API call method with enhanced error handling and logging
-    public List<Object> getExtProducts() {
-        String url = "https://jsonplaceholder.typicode.com/users";
-        log.info("Calling external service to fetch users");
-        try {
-            Object[] users = restTemplate.getForObject(url, Object[].class);
-            log.info("Successfully fetched external users");
-            return users != null ? Arrays.asList(users) : Collections.emptyList();
-        } catch (HttpClientErrorException ex) {
-            log.error("Client error when calling external service, HTTP status: {}", ex.getStatusCode(), ex);
-            return Collections.emptyList();
-        } catch (RestClientException ex) {
-            log.error("Failed to connect to external service", ex);
-            return Collections.emptyList();
-        }
+    // External API call, non-blocking; any upstream failure degrades to an empty list
+    @Override
+    public Mono<List<Object>> getExtProducts() {
+        log.debug("Calling external service to fetch users");
+        return externalCatalogClient.fetchUsers()
+                .doOnSuccess(users -> log.debug("Successfully fetched external users"))
+                // The breaker logs its own transitions; each rejected call while it is open is expected
+                .onErrorResume(CallNotPermittedException.class, ex -> {
+                    log.debug(ex.getMessage());
+                    return Mono.just(Collections.emptyList());
+                })
+                .onErrorResume(WebClientResponseException.class, ex -> {
+                    log.error("Error response from external service, HTTP status: {}", ex.getStatusCode(), ex);
+                    return Mono.just(Collections.emptyList());
+                })
+                .onErrorResume(ex -> {
+                    log.error("Failed to fetch from external service", ex);
+                    return Mono.just(Collections.emptyList());
+                });
     }
 
+    // Full replacement. The current row is loaded into the transaction so the merge in save() does not select
+    // it again; a stale version fails the commit with an optimistic locking conflict.
     @Override
+    @Transactional
     public Product updateProduct(long id, Product updatedProduct) {
-        log.info("Updating product with ID: {}", id);
-        if (!repository.existsById(id)) {
-            log.warn("Product with ID {} not found for update", id);
+        log.debug("Updating product with ID: {}", id);
+        if (existenceIndex.isDefinitelyMissing(id)) {
             throw new ProductNotFoundException("Cannot update. Product with ID " + id + " does not exist.");
         }
+        Product existingProduct = repository.findById(id).orElseThrow(() -> {
+            log.warn("Product with ID {} not found for update", id);
+            return new ProductNotFoundException("Cannot update. Product with ID " + id + " does not exist.");
+        });
         updatedProduct.setId(id); // Ensure the ID is set
+        if (updatedProduct.getVersion() == null) {
+            // Clients that predate versioning keep last-writer-wins semantics
+            updatedProduct.setVersion(existingProduct.getVersion());
+        }
+        // A stale version fails the commit, which gives the stock back
+        takeDecrease(id, existingProduct.getQuantity(), updatedProduct.getQuantity());
         Product savedProduct = repository.save(updatedProduct);
+        // Flushed here rather than at commit so the version recorded in the outbox is the new one
+        repository.flush();
+        outbox.recordSaved(ProductChange.Type.UPDATED, savedProduct);
+        afterCommitSaved(savedProduct);
         log.info("Product with ID {} successfully updated", id);
         return savedProduct;
     }
 
     @Override
-    public void deleteProductById(long id) {
-        log.info("Deleting product by ID: {}", id);
+    @Transactional
+    public Product patchProduct(long id, ProductPatch patch) {
+        log.debug("Patching product with ID: {}", id);
+        if (patch.version() == null) {
+            throw new IllegalArgumentException("Patch must carry the product version it is based on");
+        }
+        if (patch.name() != null && (patch.name().length() < 2 || patch.name().length() > 30)) {
+            throw new IllegalArgumentException("Name must be between 2 and 30 characters");
+        }
+        if (existenceIndex.isDefinitelyMissing(id)) {
+            throw new ProductNotFoundException("Cannot update. Product with ID " + id + " does not exist.");
+        }
+        if (patch.quantity() != null) {
+            // Read at the patched version, so the decrease is measured from the quantity the patch replaces
+            int current = repository.findQuantityByIdAndVersion(id, patch.version())
+                    .orElseThrow(() -> patchRefused(id, patch.version()));
+            takeDecrease(id, current, patch.quantity());
+        }
+        int updated = repository.patch(id, patch.version(), patch.name(), Product.normalizeName(patch.name()),
+                patch.price(), patch.quantity());
+        if (updated == 0) {
+            throw patchRefused(id, patch.version());
+        }
+        Product patchedProduct = repository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
+        outbox.recordSaved(ProductChange.Type.UPDATED, patchedProduct);
+        afterCommitSaved(patchedProduct);
+        log.info("Product with ID {} successfully patched", id);
+        return patchedProduct;
+    }
+
+    private RuntimeException patchRefused(long id, long version) {
         if (!repository.existsById(id)) {
+            return new ProductNotFoundException("Cannot update. Product with ID " + id + " does not exist.");
+        }
+        log.warn("Product with ID {} was modified since version {}", id, version);
+        return new ProductConflictException("Product with ID " + id + " was modified since version " + version);
+    }
+
+    // Stock held by reservations is not in the stored quantity, so an edit that lowers it takes the stock from the
+    // reservation counter first, as adjustQuantity does
+    private void takeDecrease(long id, int from, int to) {
+        if (to < from) {
+            reservationService.takeForAdjustment(id, from - to);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int adjustQuantity(long id, int delta) {
+        log.debug("Adjusting quantity of product with ID {} by {}", id, delta);
+        if (existenceIndex.isDefinitelyMissing(id)) {
+            throw new ProductNotFoundException("Product with ID " + id + " does not exist");
+        }
+        // Stock held by reservations is not in the stored quantity's check, so a decrease is taken from it first
+        if (delta < 0) {
+            reservationService.takeForAdjustment(id, -delta);
+        }
+        if (repository.adjustQuantity(id, delta) == 0) {
+            if (!repository.existsById(id)) {
+                throw new ProductNotFoundException("Product with ID " + id + " does not exist");
+            }
+            throw new ProductConflictException("Insufficient quantity to adjust product with ID " + id + " by " + delta);
+        }
+        // The UPDATE holds the row lock until commit, so this reads exactly the quantity it produced
+        int quantity = repository.findQuantityById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
+        outbox.recordQuantityChanged(id, quantity);
+        AfterCommit.run(() -> {
+            productCache.evict(id);
+            categoryAggregates.onQuantityChanged(id, quantity);
+        });
+        return quantity;
+    }
+
+    @Override
+    @Transactional
+    public void deleteProductById(long id) {
+        log.debug("Deleting product by ID: {}", id);
+        if (existenceIndex.isDefinitelyMissing(id) || !repository.existsById(id)) {
             log.warn("Product with ID {} not found for deletion", id);
             throw new ProductNotFoundException("Cannot delete. Product with ID " + id + " does not exist.");
         }
         repository.deleteById(id);
+        outbox.recordDeleted(id);
+        AfterCommit.run(() -> {
+            productCache.evict(id);
+            filterIndex.onDeleted(id);
+            categoryAggregates.onDeleted(id);
+        });
         log.info("Product with ID {} successfully deleted", id);
     }
+
+    @Override
+    public ProductChangePage getChangesSince(long after, int limit) {
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        log.debug("Fetching product changes after sequence {} (limit {})", after, pageSize);
+        return changeRelay.changesSince(after, pageSize);
+    }
+
+    @Override
+    public Flux<ProductChangeEvent> streamChanges(long after) {
+        log.debug("Streaming product changes after sequence {}", after);
+        return changeRelay.stream(after);
+    }
+
+    /**
+     * Applies the cache and index updates for a saved product once the transaction commits, so no reader sees a
+     * change that is later rolled back. The state is copied now, while lazy associations can still be read.
+     */
+    private void afterCommitSaved(Product product) {
+        ProductSnapshot snapshot = ProductSnapshot.of(product);
+        AfterCommit.run(() -> {
+            productCache.put(snapshot.toProduct());
+            filterIndex.onSaved(snapshot.toProduct());
+            existenceIndex.onSaved(snapshot.toProduct());
+            categoryAggregates.onSaved(snapshot.toProduct());
+        });
+    }
+
+    @Override
+    public Map<String, Map<String, Number>> getCacheStats() {
+        Map<String, Map<String, Number>> stats = new LinkedHashMap<>(productCache.stats());
+        stats.putAll(secondLevelCacheStats.stats());
+        return stats;
+    }
+
+    @Override
+    public List<CategoryStats> getCategoryStats() {
+        return categoryAggregates.getAll();
+    }
+
+    @Override
+    public CategoryStats getCategoryStats(long categoryId) {
+        return categoryAggregates.get(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("No products in category " + categoryId));
+    }
+
+    // Tags are batch fetched while mapping, so the session must stay open until then
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPage getPage(String cursor, int limit) {
+        long after = decodeCursor(cursor);
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        log.debug("Fetching products after ID {} (limit {})", after, pageSize);
+        List<Product> items = repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize));
+        String nextCursor = items.size() < pageSize ? null : encodeCursor(items.get(items.size() - 1).getId());
+        return new ProductPage(items.stream().map(ProductDetail::of).toList(), nextCursor);
+    }
+
+    // Products are handed over a batch at a time while still attached, so mapping the first one fetches the tags of
+    // the whole batch in one query; the batch is detached afterwards to keep the persistence context from growing
+    // with the table
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Product> consumer) {
+        log.debug("Streaming all products from the repository");
+        try (Stream<Product> products = repository.streamAllByOrderByIdAsc()) {
+            List<Product> batch = new ArrayList<>(Product.TAGS_BATCH_SIZE);
+            products.forEach(product -> {
+                batch.add(product);
+                if (batch.size() == Product.TAGS_BATCH_SIZE) {
+                    consumeBatch(batch, consumer);
+                }
+            });
+            consumeBatch(batch, consumer);
+        }
+    }
+
+    private void consumeBatch(List<Product> batch, Consumer<Product> consumer) {
+        batch.forEach(consumer);
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+
+    static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, ex);
+        }
+        if (!decoded.startsWith(CURSOR_PREFIX)) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+        try {
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, ex);
+        }
+    }
+
+    @Override
+    public BulkResult bulkUpsert(Iterator<Product> products) {
+        int batchSize = bulkWriter.getBatchSize();
+        log.info("Starting bulk upsert with batch size {}", batchSize);
+        List<BulkItemResult> results = new ArrayList<>();
+        List<ProductBulkWriter.Row> chunk = new ArrayList<>(batchSize);
+        int index = 0;
+        while (products.hasNext()) {
+            Product product = products.next();
+            List<String> errors = validateForBulk(product);
+            if (errors.isEmpty()) {
+                chunk.add(new ProductBulkWriter.Row(index, product.getId(), product));
+            } else {
+                results.add(BulkItemResult.invalid(index, product.getId(), errors));
+            }
+            if (chunk.size() == batchSize) {
+                results.addAll(writeBulkChunk(chunk));
+                chunk = new ArrayList<>(batchSize);
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(writeBulkChunk(chunk));
+        }
+        results.sort(Comparator.comparingInt(BulkItemResult::index));
+        BulkResult bulkResult = BulkResult.of(results);
+        log.info("Bulk upsert finished: {} created, {} updated, {} rejected",
+                bulkResult.created(), bulkResult.updated(), bulkResult.rejected());
+        return bulkResult;
+    }
+
+    private List<BulkItemResult> writeBulkChunk(List<ProductBulkWriter.Row> chunk) {
+        List<BulkItemResult> results;
+        try {
+            results = bulkWriter.writeChunk(chunk);
+        } catch (RuntimeException ex) {
+            // One bad row rolls back the whole chunk, so retry the rows one by one to isolate it
+            log.warn("Bulk chunk of {} rows failed, retrying row by row", chunk.size(), ex);
+            results = new ArrayList<>(chunk.size());
+            for (ProductBulkWriter.Row row : chunk) {
+                try {
+                    results.addAll(bulkWriter.writeChunk(List.of(row)));
+                } catch (RuntimeException rowEx) {
+                    results.add(BulkItemResult.failed(row.index(), row.requestedId(), rowEx.getMessage()));
+                }
+            }
+        }
+        Map<Integer, Product> productsByIndex = chunk.stream()
+                .collect(Collectors.toMap(ProductBulkWriter.Row::index, ProductBulkWriter.Row::product));
+        for (BulkItemResult result : results) {
+            if (result.status() == BulkItemResult.Status.UPDATED) {
+                productCache.evict(result.id());
+            }
+            if (result.status() == BulkItemResult.Status.CREATED || result.status() == BulkItemResult.Status.UPDATED) {
+                // Category and tags are id-only references here, which is all the index reads
+                filterIndex.onSaved(productsByIndex.get(result.index()));
+                existenceIndex.onSaved(productsByIndex.get(result.index()));
+                categoryAggregates.onSaved(productsByIndex.get(result.index()));
+            }
+        }
+        return results;
+    }
+
+    private List<String> validateForBulk(Product product) {
+        List<String> errors = new ArrayList<>();
+        if (product == null) {
+            errors.add("Row is empty");
+            return errors;
+        }
+        for (ConstraintViolation<Product> violation : validator.validate(product)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (product.getCategory() != null && product.getCategory().getId() == null) {
+            errors.add("category: must reference an existing category by id");
+        }
+        if (product.getTags() != null && product.getTags().stream().anyMatch(tag -> tag.getId() == null)) {
+            errors.add("tags: must reference existing tags by id");
+        }
+        return errors;
+    }
 }
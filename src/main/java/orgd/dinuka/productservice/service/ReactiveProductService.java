@@ -0,0 +1,57 @@
+package orgd.dinuka.productservice.service;
+
+import org.springframework.stereotype.Service;
+import orgd.dinuka.productservice.dao.ReactiveProductRepository;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.exception.ProductNotFoundException;
+import orgd.dinuka.productservice.index.ProductExistenceIndex;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The read side of {@link ProductService} without blocking a thread: the same lookups, limits and page cursors,
+ * served by {@link ReactiveProductRepository}. It reads the database directly and does not use the product cache,
+ * which is filled by blocking loads.
+ */
+@Service
+public class ReactiveProductService {
+
+    private final ReactiveProductRepository repository;
+    private final ProductExistenceIndex existenceIndex;
+
+    public ReactiveProductService(ReactiveProductRepository repository, ProductExistenceIndex existenceIndex) {
+        this.repository = repository;
+        this.existenceIndex = existenceIndex;
+    }
+
+    public Mono<ProductDetail> getProductById(long id) {
+        if (existenceIndex.isDefinitelyMissing(id)) {
+            return Mono.error(new ProductNotFoundException("Product with ID " + id + " not found"));
+        }
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Product with ID " + id + " not found")));
+    }
+
+    public Mono<ProductDetail> getProductByName(String name) {
+        if (existenceIndex.isDefinitelyMissingName(name)) {
+            return Mono.error(new ProductNotFoundException("Product with name " + name + " not found"));
+        }
+        return repository.findFirstByNormalizedName(Product.normalizeName(name))
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Product with name " + name + " not found")));
+    }
+
+    public Mono<ProductPage> getPage(String cursor, int limit) {
+        long after = ProductServiceImpl.decodeCursor(cursor);
+        int pageSize = limit <= 0 ? ProductServiceImpl.DEFAULT_PAGE_SIZE : Math.min(limit, ProductServiceImpl.MAX_PAGE_SIZE);
+        return repository.findPage(after, pageSize)
+                .collectList()
+                .map(items -> new ProductPage(items, items.size() < pageSize ? null
+                        : ProductServiceImpl.encodeCursor(items.get(items.size() - 1).id())));
+    }
+
+    public Flux<ProductDetail> streamAll() {
+        return repository.findAll();
+    }
+}
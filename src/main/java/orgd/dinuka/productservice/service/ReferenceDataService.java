@@ -0,0 +1,126 @@
+package orgd.dinuka.productservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import orgd.dinuka.productservice.cache.ProductCache;
+import orgd.dinuka.productservice.dao.CategoryRepository;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dao.TagRepository;
+import orgd.dinuka.productservice.datasource.ReadRouting;
+import orgd.dinuka.productservice.dto.ProductDetail.CategoryRef;
+import orgd.dinuka.productservice.dto.ProductDetail.TagRef;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductChange;
+import orgd.dinuka.productservice.entity.Tag;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+import orgd.dinuka.productservice.index.CategoryAggregates;
+import orgd.dinuka.productservice.outbox.ProductOutbox;
+
+import java.util.List;
+
+/**
+ * Categories and tags, served from Hibernate's second-level and query caches. Edits go through the entities, so on
+ * commit Hibernate replaces the cached rows and drops every cached query over the edited table. Products show the
+ * names of their category and tags, so an edit also bumps the version of every product it shows on and records an
+ * update for each in the outbox: their ETags change, the catalog version moves on every instance, and their cached
+ * snapshots are evicted.
+ */
+@Service
+@Slf4j
+public class ReferenceDataService {
+
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final ProductRepository productRepository;
+    private final ProductOutbox outbox;
+    private final ProductCache productCache;
+    private final CategoryAggregates categoryAggregates;
+
+    public ReferenceDataService(CategoryRepository categoryRepository, TagRepository tagRepository,
+                                ProductRepository productRepository, ProductOutbox outbox,
+                                ProductCache productCache, CategoryAggregates categoryAggregates) {
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.productRepository = productRepository;
+        this.outbox = outbox;
+        this.productCache = productCache;
+        this.categoryAggregates = categoryAggregates;
+    }
+
+    // Cache fills read the primary, a lagging replica would put back a row that was just edited
+    public List<CategoryRef> getCategories() {
+        log.debug("Fetching all categories");
+        return ReadRouting.onPrimary(categoryRepository::findAllByOrderByIdAsc).stream()
+                .map(ReferenceDataService::toRef)
+                .toList();
+    }
+
+    public CategoryRef getCategory(long id) {
+        log.debug("Fetching category by ID: {}", id);
+        return toRef(ReadRouting.onPrimary(() -> findCategory(id)));
+    }
+
+    @Transactional
+    public CategoryRef updateCategory(long id, Category updatedCategory) {
+        log.debug("Updating category with ID: {}", id);
+        Category existingCategory = findCategory(id);
+        existingCategory.setName(updatedCategory.getName());
+        existingCategory.setDescription(updatedCategory.getDescription());
+        List<Long> productIds = recordProductUpdates(productRepository.findForUpdateByCategoryId(id));
+        String name = existingCategory.getName();
+        AfterCommit.run(() -> {
+            productIds.forEach(productCache::evict);
+            categoryAggregates.onCategoryRenamed(id, name);
+        });
+        log.info("Category with ID {} successfully updated", id);
+        return toRef(existingCategory);
+    }
+
+    public List<TagRef> getTags() {
+        log.debug("Fetching all tags");
+        return ReadRouting.onPrimary(tagRepository::findAllByOrderByIdAsc).stream()
+                .map(ReferenceDataService::toRef)
+                .toList();
+    }
+
+    public TagRef getTag(long id) {
+        log.debug("Fetching tag by ID: {}", id);
+        return toRef(ReadRouting.onPrimary(() -> findTag(id)));
+    }
+
+    @Transactional
+    public TagRef updateTag(long id, Tag updatedTag) {
+        log.debug("Updating tag with ID: {}", id);
+        Tag existingTag = findTag(id);
+        existingTag.setName(updatedTag.getName());
+        List<Long> productIds = recordProductUpdates(productRepository.findForUpdateByTagId(id));
+        AfterCommit.run(() -> productIds.forEach(productCache::evict));
+        log.info("Tag with ID {} successfully updated", id);
+        return toRef(existingTag);
+    }
+
+    private List<Long> recordProductUpdates(List<Product> products) {
+        products.forEach(product -> outbox.recordSaved(ProductChange.Type.UPDATED, product));
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private Category findCategory(long id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category with ID " + id + " not found"));
+    }
+
+    private Tag findTag(long id) {
+        return tagRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Tag with ID " + id + " not found"));
+    }
+
+    private static CategoryRef toRef(Category category) {
+        return new CategoryRef(category.getId(), category.getName(), category.getDescription());
+    }
+
+    private static TagRef toRef(Tag tag) {
+        return new TagRef(tag.getId(), tag.getName());
+    }
+}
@@ -0,0 +1,202 @@
+package orgd.dinuka.productservice.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dao.ProductSupplierRepository;
+import orgd.dinuka.productservice.dao.SupplierRepository;
+import orgd.dinuka.productservice.dto.SupplierDetail;
+import orgd.dinuka.productservice.dto.SupplierOffer;
+import orgd.dinuka.productservice.entity.Address;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductSupplier;
+import orgd.dinuka.productservice.entity.Supplier;
+import orgd.dinuka.productservice.exception.ProductNotFoundException;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+import orgd.dinuka.productservice.index.SupplierPostalCodeIndex;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Supplier directory: supplier CRUD, the offers linking suppliers to products, and the two hot lookups. Suppliers by
+ * postal code prefix come from {@link SupplierPostalCodeIndex} and are then loaded with their addresses in one
+ * query; the cheapest in-stock supplier is the first row of an index walk on the offers table.
+ */
+@Service
+@Slf4j
+public class SupplierService {
+
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    static final int MAX_SEARCH_LIMIT = 200;
+    static final int DEFAULT_OFFER_LIMIT = 10;
+    static final int MAX_OFFER_LIMIT = 100;
+
+    private final SupplierRepository repository;
+    private final ProductSupplierRepository offerRepository;
+    private final ProductRepository productRepository;
+    private final SupplierPostalCodeIndex postalCodeIndex;
+    private final EntityManager entityManager;
+
+    public SupplierService(SupplierRepository repository, ProductSupplierRepository offerRepository,
+                           ProductRepository productRepository, SupplierPostalCodeIndex postalCodeIndex,
+                           EntityManager entityManager) {
+        this.repository = repository;
+        this.offerRepository = offerRepository;
+        this.productRepository = productRepository;
+        this.postalCodeIndex = postalCodeIndex;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional
+    public SupplierDetail addSupplier(Supplier supplier) {
+        log.debug("Adding new supplier: {}", supplier.getName());
+        supplier.setId(null);
+        supplier.setAddress(resolveAddress(supplier.getAddress()));
+        Supplier savedSupplier = repository.save(supplier);
+        afterCommitSaved(savedSupplier);
+        return SupplierDetail.of(savedSupplier);
+    }
+
+    @Transactional(readOnly = true)
+    public SupplierDetail getSupplier(long id) {
+        log.debug("Fetching supplier by ID: {}", id);
+        return SupplierDetail.of(findWithAddress(id));
+    }
+
+    // Replaces name, contact number and address; an address with an id points at an existing one
+    @Transactional
+    public SupplierDetail updateSupplier(long id, Supplier updatedSupplier) {
+        log.debug("Updating supplier with ID: {}", id);
+        Supplier existingSupplier = findWithAddress(id);
+        existingSupplier.setName(updatedSupplier.getName());
+        existingSupplier.setContactNumber(updatedSupplier.getContactNumber());
+        existingSupplier.setAddress(resolveAddress(updatedSupplier.getAddress()));
+        afterCommitSaved(existingSupplier);
+        log.info("Supplier with ID {} successfully updated", id);
+        return SupplierDetail.of(existingSupplier);
+    }
+
+    // The supplier's offers go with it, by the foreign key's ON DELETE CASCADE
+    @Transactional
+    public void deleteSupplier(long id) {
+        log.debug("Deleting supplier by ID: {}", id);
+        if (!repository.existsById(id)) {
+            throw new ResourceNotFoundException("Supplier with ID " + id + " not found");
+        }
+        repository.deleteById(id);
+        AfterCommit.run(() -> postalCodeIndex.onDeleted(id));
+        log.info("Supplier with ID {} successfully deleted", id);
+    }
+
+    public List<SupplierDetail> findByPostalCodePrefix(String prefix, int limit) {
+        String normalizedPrefix = Address.normalizePostalCode(prefix);
+        if (normalizedPrefix == null || normalizedPrefix.isEmpty()) {
+            throw new IllegalArgumentException("Postal code prefix must not be empty");
+        }
+        int resultLimit = limit <= 0 ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_SEARCH_LIMIT);
+        log.debug("Searching suppliers by postal code prefix: {}", normalizedPrefix);
+        return postalCodeIndex.findByPrefix(normalizedPrefix, resultLimit)
+                .map(this::loadInOrder)
+                .orElseGet(() -> repository.findWithAddressByPostalCodePrefix(escapeLike(normalizedPrefix) + "%",
+                                Limit.of(resultLimit)).stream()
+                        .map(SupplierDetail::of)
+                        .toList());
+    }
+
+    // Creates the offer or replaces its price and stock
+    @Transactional
+    public SupplierOffer linkProduct(long supplierId, long productId, double unitPrice, int stock) {
+        if (unitPrice < 0 || stock < 0) {
+            throw new IllegalArgumentException("Unit price and stock must not be negative");
+        }
+        log.debug("Linking supplier {} to product {} at {} with stock {}", supplierId, productId, unitPrice, stock);
+        Supplier supplier = findWithAddress(supplierId);
+        ProductSupplier offer = offerRepository.findByProductIdAndSupplierId(productId, supplierId).orElseGet(() -> {
+            if (!productRepository.existsById(productId)) {
+                throw new ProductNotFoundException("Product with ID " + productId + " not found");
+            }
+            return new ProductSupplier(entityManager.getReference(Product.class, productId), supplier, 0, 0);
+        });
+        offer.setUnitPrice(unitPrice);
+        offer.setStock(stock);
+        return SupplierOffer.of(offerRepository.save(offer));
+    }
+
+    @Transactional
+    public void unlinkProduct(long supplierId, long productId) {
+        log.debug("Unlinking supplier {} from product {}", supplierId, productId);
+        if (offerRepository.deleteByProductIdAndSupplierId(productId, supplierId) == 0) {
+            throw new ResourceNotFoundException("Supplier " + supplierId + " does not supply product " + productId);
+        }
+    }
+
+    // 404 when no supplier has the product in stock
+    public SupplierOffer getCheapestInStockOffer(long productId) {
+        log.debug("Fetching cheapest in-stock supplier for product {}", productId);
+        return offerRepository.findInStockByProductId(productId, Limit.of(1)).stream()
+                .findFirst()
+                .map(SupplierOffer::of)
+                .orElseThrow(() -> new ResourceNotFoundException("No supplier has product " + productId + " in stock"));
+    }
+
+    // Cheapest first
+    public List<SupplierOffer> getInStockOffers(long productId, int limit) {
+        int resultLimit = limit <= 0 ? DEFAULT_OFFER_LIMIT : Math.min(limit, MAX_OFFER_LIMIT);
+        log.debug("Fetching up to {} in-stock suppliers for product {}", resultLimit, productId);
+        return offerRepository.findInStockByProductId(productId, Limit.of(resultLimit)).stream()
+                .map(SupplierOffer::of)
+                .toList();
+    }
+
+    private Supplier findWithAddress(long id) {
+        return repository.findWithAddressById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Supplier with ID " + id + " not found"));
+    }
+
+    private Address resolveAddress(Address address) {
+        if (address == null) {
+            return null;
+        }
+        if (address.getId() != null) {
+            Address existing = entityManager.find(Address.class, address.getId());
+            if (existing == null) {
+                throw new ResourceNotFoundException("Address with ID " + address.getId() + " not found");
+            }
+            return existing;
+        }
+        entityManager.persist(address);
+        return address;
+    }
+
+    // One IN query for the page, put back into the index's postal code order
+    private List<SupplierDetail> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Supplier> byId = repository.findAllWithAddressByIdIn(ids).stream()
+                .collect(Collectors.toMap(Supplier::getId, Function.identity(), (first, second) -> first, HashMap::new));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(SupplierDetail::of)
+                .toList();
+    }
+
+    private void afterCommitSaved(Supplier supplier) {
+        Long id = supplier.getId();
+        String postalCode = supplier.getAddress() == null ? null : supplier.getAddress().getPostalCode();
+        AfterCommit.run(() -> postalCodeIndex.onSaved(id, postalCode));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
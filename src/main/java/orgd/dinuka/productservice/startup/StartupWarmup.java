@@ -0,0 +1,207 @@
+package orgd.dinuka.productservice.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import orgd.dinuka.productservice.cache.ProductCache;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.service.ProductService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Warms the service up before it reports ready.
+ * <p>
+ * Application runners finish before the readiness state turns to accepting traffic, so a probe on
+ * {@code /actuator/health/readiness} stays red while this runs. It first loads the products that were hottest in
+ * the cache at the last shutdown, then calls the read endpoints over HTTP for {@code iterations} rounds or
+ * {@code max-duration}, whichever ends first. This creates the lazily initialized request path and lets Hibernate,
+ * Jackson and the JIT warm up on real traffic shapes. The warm-up time, and the time until the first round whose
+ * slowest call was within {@code fast-request-threshold}, are logged and published as gauges.
+ */
+@Component
+@ConditionalOnProperty(name = "product.warmup.enabled", havingValue = "true")
+@Slf4j
+public class StartupWarmup implements ApplicationRunner {
+
+    static final String WARMUP_GAUGE = "product.startup.warmup";
+    static final String FIRST_FAST_REQUEST_GAUGE = "product.startup.first-fast-request";
+    private static final int PRELOAD_CHUNK_SIZE = 500;
+    private static final int SAMPLE_SIZE = 20;
+
+    private final ProductService productService;
+    private final ProductCache productCache;
+    private final ApplicationContext applicationContext;
+    private final MeterRegistry meterRegistry;
+    private final Path hotIdsFile;
+    private final int preloadSize;
+    private final int iterations;
+    private final long fastRequestThresholdNanos;
+    private final long maxDurationNanos;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private volatile double warmupNanos = Double.NaN;
+    private volatile double firstFastRequestNanos = Double.NaN;
+
+    public StartupWarmup(ProductService productService, ProductCache productCache,
+                         ApplicationContext applicationContext, MeterRegistry meterRegistry,
+                         @Value("${product.warmup.hot-ids-file:${java.io.tmpdir}/product-service-hot-ids}") Path hotIdsFile,
+                         @Value("${product.warmup.preload-size:1000}") int preloadSize,
+                         @Value("${product.warmup.iterations:200}") int iterations,
+                         @Value("${product.warmup.fast-request-threshold:20ms}") Duration fastRequestThreshold,
+                         @Value("${product.warmup.max-duration:60s}") Duration maxDuration) {
+        this.productService = productService;
+        this.productCache = productCache;
+        this.applicationContext = applicationContext;
+        this.meterRegistry = meterRegistry;
+        this.hotIdsFile = hotIdsFile;
+        this.preloadSize = preloadSize;
+        this.iterations = iterations;
+        this.fastRequestThresholdNanos = fastRequestThreshold.toNanos();
+        this.maxDurationNanos = maxDuration.toNanos();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        int preloaded = preloadHotProducts();
+        int rounds = exerciseEndpoints(started);
+        warmupNanos = System.nanoTime() - started;
+        TimeGauge.builder(WARMUP_GAUGE, this, TimeUnit.NANOSECONDS, warmup -> warmup.warmupNanos)
+                .description("Time spent warming up before reporting ready")
+                .register(meterRegistry);
+        TimeGauge.builder(FIRST_FAST_REQUEST_GAUGE, this, TimeUnit.NANOSECONDS, warmup -> warmup.firstFastRequestNanos)
+                .description("Time from the start of the warm-up until the read endpoints first answered fast")
+                .register(meterRegistry);
+        log.info("Warm-up finished in {} ms: preloaded {} products, {} rounds, first fast round after {}",
+                (long) (warmupNanos / 1_000_000), preloaded, rounds,
+                Double.isNaN(firstFastRequestNanos) ? "never" : (long) (firstFastRequestNanos / 1_000_000) + " ms");
+    }
+
+    // Application startup time is also published by Spring Boot as application.ready.time
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Ready in {} ms, of which {} ms warm-up", event.getTimeTaken().toMillis(),
+                (long) (warmupNanos / 1_000_000));
+    }
+
+    // Remembers what was hot for the next start
+    @PreDestroy
+    public void saveHotIds() {
+        List<Long> ids = productCache.hottestIds(preloadSize);
+        try {
+            Files.write(hotIdsFile, ids.stream().map(String::valueOf).toList(), StandardCharsets.UTF_8);
+            log.info("Saved {} hot product ids to {}", ids.size(), hotIdsFile);
+        } catch (IOException ex) {
+            log.warn("Could not save hot product ids to {}", hotIdsFile, ex);
+        }
+    }
+
+    int preloadHotProducts() {
+        if (preloadSize <= 0 || !Files.isReadable(hotIdsFile)) {
+            return 0;
+        }
+        List<Long> ids;
+        try (var lines = Files.lines(hotIdsFile, StandardCharsets.UTF_8)) {
+            ids = lines.map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(Long::valueOf)
+                    .limit(preloadSize)
+                    .toList();
+        } catch (IOException | NumberFormatException ex) {
+            log.warn("Ignoring unreadable hot product ids in {}", hotIdsFile, ex);
+            return 0;
+        }
+        int loaded = 0;
+        for (int from = 0; from < ids.size(); from += PRELOAD_CHUNK_SIZE) {
+            // Loaded products are put into the cache on the way
+            loaded += productService.getProductsByIds(ids.subList(from, Math.min(from + PRELOAD_CHUNK_SIZE, ids.size())))
+                    .found().size();
+        }
+        return loaded;
+    }
+
+    private int exerciseEndpoints(long started) {
+        if (iterations <= 0 || !(applicationContext instanceof WebServerApplicationContext webContext)
+                || webContext.getWebServer() == null) {
+            return 0;
+        }
+        String baseUrl = "http://localhost:" + webContext.getWebServer().getPort();
+        List<URI> uris = warmupPaths().stream().map(path -> URI.create(baseUrl + path)).toList();
+        int rounds = 0;
+        while (rounds < iterations && System.nanoTime() - started < maxDurationNanos) {
+            long slowest = 0;
+            for (URI uri : uris) {
+                long requestStarted = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 400) {
+                        log.debug("Warm-up call {} answered {}", uri, response.statusCode());
+                    }
+                } catch (IOException ex) {
+                    log.warn("Warm-up stopped, {} failed", uri, ex);
+                    return rounds;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return rounds;
+                }
+                slowest = Math.max(slowest, System.nanoTime() - requestStarted);
+            }
+            rounds++;
+            if (Double.isNaN(firstFastRequestNanos) && slowest <= fastRequestThresholdNanos) {
+                firstFastRequestNanos = System.nanoTime() - started;
+            }
+        }
+        return rounds;
+    }
+
+    List<String> warmupPaths() {
+        List<String> paths = new ArrayList<>();
+        paths.add("/product/page?limit=" + SAMPLE_SIZE);
+        List<ProductDetail> sample = productService.getPage(null, SAMPLE_SIZE).items();
+        if (sample.isEmpty()) {
+            return paths;
+        }
+        ProductDetail product = sample.get(0);
+        paths.add("/product/get/" + product.id());
+        paths.add("/product/get/" + product.id() + "?view=summary");
+        paths.add("/product/batch?ids=" + sample.stream().map(item -> String.valueOf(item.id()))
+                .collect(Collectors.joining(",")));
+        if (product.name() != null && !product.name().isBlank()) {
+            // The by-name route only matches names that are not all digits
+            if (!product.name().chars().allMatch(Character::isDigit)) {
+                paths.add("/product/get/" + encode(product.name()));
+            }
+            paths.add("/product/search?prefix=" + encode(product.name().substring(0, Math.min(2, product.name().length()))));
+        }
+        return paths;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
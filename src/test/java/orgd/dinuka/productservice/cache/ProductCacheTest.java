@@ -0,0 +1,60 @@
+package orgd.dinuka.productservice.cache;
+
+import org.junit.jupiter.api.Test;
+import orgd.dinuka.productservice.entity.Product;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCacheTest {
+
+    private final ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5));
+
+    // Test that a renamed product is no longer returned under its old name
+    @Test
+    void testGetByName_afterRename() {
+        // Arrange
+        Product original = new Product(1L, "Wax", 44.00, 3, null, new HashSet<>());
+        productCache.put(original);
+        Product renamed = new Product(1L, "Polish", 44.00, 3, null, new HashSet<>());
+
+        // Act
+        productCache.put(renamed);
+        Optional<Product> byOldName = productCache.getByName("Wax", name -> Optional.empty(), id -> Optional.of(renamed));
+        Optional<Product> byNewName = productCache.getByName("Polish", name -> Optional.empty(), id -> Optional.of(renamed));
+
+        // Assert
+        assertTrue(byOldName.isEmpty());
+        assertEquals(1L, byNewName.orElseThrow().getId());
+    }
+
+    // Test that an evicted product is loaded again and misses are not cached
+    @Test
+    void testGetById_afterEvict() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        Product product = new Product(1L, "Wax", 44.00, 3, null, new HashSet<>());
+        productCache.put(product);
+
+        // Act
+        productCache.evict(1L);
+        Optional<Product> first = productCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<Product> second = productCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // Assert
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        assertEquals(2, loads.get());
+        assertEquals(2L, productCache.stats().get("byId").get("misses"));
+    }
+}
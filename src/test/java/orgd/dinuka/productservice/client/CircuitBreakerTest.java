@@ -0,0 +1,54 @@
+package orgd.dinuka.productservice.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CircuitBreakerTest {
+
+    private static final Instant OPENED = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final Clock clock = mock(Clock.class);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, Duration.ofMinutes(1), clock);
+
+    // Test that a cancelled trial gives its slot back so the next call becomes the trial
+    @Test
+    void testOnCancel_releasesTrial() {
+        // Arrange
+        when(clock.instant()).thenReturn(OPENED);
+        circuitBreaker.onError();
+        when(clock.instant()).thenReturn(OPENED.plus(Duration.ofMinutes(1)));
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        // Act
+        circuitBreaker.onCancel();
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    // Test that cancelling a call while the circuit is closed or open leaves it as it was
+    @Test
+    void testOnCancel_outsideTrial() {
+        // Arrange
+        when(clock.instant()).thenReturn(OPENED);
+
+        // Act & Assert
+        circuitBreaker.onCancel();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.onError();
+        circuitBreaker.onCancel();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+}
@@ -0,0 +1,118 @@
+package orgd.dinuka.productservice.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import orgd.dinuka.productservice.configuration.WebClientConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalCatalogClientTest {
+
+    private HttpServer server;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private volatile int responseStatus = 200;
+    private volatile long responseDelayMillis = 0;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(ExternalCatalogClient.USERS_PATH, exchange -> {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(responseDelayMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "[{\"name\":\"Leanne\"},{\"name\":\"Ervin\"}]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private ExternalCatalogClient client(Duration cacheTtl, Duration readTimeout) {
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new ExternalCatalogClient(
+                WebClientConfiguration.buildWebClient(baseUrl, 10, Duration.ofSeconds(1), readTimeout),
+                cacheTtl, 2, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    // Test that concurrent callers share one upstream request and later callers hit the cache
+    @Test
+    void testFetchUsers_coalescesAndCaches() {
+        // Arrange
+        responseDelayMillis = 200;
+        ExternalCatalogClient client = client(Duration.ofMinutes(1), Duration.ofSeconds(2));
+
+        // Act
+        List<List<Object>> responses = Flux.range(0, 20)
+                .flatMap(i -> client.fetchUsers())
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        List<Object> cached = client.fetchUsers().block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(20, responses.size());
+        assertEquals(2, cached.size());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, meterRegistry.get(ExternalCatalogClient.REQUEST_TIMER).tag("outcome", "success").timer().count());
+    }
+
+    // Test that failures are not cached and open the circuit after the threshold
+    @Test
+    void testFetchUsers_opensCircuitAfterFailures() {
+        // Arrange
+        responseStatus = 500;
+        ExternalCatalogClient client = client(Duration.ofMinutes(1), Duration.ofSeconds(2));
+
+        // Act & Assert
+        StepVerifier.create(client.fetchUsers()).expectError().verify(Duration.ofSeconds(5));
+        StepVerifier.create(client.fetchUsers()).expectError().verify(Duration.ofSeconds(5));
+        StepVerifier.create(client.fetchUsers())
+                .expectError(CallNotPermittedException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(2, meterRegistry.get(ExternalCatalogClient.REQUEST_TIMER).tag("outcome", "error").timer().count());
+    }
+
+    // Test that a slow upstream is cut off by the read timeout
+    @Test
+    void testFetchUsers_timesOut() {
+        // Arrange
+        responseDelayMillis = 1_000;
+        ExternalCatalogClient client = client(Duration.ofMinutes(1), Duration.ofMillis(200));
+
+        // Act & Assert
+        StepVerifier.create(Mono.defer(client::fetchUsers))
+                .expectError()
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,78 @@
+package orgd.dinuka.productservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Bulk-upserts rows through a real context, one row per chunk
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:bulk-products.sql",
+        "product.reactive.url=r2dbc:h2:mem:///bulk?options=DB_CLOSE_DELAY=-1",
+        "product.reactive.username=sa",
+        "product.reactive.password=",
+        "product.rate-limit.enabled=false",
+        "product.reservation.log-file=${java.io.tmpdir}/bulk-test-${random.uuid}.log",
+        "product.bulk.batch-size=1"
+})
+@AutoConfigureMockMvc
+public class ProductBulkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Test that every chunk of rows with a category is written and counted in the category statistics
+    @Test
+    void testBulkUpsert_rowsWithCategory() throws Exception {
+        // Act
+        mockMvc.perform(post("/product/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"TV\",\"price\":500,\"quantity\":2,\"category\":{\"id\":1}},"
+                                + "{\"name\":\"Radio\",\"price\":50,\"quantity\":4,\"category\":{\"id\":1}}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+
+        // Assert
+        mockMvc.perform(get("/product/categories/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categoryName").value("Electronics"))
+                .andExpect(jsonPath("$.productCount").value(2))
+                .andExpect(jsonPath("$.totalStockValue").value(1200.0));
+    }
+
+    // Test that a bulk update cannot lower the quantity under stock that reservations hold
+    @Test
+    void testBulkUpsert_keepsReservedStock() throws Exception {
+        // Arrange
+        mockMvc.perform(post("/product/reservations").param("productId", "900").param("quantity", "4"))
+                .andExpect(status().isCreated());
+
+        // Act
+        mockMvc.perform(post("/product/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":900,\"name\":\"Lamp\",\"price\":20,\"quantity\":2},"
+                                + "{\"id\":900,\"name\":\"Lamp\",\"price\":20,\"quantity\":4}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status").value("FAILED"))
+                .andExpect(jsonPath("$.items[1].status").value("UPDATED"));
+
+        // Assert
+        mockMvc.perform(get("/product/get/900"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(4));
+    }
+}
@@ -7,13 +7,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import orgd.dinuka.productservice.dto.BulkItemResult;
+import orgd.dinuka.productservice.dto.BulkResult;
+import orgd.dinuka.productservice.dto.ProductBatch;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.dto.ProductSummary;
 import orgd.dinuka.productservice.entity.Category;
 import orgd.dinuka.productservice.entity.Product;
 import orgd.dinuka.productservice.entity.Tag;
 import orgd.dinuka.productservice.service.ProductService;
+import reactor.core.publisher.Mono;
 
 import java.util.*;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -47,6 +58,45 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$[1].name").value("Laptop"));
     }
 
+    @Test
+    void testGetAllProductSummaries() throws Exception {
+        ProductSummary summary = new ProductSummary(1L, "TV", 500.00, 10, 1L, "Electronics");
+
+        Mockito.when(productService.getAllSummaries()).thenReturn(List.of(summary));
+
+        mockMvc.perform(get("/product/all").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("TV"))
+                .andExpect(jsonPath("$[0].categoryName").value("Electronics"))
+                .andExpect(jsonPath("$[0].tags").doesNotExist());
+    }
+
+    @Test
+    void testGetAllProductIds() throws Exception {
+        Mockito.when(productService.getAllIds()).thenReturn(List.of(1L, 2L));
+
+        mockMvc.perform(get("/product/all").param("view", "ids"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1]").value(2));
+    }
+
+    @Test
+    void testGetAllProducts_whenViewIsUnknown() throws Exception {
+        mockMvc.perform(get("/product/all").param("view", "everything"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchByNamePrefix() throws Exception {
+        ProductSummary summary = new ProductSummary(1L, "Television", 500.00, 10, 1L, "Electronics");
+
+        Mockito.when(productService.searchByNamePrefix("tele", 5)).thenReturn(List.of(summary));
+
+        mockMvc.perform(get("/product/search").param("prefix", "tele").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Television"));
+    }
+
     @Test
     void testGetProductById() throws Exception {
         Category category = new Category(1L, "Electronics", "Electronic items", null);
@@ -61,7 +111,54 @@ public class ProductControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("TV"))
                 .andExpect(jsonPath("$.price").value(500.00))
-                .andExpect(jsonPath("$.tags[0].name").value("Home Appliances"));
+                .andExpect(jsonPath("$.tags[0].name").value("Home Appliances"))
+                .andExpect(jsonPath("$.category.products").doesNotExist())
+                .andExpect(jsonPath("$.tags[0].products").doesNotExist());
+    }
+
+    @Test
+    void testGetProductById_withETag() throws Exception {
+        Product product = new Product(1L, "TV", 500.00, 10, null, new HashSet<>());
+        product.setVersion(3L);
+
+        Mockito.when(productService.getProductById(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/product/get/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
+                .andExpect(header().string("Cache-Control", "max-age=0, must-revalidate, public"));
+
+        mockMvc.perform(get("/product/get/1").header("If-None-Match", "W/\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/product/get/1").header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("TV"));
+    }
+
+    @Test
+    void testGetProductById_notModifiedFromCachedVersion() throws Exception {
+        Mockito.when(productService.getCachedVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/product/get/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"1-3\""));
+
+        Mockito.verify(productService, Mockito.never()).getProductById(1L);
+    }
+
+    @Test
+    void testGetAll_notModifiedForCatalogVersion() throws Exception {
+        Mockito.when(productService.getCatalogVersion()).thenReturn(42L);
+
+        mockMvc.perform(get("/product/all").param("view", "ids").header("If-None-Match", "\"catalog-42-ids\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/product/all").header("If-None-Match", "\"catalog-42-ids\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"catalog-42-detail\""));
+
+        Mockito.verify(productService, Mockito.never()).getAllIds();
     }
 
     @Test
@@ -81,6 +178,41 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.tags[0].name").value("Home Appliances"));
     }
 
+    @Test
+    void testGetPage() throws Exception {
+        Product product = new Product(3L, "TV", 500.00, 10, null, new HashSet<>());
+
+        Mockito.when(productService.getPage("abc", 1)).thenReturn(new ProductPage(List.of(ProductDetail.of(product)), "next"));
+
+        mockMvc.perform(get("/product/page").param("after", "abc").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("TV"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllProducts() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<Product> consumer = invocation.getArgument(0);
+            consumer.accept(new Product(1L, "TV", 500.00, 10, null, new HashSet<>()));
+            consumer.accept(new Product(2L, "Laptop", 1000.00, 5, null, new HashSet<>()));
+            return null;
+        }).when(productService).streamAll(Mockito.any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/product/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"name\":\"Laptop\""));
+    }
+
     @Test
     void testSaveProduct() throws Exception {
         Category category = new Category(1L, "Electronics", "Electronic items", null);
@@ -101,6 +233,43 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.tags[0].name").value("Home Appliances"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBulkUpsert_fromNdjson() throws Exception {
+        Mockito.when(productService.bulkUpsert(Mockito.any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<Product> rows = invocation.getArgument(0);
+            List<BulkItemResult> items = new ArrayList<>();
+            int index = 0;
+            while (rows.hasNext()) {
+                rows.next();
+                items.add(BulkItemResult.created(index, 10L + index));
+                index++;
+            }
+            return BulkResult.of(items);
+        });
+
+        mockMvc.perform(post("/product/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Fridge\", \"price\":1200.00}\n{\"name\":\"Oven\", \"price\":300.00}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.items[1].id").value(11))
+                .andExpect(jsonPath("$.items[1].status").value("CREATED"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBulkUpsert_fromJsonArray() throws Exception {
+        Mockito.when(productService.bulkUpsert(Mockito.any(Iterator.class)))
+                .thenReturn(BulkResult.of(List.of(BulkItemResult.created(0, 10L))));
+
+        mockMvc.perform(post("/product/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"Fridge\", \"price\":1200.00}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+    }
+
     @Test
     void testDeleteProduct() throws Exception {
         Mockito.doNothing().when(productService).deleteProduct(1L);
@@ -112,12 +281,33 @@ public class ProductControllerTest {
     @Test
     void testGetUsers() throws Exception {
         Product externalProduct = new Product(1L, "External Product", 700.00, 5, null, new HashSet<>());
-        Set<Product> externalProducts = new HashSet<>(List.of(externalProduct));
+        List<Object> externalProducts = List.of(externalProduct);
 
-        Mockito.when(productService.getExtProducts()).thenReturn(Collections.singletonList(externalProducts));
+        Mockito.when(productService.getExtProducts()).thenReturn(Mono.just(externalProducts));
 
-        mockMvc.perform(get("/product/test"))
+        MvcResult result = mockMvc.perform(get("/product/test"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value("External Product"));
     }
+
+    @Test
+    void testGetProductsByIds() throws Exception {
+        Product product = new Product(1L, "TV", 500.00, 10, null, new HashSet<>());
+
+        Mockito.when(productService.getProductsByIds(List.of(1L, 2L)))
+                .thenReturn(new ProductBatch(List.of(ProductDetail.of(product)), List.of(2L)));
+
+        mockMvc.perform(get("/product/batch").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].name").value("TV"))
+                .andExpect(jsonPath("$.missing[0]").value(2));
+
+        mockMvc.perform(post("/product/batch").contentType(MediaType.APPLICATION_JSON).content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missing[0]").value(2));
+    }
 }
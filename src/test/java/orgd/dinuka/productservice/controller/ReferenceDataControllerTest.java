@@ -0,0 +1,94 @@
+package orgd.dinuka.productservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import orgd.dinuka.productservice.outbox.ProductChangeRelay;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Renames reference data in a real context and revalidates the product and catalog ETags taken before the rename
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reference;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:warmup-products.sql",
+        "product.reactive.url=r2dbc:h2:mem:///reference?options=DB_CLOSE_DELAY=-1",
+        "product.reactive.username=sa",
+        "product.reactive.password=",
+        "product.rate-limit.enabled=false",
+        "product.reservation.log-file=${java.io.tmpdir}/reference-test-${random.uuid}.log"
+})
+@AutoConfigureMockMvc
+public class ReferenceDataControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductChangeRelay changeRelay;
+
+    // Test that renaming a category changes the ETag of its products and of the catalog
+    @Test
+    void testUpdateCategory_changesEtags() throws Exception {
+        // Arrange
+        changeRelay.relay();
+        String productEtag = etag("/product/get/1");
+        String catalogEtag = etag("/product/all");
+
+        // Act
+        mockMvc.perform(put("/product/categories/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Audio and video\",\"description\":\"Electronic items\"}"))
+                .andExpect(status().isOk());
+        changeRelay.relay();
+
+        // Assert
+        String renamedEtag = mockMvc.perform(get("/product/get/1").header(HttpHeaders.IF_NONE_MATCH, productEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category.name").value("Audio and video"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(productEtag, renamedEtag);
+        String renamedCatalogEtag = mockMvc.perform(get("/product/all").header(HttpHeaders.IF_NONE_MATCH, catalogEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].category.name").value("Audio and video"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(catalogEtag, renamedCatalogEtag);
+    }
+
+    // Test that renaming a tag changes the ETag of a product carrying it
+    @Test
+    void testUpdateTag_changesProductEtag() throws Exception {
+        // Arrange
+        String productEtag = etag("/product/get/2");
+
+        // Act
+        mockMvc.perform(put("/product/tags/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Devices\"}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/product/get/2").header(HttpHeaders.IF_NONE_MATCH, productEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tags[0].name").value("Devices"));
+    }
+
+    private String etag(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,95 @@
+package orgd.dinuka.productservice.dao;
+
+import io.r2dbc.h2.CloseableConnectionFactory;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactiveProductRepositoryTest {
+
+    private CloseableConnectionFactory connectionFactory;
+    private DatabaseClient databaseClient;
+    private ReactiveProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = H2ConnectionFactory.inMemory("reactive-products");
+        databaseClient = DatabaseClient.create(connectionFactory);
+        Flux.just("create table category (id bigint primary key, category_name varchar(255), description varchar(255))",
+                        "create table tag (id bigint primary key, name varchar(255))",
+                        "create table product (id bigint primary key, name varchar(30), normalized_name varchar(30), "
+                                + "price double, quantity int, version bigint, category_id bigint)",
+                        "create table product_tag (product_id bigint, tag_id bigint, primary key (product_id, tag_id))",
+                        "insert into category values (7, 'Electronics', 'Screens and such')",
+                        "insert into tag values (1, 'Gadgets'), (2, 'Screens')",
+                        "insert into product values (1, 'TV', 'tv', 500, 10, 3, 7), (2, 'Cable', 'cable', 5, 100, 0, null), "
+                                + "(3, 'Remote', 'remote', 20, 5, 1, 7)",
+                        "insert into product_tag values (1, 2), (1, 1), (3, 1)")
+                .concatMap(sql -> databaseClient.sql(sql).then())
+                .blockLast();
+        repository = new ReactiveProductRepository(databaseClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseClient.sql("drop all objects").then().block();
+        connectionFactory.close();
+    }
+
+    // Test that a product comes back with its category and its tags in id order
+    @Test
+    void testFindById_groupsTagRows() {
+        // Act & Assert
+        StepVerifier.create(repository.findById(1L))
+                .expectNext(new ProductDetail(1L, "TV", 500, 10, 3L,
+                        new ProductDetail.CategoryRef(7L, "Electronics", "Screens and such"),
+                        List.of(new ProductDetail.TagRef(1L, "Gadgets"), new ProductDetail.TagRef(2L, "Screens"))))
+                .verifyComplete();
+        StepVerifier.create(repository.findById(99L)).verifyComplete();
+    }
+
+    // Test that a name lookup matches the normalized name
+    @Test
+    void testFindFirstByNormalizedName() {
+        // Act & Assert
+        StepVerifier.create(repository.findFirstByNormalizedName("cable"))
+                .assertNext(product -> {
+                    assertEquals(2L, product.id());
+                    assertNull(product.category());
+                    assertTrue(product.tags().isEmpty());
+                })
+                .verifyComplete();
+    }
+
+    // Test that the page limit counts products rather than joined rows
+    @Test
+    void testFindPage_limitsProducts() {
+        // Act & Assert
+        StepVerifier.create(repository.findPage(0, 2).map(ProductDetail::id))
+                .expectNext(1L, 2L)
+                .verifyComplete();
+        StepVerifier.create(repository.findPage(2, 2).map(ProductDetail::id))
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    // Test that the listing is produced on demand, one product per request
+    @Test
+    void testFindAll_honoursDemand() {
+        // Act & Assert
+        StepVerifier.create(repository.findAll().map(ProductDetail::id), 1)
+                .expectNext(1L)
+                .thenRequest(2)
+                .expectNext(2L, 3L)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,175 @@
+package orgd.dinuka.productservice.dao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import orgd.dinuka.productservice.exception.ServiceOverloadedException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RepositoryConcurrencyLimiterTest {
+
+    // Test that a connection is taken under a permit and gives it back once, however often it is closed
+    @Test
+    void testGetConnection_releasesPermitOnClose() throws Exception {
+        // Arrange
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, 0, Duration.ofMillis(10));
+        Connection pooled = mock(Connection.class);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(pooled);
+        DataSource dataSource = limiter.limit(target);
+
+        // Act
+        Connection connection = dataSource.getConnection();
+        int whileOpen = limiter.getAvailablePermits();
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(0, whileOpen);
+        assertEquals(1, limiter.getAvailablePermits());
+        dataSource.getConnection().close();
+        assertEquals(1, limiter.getAvailablePermits());
+
+        // Verify
+        verify(pooled, times(3)).close();
+    }
+
+    // Test that callers beyond the permits and the waiting room are rejected while a connection is held
+    @Test
+    void testGetConnection_rejectsWhenSaturated() throws Exception {
+        // Arrange
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, 0, Duration.ofSeconds(1));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        DataSource dataSource = limiter.limit(target);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Act
+            Future<?> holder = executor.submit(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    inside.countDown();
+                    release.await();
+                }
+                return null;
+            });
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+            // Assert
+            assertThrows(ServiceOverloadedException.class, dataSource::getConnection);
+            verify(target, times(1)).getConnection();
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            assertEquals(1, limiter.getAvailablePermits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Test that a transaction takes its permit with its connection and holds it until it ends
+    @Test
+    void testTransaction_holdsPermitUntilEnd() throws Exception {
+        // Arrange
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, 0, Duration.ofMillis(10));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        DataSource dataSource = limiter.limit(target);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        // Act
+        int insideTransaction = transaction.execute(status -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            return limiter.getAvailablePermits();
+        });
+
+        // Assert
+        assertEquals(0, insideTransaction);
+        assertEquals(1, limiter.getAvailablePermits());
+
+        // Verify
+        verify(target, times(1)).getConnection();
+    }
+
+    // Test that a thread holding a permit gets a nested connection without waiting on itself
+    @Test
+    void testGetConnection_nestedConnectionPassesThrough() throws Exception {
+        // Arrange
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, 0, Duration.ofMillis(10));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        DataSource dataSource = limiter.limit(target);
+
+        // Act
+        try (Connection outer = dataSource.getConnection(); Connection nested = dataSource.getConnection()) {
+            // Assert
+            assertNotSame(outer, nested);
+            assertEquals(0, limiter.getAvailablePermits());
+        }
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    // Test that a permit is given back when the pool fails to hand out a connection
+    @Test
+    void testGetConnection_releasesPermitOnFailure() throws Exception {
+        // Arrange
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, 0, Duration.ofMillis(10));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+        DataSource dataSource = limiter.limit(target);
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    // Test that the recent wait counts the time the pool takes to hand out a connection, not only the permit wait
+    @Test
+    void testGetRecentWaitNanos_includesPoolAcquireTime() throws Exception {
+        // Arrange
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, 0, Duration.ofMillis(10));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return mock(Connection.class);
+        });
+        DataSource dataSource = limiter.limit(target);
+
+        // Act
+        dataSource.getConnection().close();
+
+        // Assert
+        // One sample of 50 ms weighs a tenth, and less once it starts to decay
+        assertTrue(limiter.getRecentWaitNanos() > Duration.ofMillis(4).toNanos());
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    // Test that only the application data source is wrapped
+    @Test
+    void testPostProcess_wrapsApplicationDataSourceOnly() {
+        // Arrange
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, 0, Duration.ofMillis(10));
+        DataSource dataSource = mock(DataSource.class);
+
+        // Act & Assert
+        assertNotSame(dataSource, limiter.postProcessAfterInitialization(dataSource,
+                RepositoryConcurrencyLimiter.DATA_SOURCE_BEAN));
+        assertSame(dataSource, limiter.postProcessAfterInitialization(dataSource, "replicaRouter"));
+    }
+}
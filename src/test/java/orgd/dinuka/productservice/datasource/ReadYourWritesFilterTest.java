@@ -0,0 +1,40 @@
+package orgd.dinuka.productservice.datasource;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    // Test that the async dispatch of a pinned request is pinned too, without the cookie being read or set again
+    @Test
+    void testDoFilter_pinsAsyncDispatch() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/product/bulk");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+                Long.toString(System.currentTimeMillis() + 60_000)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<Boolean> pinned = new ArrayList<>();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> pinned.add(ReadRouting.isPinnedToPrimary()));
+        request.setCookies();
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, (req, res) -> pinned.add(ReadRouting.isPinnedToPrimary()));
+
+        // Assert
+        assertEquals(List.of(true, true), pinned);
+        assertEquals(1, response.getCookies().length);
+        assertFalse(ReadRouting.isPinnedToPrimary());
+    }
+}
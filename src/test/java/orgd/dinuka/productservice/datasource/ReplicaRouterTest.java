@@ -0,0 +1,169 @@
+package orgd.dinuka.productservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import orgd.dinuka.productservice.dao.RepositoryConcurrencyLimiter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicaRouterTest {
+
+    private final HikariDataSource primary = h2("primary");
+    private final HikariDataSource replica = h2("replica");
+    private ReplicaRouter router;
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+    }
+
+    // Test that reads stay on the primary until the replica has passed a health check, then go to the replica
+    @Test
+    void testDetermineTarget_afterHealthCheck() {
+        // Arrange
+        router = newRouter();
+
+        // Act
+        DataSource beforeCheck = router.determineTarget();
+        router.checkReplicas();
+        DataSource afterCheck = router.determineTarget();
+
+        // Assert
+        assertSame(primary, beforeCheck);
+        assertSame(replica, afterCheck);
+    }
+
+    // Test that a thread pinned to the primary reads from it even with a healthy replica
+    @Test
+    void testDetermineTarget_whenPinnedToPrimary() {
+        // Arrange
+        router = newRouter();
+        router.checkReplicas();
+
+        // Act
+        DataSource pinned = ReadRouting.onPrimary(router::determineTarget);
+
+        // Assert
+        assertSame(primary, pinned);
+        assertFalse(ReadRouting.isPinnedToPrimary());
+        assertSame(replica, router.determineTarget());
+    }
+
+    // Test that work a pinned thread hands to another thread through propagate reads from the primary too
+    @Test
+    void testDetermineTarget_onThreadPropagatedTo() throws Exception {
+        // Arrange
+        router = newRouter();
+        router.checkReplicas();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Act
+            CompletableFuture<DataSource> pinned = new CompletableFuture<>();
+            ReadRouting.onPrimary(() -> executor.submit(ReadRouting.propagate(
+                    () -> pinned.complete(router.determineTarget()))));
+            CompletableFuture<DataSource> unpinned = new CompletableFuture<>();
+            executor.submit(ReadRouting.propagate(() -> unpinned.complete(router.determineTarget())));
+
+            // Assert
+            assertSame(primary, pinned.get(5, TimeUnit.SECONDS));
+            assertSame(replica, unpinned.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Test that primary connections are taken under the limiter's permits and replica reads are not
+    @Test
+    void testGetConnection_limitsPrimaryOnly() throws SQLException {
+        // Arrange
+        RepositoryConcurrencyLimiter limiter = new RepositoryConcurrencyLimiter(1, 0, Duration.ofMillis(10));
+        router = new ReplicaRouter(primary, limiter.limit(primary), List.of(replica), Duration.ofSeconds(5), null,
+                Duration.ofSeconds(1));
+        router.checkReplicas();
+
+        // Act & Assert
+        try (Connection fromReplica = router.getConnection()) {
+            assertEquals(1, limiter.getAvailablePermits());
+        }
+        try (Connection fromPrimary = ReadRouting.onPrimary(() -> {
+            try {
+                return router.getConnection();
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        })) {
+            assertEquals(0, limiter.getAvailablePermits());
+        }
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    // Test that a replica lagging beyond max-lag is skipped until it catches up
+    @Test
+    void testCheckReplicas_whenLagging() throws SQLException {
+        // Arrange
+        execute(replica, "create table replication_lag (seconds bigint)", "insert into replication_lag values (30)");
+        router = new ReplicaRouter(primary, primary, List.of(replica), Duration.ofSeconds(5),
+                "select seconds from replication_lag", Duration.ofSeconds(1));
+
+        // Act
+        router.checkReplicas();
+        DataSource whileLagging = router.determineTarget();
+        execute(replica, "update replication_lag set seconds = 1");
+        router.checkReplicas();
+        DataSource caughtUp = router.determineTarget();
+
+        // Assert
+        assertSame(primary, whileLagging);
+        assertSame(replica, caughtUp);
+    }
+
+    // Test that an unreachable replica falls back to the primary
+    @Test
+    void testCheckReplicas_whenReplicaIsDown() {
+        // Arrange
+        router = newRouter();
+        router.checkReplicas();
+
+        // Act
+        replica.close();
+        router.checkReplicas();
+
+        // Assert
+        assertSame(primary, router.determineTarget());
+    }
+
+    private ReplicaRouter newRouter() {
+        return new ReplicaRouter(primary, primary, List.of(replica), Duration.ofSeconds(5), null, Duration.ofSeconds(1));
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(1000);
+        return dataSource;
+    }
+
+    private static void execute(HikariDataSource dataSource, String... statements) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package orgd.dinuka.productservice.export;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.ExportJobStatus;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductExportRow;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductExportServiceTest {
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @TempDir
+    Path directory;
+
+    private ProductExportService exportService;
+
+    @AfterEach
+    void tearDown() {
+        exportService.shutdown();
+    }
+
+    // Test that a CSV export groups the tag rows of a product into one line and quotes where needed
+    @Test
+    void testRun_csv() throws IOException {
+        // Arrange
+        exportService = newService();
+        stubRows();
+        ExportJob job = new ExportJob("csv-job", ExportFormat.CSV, directory.resolve("csv-job.csv.gz"), null);
+
+        // Act
+        exportService.run(job);
+
+        // Assert
+        ExportJobStatus status = job.toStatus();
+        assertEquals(ExportJob.Status.COMPLETED, status.status());
+        assertEquals(2, status.rowsWritten());
+        assertEquals(Files.size(job.getFile()), status.sizeBytes());
+        assertFalse(Files.exists(directory.resolve("csv-job.csv.gz.part")));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(job.getFile())), StandardCharsets.UTF_8))) {
+            assertEquals(List.of(CsvExportWriter.HEADER,
+                    "1,TV,500.0,10,3,7,\"Electronics, Home\",1|2,Gadgets|Screens",
+                    "2,Cable,5.0,100,0,,,,"), reader.lines().toList());
+        }
+    }
+
+    // Test that a separator or backslash inside a tag name is escaped so the tags cell splits back correctly
+    @Test
+    void testRun_csvEscapesTagSeparator() throws IOException {
+        // Arrange
+        exportService = newService();
+        when(repository.count()).thenReturn(1L);
+        when(repository.streamExportRows()).thenReturn(Stream.of(
+                new ProductExportRow(1L, "TV", 500.0, 10, 3L, null, null, null, 1L, "Audio|Video"),
+                new ProductExportRow(1L, "TV", 500.0, 10, 3L, null, null, null, 2L, "C:\\Media")));
+        ExportJob job = new ExportJob("escaped-job", ExportFormat.CSV, directory.resolve("escaped-job.csv.gz"), null);
+
+        // Act
+        exportService.run(job);
+
+        // Assert
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(job.getFile())), StandardCharsets.UTF_8))) {
+            assertEquals(List.of(CsvExportWriter.HEADER, "1,TV,500.0,10,3,,,1|2,Audio\\|Video|C:\\\\Media"),
+                    reader.lines().toList());
+        }
+    }
+
+    // Test that a columnar export reads back to the same products
+    @Test
+    void testRun_columnar() throws IOException {
+        // Arrange
+        exportService = newService();
+        stubRows();
+        ExportJob job = new ExportJob("columnar-job", ExportFormat.COLUMNAR, directory.resolve("columnar-job.pcol"), null);
+
+        // Act
+        exportService.run(job);
+        List<ProductDetail> products = new ArrayList<>();
+        ColumnarExportReader.read(job.getFile(), products::add);
+
+        // Assert
+        assertEquals(ExportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(List.of(
+                new ProductDetail(1L, "TV", 500.0, 10, 3L,
+                        new ProductDetail.CategoryRef(7L, "Electronics, Home", "All screens"),
+                        List.of(new ProductDetail.TagRef(1L, "Gadgets"), new ProductDetail.TagRef(2L, "Screens"))),
+                new ProductDetail(2L, "Cable", 5.0, 100, 0L, null, List.of())), products);
+    }
+
+    // Test that a failed scan marks the job failed and leaves no partial file behind
+    @Test
+    void testRun_whenScanFails() {
+        // Arrange
+        exportService = newService();
+        when(repository.streamExportRows()).thenThrow(new IllegalStateException("connection lost"));
+        ExportJob job = new ExportJob("failed-job", ExportFormat.CSV, directory.resolve("failed-job.csv.gz"), null);
+
+        // Act
+        exportService.run(job);
+
+        // Assert
+        assertEquals(ExportJob.Status.FAILED, job.getStatus());
+        assertEquals("connection lost", job.toStatus().error());
+        assertFalse(Files.exists(job.getFile()));
+    }
+
+    // Test that the status of an unknown export is reported as not found
+    @Test
+    void testGetStatus_whenUnknown() {
+        // Arrange
+        exportService = newService();
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> exportService.getStatus("missing"));
+    }
+
+    private ProductExportService newService() {
+        try {
+            return new ProductExportService(repository, transactionManager, directory, 1, Duration.ofHours(1));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void stubRows() {
+        when(repository.count()).thenReturn(2L);
+        when(repository.streamExportRows()).thenReturn(Stream.of(
+                new ProductExportRow(1L, "TV", 500.0, 10, 3L, 7L, "Electronics, Home", "All screens", 1L, "Gadgets"),
+                new ProductExportRow(1L, "TV", 500.0, 10, 3L, 7L, "Electronics, Home", "All screens", 2L, "Screens"),
+                new ProductExportRow(2L, "Cable", 5.0, 100, 0L, null, null, null, null, null)));
+    }
+}
@@ -0,0 +1,139 @@
+package orgd.dinuka.productservice.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.CategoryStats;
+import orgd.dinuka.productservice.dto.CategoryStatsRow;
+import orgd.dinuka.productservice.dto.ProductValueRow;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.exception.ServiceOverloadedException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CategoryAggregatesTest {
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CategoryAggregates aggregates = new CategoryAggregates(repository, meterRegistry, 2);
+
+    @BeforeEach
+    void setUp() {
+        // Products 1 and 2 in category 10, 3 without a category, over two load pages
+        LoadPages.stub(repository::findValueRowsAfter, ProductValueRow::id, List.of(
+                List.of(new ProductValueRow(1L, 10L, "Care", 5.0, 2), new ProductValueRow(2L, 10L, "Care", 15.0, 1)),
+                List.of(new ProductValueRow(3L, null, null, 8.0, 4))));
+    }
+
+    // Test that statistics are refused until the aggregates have been built
+    @Test
+    void testGetAll_beforeRebuild() {
+        assertFalse(aggregates.isReady());
+        assertThrows(ServiceOverloadedException.class, aggregates::getAll);
+    }
+
+    // Test that the loaded catalog gives count, stock value, min, max and average per category
+    @Test
+    void testGetAll_afterRebuild() {
+        // Act
+        aggregates.rebuild();
+
+        // Assert
+        assertEquals(List.of(new CategoryStats(10L, "Care", 2, 25.0, 5.0, 15.0, 10.0),
+                new CategoryStats(null, null, 1, 32.0, 8.0, 8.0, 8.0)), aggregates.getAll());
+    }
+
+    // Test that saves, quantity changes and deletes move only the product's own contribution
+    @Test
+    void testWrites_applyDeltas() {
+        // Arrange
+        aggregates.rebuild();
+        Category category = new Category(20L, "Tools", null, new ArrayList<>());
+
+        // Act
+        aggregates.onSaved(new Product(2L, "Brush", 20.0, 3, category, new HashSet<>()));
+        aggregates.onQuantityChanged(1L, 6);
+        aggregates.onDeleted(3L);
+
+        // Assert
+        assertEquals(List.of(new CategoryStats(10L, "Care", 1, 30.0, 5.0, 5.0, 5.0),
+                new CategoryStats(20L, "Tools", 1, 60.0, 20.0, 20.0, 20.0)), aggregates.getAll());
+        assertTrue(aggregates.get(99L).isEmpty());
+    }
+
+    // Test that reconciliation leaves matching aggregates alone and rebuilds on a difference
+    @Test
+    void testReconcile_rebuildsOnDrift() {
+        // Arrange
+        aggregates.rebuild();
+        when(repository.aggregateByCategory()).thenReturn(List.of(
+                new CategoryStatsRow(10L, "Care", 2L, 25.0, 5.0, 15.0, 20.0),
+                new CategoryStatsRow(null, null, 1L, 32.0, 8.0, 8.0, 8.0)));
+
+        // Act
+        aggregates.reconcile();
+        // A restock that bypassed the service
+        when(repository.aggregateByCategory()).thenReturn(List.of(
+                new CategoryStatsRow(10L, "Care", 2L, 35.0, 5.0, 15.0, 20.0),
+                new CategoryStatsRow(null, null, 1L, 32.0, 8.0, 8.0, 8.0)));
+        when(repository.findValueRowsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new ProductValueRow(1L, 10L, "Care", 5.0, 4), new ProductValueRow(2L, 10L, "Care", 15.0, 1)));
+        aggregates.reconcile();
+
+        // Assert
+        assertEquals(35.0, aggregates.get(10L).orElseThrow().totalStockValue());
+        assertEquals(1.0, meterRegistry.get("product.category-stats.drift").counter().count());
+        verify(repository, times(4)).findValueRowsAfter(anyLong(), any(Limit.class));
+    }
+
+    // Test that a rebuild keeps answering from the current aggregates and replays writes made during the load
+    @Test
+    void testRebuild_servesCurrentAggregatesWhileLoading() {
+        // Arrange
+        aggregates.rebuild();
+        List<List<CategoryStats>> readDuringLoad = new ArrayList<>();
+        when(repository.findValueRowsAfter(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            readDuringLoad.add(aggregates.getAll());
+            aggregates.onDeleted(3L);
+            return List.of(new ProductValueRow(1L, 10L, "Care", 5.0, 2),
+                    new ProductValueRow(2L, 10L, "Care", 15.0, 1));
+        });
+
+        // Act
+        aggregates.rebuild();
+
+        // Assert
+        assertEquals(List.of(List.of(new CategoryStats(10L, "Care", 2, 25.0, 5.0, 15.0, 10.0),
+                new CategoryStats(null, null, 1, 32.0, 8.0, 8.0, 8.0))), readDuringLoad);
+        assertTrue(aggregates.isReady());
+        // The product deleted during the load is gone although the second page still returns it
+        assertEquals(List.of(new CategoryStats(10L, "Care", 2, 25.0, 5.0, 15.0, 10.0)), aggregates.getAll());
+    }
+
+    // Test that a failed load leaves the current aggregates answering and taking writes
+    @Test
+    void testRebuild_keepsServingWhenLoadFails() {
+        // Arrange
+        aggregates.rebuild();
+        when(repository.findValueRowsAfter(eq(0L), any(Limit.class)))
+                .thenThrow(new IllegalStateException("database unavailable"));
+
+        // Act
+        assertThrows(IllegalStateException.class, aggregates::rebuild);
+        aggregates.onDeleted(3L);
+
+        // Assert
+        assertTrue(aggregates.isReady());
+        assertEquals(List.of(new CategoryStats(10L, "Care", 2, 25.0, 5.0, 15.0, 10.0)), aggregates.getAll());
+    }
+}
@@ -0,0 +1,28 @@
+package orgd.dinuka.productservice.index;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stubs the keyset-paged finder an index loads from, each page answering the last id of the one before.
+ */
+final class LoadPages {
+
+    private LoadPages() {
+    }
+
+    static <R> void stub(BiFunction<Long, Limit, List<R>> finder, ToLongFunction<R> id, List<List<R>> pages) {
+        long after = 0L;
+        for (List<R> page : pages) {
+            when(finder.apply(eq(after), any(Limit.class))).thenReturn(page);
+            after = id.applyAsLong(page.get(page.size() - 1));
+        }
+    }
+}
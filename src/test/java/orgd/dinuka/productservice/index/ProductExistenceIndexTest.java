@@ -0,0 +1,103 @@
+package orgd.dinuka.productservice.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import orgd.dinuka.productservice.dao.ProductChangeRepository;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.ProductChangeEvent;
+import orgd.dinuka.productservice.dto.ProductKey;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductChange;
+import orgd.dinuka.productservice.outbox.ProductChangeRelay;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductExistenceIndexTest {
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+    private final ProductChangeRepository changeRepository = mock(ProductChangeRepository.class);
+    private final ProductChangeRelay changeRelay = mock(ProductChangeRelay.class);
+    private final ProductExistenceIndex existenceIndex = new ProductExistenceIndex(repository, changeRepository,
+            changeRelay, 2, 1000, 0.01);
+
+    @BeforeEach
+    void setUp() {
+        // Three products over two load pages
+        when(repository.count()).thenReturn(3L);
+        when(repository.findKeysAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new ProductKey(1L, "wax"), new ProductKey(2L, "polish")));
+        when(repository.findKeysAfter(eq(2L), any(Limit.class))).thenReturn(List.of(new ProductKey(3L, "cloth")));
+        when(changeRelay.stream(anyLong())).thenReturn(Flux.never());
+    }
+
+    // Test that nothing is reported missing before the filters are built
+    @Test
+    void testIsDefinitelyMissing_beforeRebuild() {
+        assertFalse(existenceIndex.isReady());
+        assertFalse(existenceIndex.isDefinitelyMissing(42L));
+        assertFalse(existenceIndex.isDefinitelyMissingName("anything"));
+    }
+
+    // Test that loaded and saved products are never reported missing, and names are matched case-insensitively
+    @Test
+    void testIsDefinitelyMissing_afterRebuildAndSave() {
+        // Act
+        existenceIndex.rebuild();
+        existenceIndex.onSaved(new Product(4L, "Brush", 3.0, 1, null, new HashSet<>()));
+
+        // Assert
+        assertTrue(existenceIndex.isReady());
+        LongStream.rangeClosed(1, 4).forEach(id -> assertFalse(existenceIndex.isDefinitelyMissing(id)));
+        assertFalse(existenceIndex.isDefinitelyMissingName(" WAX "));
+        assertFalse(existenceIndex.isDefinitelyMissingName("brush"));
+        assertTrue(existenceIndex.isDefinitelyMissingName("hammer"));
+    }
+
+    // Test that a product saved on another instance, known only from the change feed, is not reported missing
+    @Test
+    void testIsDefinitelyMissing_productFromChangeFeed() {
+        // Arrange
+        when(changeRepository.findMaxSequence()).thenReturn(10L);
+        ProductChangeEvent created = new ProductChangeEvent(11L, ProductChange.Type.CREATED, 5L, 0L, Instant.now(),
+                new ProductChangeEvent.ProductState("Sponge", 2.0, 4, null, List.of()));
+        Sinks.Many<ProductChangeEvent> feed = Sinks.many().multicast().directBestEffort();
+        when(changeRelay.stream(10L)).thenReturn(feed.asFlux());
+
+        // Act
+        existenceIndex.rebuild();
+        feed.tryEmitNext(created);
+
+        // Assert
+        assertFalse(existenceIndex.isDefinitelyMissing(5L));
+        assertFalse(existenceIndex.isDefinitelyMissingName("sponge"));
+        existenceIndex.shutdown();
+    }
+
+    // Test that the false positive rate stays near the configured one at the expected size
+    @Test
+    void testBloomFilter_falsePositiveRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        LongStream.range(0, 100_000).forEach(filter::add);
+
+        // Act
+        long falsePositives = LongStream.range(100_000, 200_000).filter(filter::mightContain).count();
+
+        // Assert
+        LongStream.range(0, 100_000).forEach(id -> assertTrue(filter.mightContain(id)));
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,87 @@
+package orgd.dinuka.productservice.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.ProductFacetRow;
+import orgd.dinuka.productservice.dto.ProductFilter;
+import orgd.dinuka.productservice.dto.ProductFilterResult;
+import orgd.dinuka.productservice.dto.ProductTagRef;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.Tag;
+import orgd.dinuka.productservice.exception.ServiceOverloadedException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductFilterIndexTest {
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+    private final ProductFilterIndex filterIndex = new ProductFilterIndex(repository, 2);
+
+    @BeforeEach
+    void setUp() {
+        // Three products over two load pages: 1 and 2 in category 10, 3 in category 20
+        LoadPages.stub(repository::findFacetRowsAfter, ProductFacetRow::id, List.of(
+                List.of(new ProductFacetRow(1L, 10L, 5.0), new ProductFacetRow(2L, 10L, 15.0)),
+                List.of(new ProductFacetRow(3L, 20L, 25.0))));
+        when(repository.findTagRefs(anyCollection())).thenReturn(List.of(
+                new ProductTagRef(1L, 100L), new ProductTagRef(1L, 200L),
+                new ProductTagRef(2L, 100L), new ProductTagRef(3L, 100L), new ProductTagRef(3L, 200L)));
+    }
+
+    // Test that filters are rejected until the index has been built
+    @Test
+    void testFilter_beforeRebuild() {
+        assertFalse(filterIndex.isReady());
+        assertThrows(ServiceOverloadedException.class,
+                () -> filterIndex.filter(new ProductFilter(null, null, null, null, 10)));
+    }
+
+    // Test that tags are intersected with the category and price range, with facet counts over the matches
+    @Test
+    void testFilter_tagsCategoryAndPrice() {
+        // Act
+        filterIndex.rebuild();
+        ProductFilterResult byTags = filterIndex.filter(new ProductFilter(Set.of(100L, 200L), null, null, null, 10));
+        ProductFilterResult byCategory = filterIndex.filter(new ProductFilter(Set.of(100L), 10L, null, null, 10));
+        ProductFilterResult byPrice = filterIndex.filter(new ProductFilter(null, null, 10.0, 25.0, 1));
+
+        // Assert
+        assertEquals(List.of(1L, 3L), byTags.ids());
+        assertEquals(Map.of(10L, 1, 20L, 1), byTags.categoryCounts());
+        assertEquals(List.of(1L, 2L), byCategory.ids());
+        assertEquals(Map.of(100L, 2, 200L, 1), byCategory.tagCounts());
+        assertEquals(2, byPrice.total());
+        assertEquals(List.of(2L), byPrice.ids());
+    }
+
+    // Test that saves and deletes move a product between the bitmaps
+    @Test
+    void testOnSavedAndOnDeleted() {
+        // Arrange
+        filterIndex.rebuild();
+        Category category = new Category();
+        category.setId(20L);
+        Tag tag = new Tag();
+        tag.setId(300L);
+
+        // Act
+        filterIndex.onSaved(new Product(2L, "Wax", 30.0, 1, category, new HashSet<>(Set.of(tag))));
+        filterIndex.onDeleted(3L);
+
+        // Assert
+        ProductFilterResult inCategory = filterIndex.filter(new ProductFilter(null, 20L, null, null, 10));
+        assertEquals(List.of(2L), inCategory.ids());
+        assertEquals(Map.of(300L, 1), inCategory.tagCounts());
+        assertEquals(0, filterIndex.filter(new ProductFilter(Set.of(100L), 10L, 20.0, null, 10)).total());
+    }
+}
@@ -0,0 +1,102 @@
+package orgd.dinuka.productservice.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import orgd.dinuka.productservice.dao.SupplierRepository;
+import orgd.dinuka.productservice.dto.SupplierPostalCode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SupplierPostalCodeIndexTest {
+
+    private final SupplierRepository repository = mock(SupplierRepository.class);
+    private final SupplierPostalCodeIndex postalCodeIndex = new SupplierPostalCodeIndex(repository, 2);
+
+    @BeforeEach
+    void setUp() {
+        // Four suppliers over two load pages
+        LoadPages.stub(repository::findPostalCodesAfter, SupplierPostalCode::supplierId, List.of(
+                List.of(new SupplierPostalCode(1L, "10115"), new SupplierPostalCode(2L, "10245")),
+                List.of(new SupplierPostalCode(3L, "10115"), new SupplierPostalCode(4L, "20095"))));
+    }
+
+    // Test that lookups defer to the database until the index has been built
+    @Test
+    void testFindByPrefix_beforeRebuild() {
+        assertFalse(postalCodeIndex.isReady());
+        assertEquals(Optional.empty(), postalCodeIndex.findByPrefix("10", 10));
+    }
+
+    // Test that a prefix returns its suppliers by postal code then id, up to the limit
+    @Test
+    void testFindByPrefix_ordersByPostalCodeAndLimits() {
+        // Act
+        postalCodeIndex.rebuild();
+
+        // Assert
+        assertEquals(List.of(1L, 3L, 2L), postalCodeIndex.findByPrefix("10", 10).orElseThrow());
+        assertEquals(List.of(1L, 3L), postalCodeIndex.findByPrefix("10", 2).orElseThrow());
+        assertEquals(List.of(1L, 3L), postalCodeIndex.findByPrefix("10115", 10).orElseThrow());
+        assertEquals(List.of(), postalCodeIndex.findByPrefix("3", 10).orElseThrow());
+    }
+
+    // Test that saves move a supplier to its new postal code and deletes remove it
+    @Test
+    void testOnSavedAndOnDeleted() {
+        // Arrange
+        postalCodeIndex.rebuild();
+
+        // Act
+        postalCodeIndex.onSaved(1L, "20099");
+        postalCodeIndex.onSaved(5L, "10000");
+        postalCodeIndex.onDeleted(3L);
+
+        // Assert
+        assertEquals(List.of(5L, 2L), postalCodeIndex.findByPrefix("10", 10).orElseThrow());
+        assertEquals(List.of(4L, 1L), postalCodeIndex.findByPrefix("200", 10).orElseThrow());
+    }
+
+    // Test that the scheduled refresh waits for the first build
+    @Test
+    void testRefresh_beforeRebuild() {
+        // Act
+        postalCodeIndex.refresh();
+
+        // Assert
+        assertFalse(postalCodeIndex.isReady());
+
+        // Verify
+        verify(repository, never()).findPostalCodesAfter(anyLong(), any(Limit.class));
+    }
+
+    // Test that a refresh picks up suppliers written elsewhere while the current entries keep answering
+    @Test
+    void testRefresh_swapsWithoutGoingUnready() {
+        // Arrange
+        postalCodeIndex.rebuild();
+        List<Optional<List<Long>>> readDuringLoad = new ArrayList<>();
+        when(repository.findPostalCodesAfter(eq(4L), any(Limit.class))).thenAnswer(invocation -> {
+            readDuringLoad.add(postalCodeIndex.findByPrefix("10", 10));
+            return List.of(new SupplierPostalCode(5L, "10000"));
+        });
+
+        // Act
+        postalCodeIndex.refresh();
+
+        // Assert
+        assertEquals(List.of(Optional.of(List.of(1L, 3L, 2L))), readDuringLoad);
+        assertEquals(List.of(5L, 1L, 3L, 2L), postalCodeIndex.findByPrefix("10", 10).orElseThrow());
+    }
+}
@@ -0,0 +1,94 @@
+package orgd.dinuka.productservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import orgd.dinuka.productservice.dao.CategoryRepository;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductMetricsAspectTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductMetricsAspect aspect = new ProductMetricsAspect(meterRegistry, 0, Duration.ofSeconds(1));
+    private final ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+
+    @BeforeEach
+    void setUp() {
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn("findById");
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getThis()).thenReturn(mock(ProductRepository.class));
+    }
+
+    // Test that successful and failing calls are timed under their own outcome
+    @Test
+    void testTimeRepository_recordsOutcome() throws Throwable {
+        // Arrange
+        when(joinPoint.proceed()).thenReturn("result").thenThrow(new IllegalStateException("boom"));
+
+        // Act
+        Object result = aspect.timeRepository(joinPoint);
+        assertThrows(IllegalStateException.class, () -> aspect.timeRepository(joinPoint));
+
+        // Assert
+        assertEquals("result", result);
+        assertEquals(1, repositoryTimer("ProductRepository", "success").count());
+        assertEquals(1, repositoryTimer("ProductRepository", "error").count());
+    }
+
+    // Test that the same method on two repositories is timed separately, tagged with each repository
+    @Test
+    void testTimeRepository_tagsRepository() throws Throwable {
+        // Arrange
+        when(joinPoint.proceed()).thenReturn("result");
+
+        // Act
+        aspect.timeRepository(joinPoint);
+        when(joinPoint.getThis()).thenReturn(mock(CategoryRepository.class));
+        aspect.timeRepository(joinPoint);
+        aspect.timeRepository(joinPoint);
+
+        // Assert
+        assertEquals(1, repositoryTimer("ProductRepository", "success").count());
+        assertEquals(2, repositoryTimer("CategoryRepository", "success").count());
+    }
+
+    // Test that a Mono result is timed when it completes, not when it is returned
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTimeService_timesMonoOnCompletion() throws Throwable {
+        // Arrange
+        when(joinPoint.proceed()).thenReturn(Mono.just("result").delayElement(Duration.ofMillis(50)));
+
+        // Act
+        Mono<Object> result = (Mono<Object>) aspect.timeService(joinPoint);
+
+        // Assert
+        assertTrue(meterRegistry.find(ProductMetricsAspect.SERVICE_TIMER).timers().isEmpty());
+        StepVerifier.create(result).expectNext("result").verifyComplete();
+        Timer timer = timer(ProductMetricsAspect.SERVICE_TIMER, "success");
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    private Timer timer(String name, String outcome) {
+        return meterRegistry.get(name).tag("method", "findById").tag("outcome", outcome).timer();
+    }
+
+    private Timer repositoryTimer(String repository, String outcome) {
+        return meterRegistry.get(ProductMetricsAspect.REPOSITORY_TIMER).tag("repository", repository)
+                .tag("method", "findById").tag("outcome", outcome).timer();
+    }
+}
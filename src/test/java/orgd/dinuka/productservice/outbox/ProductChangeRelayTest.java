@@ -0,0 +1,119 @@
+package orgd.dinuka.productservice.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import orgd.dinuka.productservice.dao.ProductChangeRepository;
+import orgd.dinuka.productservice.entity.ProductChange;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProductChangeRelayTest {
+
+    private final ProductChangeRepository repository = mock(ProductChangeRepository.class);
+    private final ProductChangeRelay relay = new ProductChangeRelay(repository, mock(PlatformTransactionManager.class),
+            new ObjectMapper().findAndRegisterModules(), true, 10, 100, Duration.ofDays(7));
+
+    // Test that pending rows are numbered after the highest published sequence
+    @Test
+    void testRelay_assignsSequencesInOrder() {
+        // Arrange
+        ProductChange first = change(1L, ProductChange.Type.CREATED, "{\"name\":\"Wax\",\"price\":44.0}");
+        ProductChange second = change(2L, ProductChange.Type.DELETED, null);
+        when(repository.findBySequenceIsNullOrderByIdAsc(any(Limit.class))).thenReturn(List.of(first, second));
+        when(repository.findMaxSequence()).thenReturn(41L);
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertEquals(42L, first.getSequence());
+        assertEquals(43L, second.getSequence());
+    }
+
+    // Test that a stream replays published changes and then continues with live ones, without duplicates
+    @Test
+    void testStream_catchesUpThenGoesLive() {
+        // Arrange
+        ProductChange published = change(1L, ProductChange.Type.CREATED, "{\"name\":\"Wax\"}");
+        published.setSequence(5L);
+        when(repository.findBySequenceGreaterThanOrderBySequenceAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(published));
+        ProductChange pending = change(2L, ProductChange.Type.QUANTITY_CHANGED, "{\"quantity\":3}");
+        when(repository.findBySequenceIsNullOrderByIdAsc(any(Limit.class)))
+                .thenReturn(List.of(pending))
+                .thenReturn(List.of());
+        when(repository.findMaxSequence()).thenReturn(5L);
+
+        // Act & Assert
+        StepVerifier.create(relay.stream(4L))
+                .assertNext(event -> assertEquals("Wax", event.product().name()))
+                .then(relay::relay)
+                .assertNext(event -> {
+                    assertEquals(6L, event.sequence());
+                    assertEquals(3, event.product().quantity());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    // Test that changes another instance's relay published reach live subscribers and advance the catalog version
+    @Test
+    void testRelay_followsChangesPublishedElsewhere() {
+        // Arrange
+        ProductChange remote = change(3L, ProductChange.Type.CREATED, "{\"name\":\"Soap\"}");
+        remote.setSequence(8L);
+        when(repository.findMaxSequence()).thenReturn(7L);
+        when(repository.findBySequenceIsNullOrderByIdAsc(any(Limit.class))).thenReturn(List.of());
+        when(repository.findBySequenceGreaterThanOrderBySequenceAsc(anyLong(), any(Limit.class))).thenReturn(List.of());
+        relay.relay();
+        when(repository.findBySequenceGreaterThanOrderBySequenceAsc(eq(7L), any(Limit.class)))
+                .thenReturn(List.of(remote));
+
+        // Act & Assert
+        StepVerifier.create(relay.stream(7L))
+                .then(relay::relay)
+                .assertNext(event -> assertEquals(8L, event.sequence()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(8L, relay.getLastPublishedSequence());
+    }
+
+    // Test that a relay that does not publish leaves pending rows alone and still follows what another one published
+    @Test
+    void testRelay_followsOnlyWhenNotPublishing() {
+        // Arrange
+        ProductChangeRelay follower = new ProductChangeRelay(repository, mock(PlatformTransactionManager.class),
+                new ObjectMapper().findAndRegisterModules(), false, 10, 100, Duration.ofDays(7));
+        ProductChange remote = change(3L, ProductChange.Type.CREATED, "{\"name\":\"Soap\"}");
+        remote.setSequence(8L);
+        when(repository.findMaxSequence()).thenReturn(7L);
+        when(repository.findBySequenceGreaterThanOrderBySequenceAsc(eq(7L), any(Limit.class)))
+                .thenReturn(List.of(remote));
+
+        // Act
+        follower.relay();
+
+        // Assert
+        assertEquals(8L, follower.getLastPublishedSequence());
+
+        // Verify
+        verify(repository, never()).findBySequenceIsNullOrderByIdAsc(any(Limit.class));
+    }
+
+    private static ProductChange change(Long id, ProductChange.Type type, String payload) {
+        ProductChange change = new ProductChange(type, 7L, 1L, payload, Instant.now());
+        change.setId(id);
+        return change;
+    }
+}
@@ -0,0 +1,94 @@
+package orgd.dinuka.productservice.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import orgd.dinuka.productservice.dao.RepositoryConcurrencyLimiter;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class LoadSheddingFilterTest {
+
+    private RepositoryConcurrencyLimiter concurrencyLimiter;
+    private LoadSheddingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        concurrencyLimiter = mock(RepositoryConcurrencyLimiter.class);
+        filter = new LoadSheddingFilter(concurrencyLimiter, 1, Duration.ofMillis(100), new ObjectMapper(),
+                new SimpleMeterRegistry());
+    }
+
+    // Test that a request beyond the in-flight limit is shed with 503 and the counter is released
+    @Test
+    void testDoFilter_shedsBeyondInFlight() throws Exception {
+        // Arrange
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        FilterChain inner = mock(FilterChain.class);
+        FilterChain outer = (request, response) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/product/all"), nested, inner);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/product/all"), response, outer);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals(503, nested.getStatus());
+        assertEquals("1", nested.getHeader("Retry-After"));
+        verify(inner, never()).doFilter(any(), any());
+        assertEquals(0, filter.getInFlight());
+    }
+
+    // Test that an asynchronous request stays in flight, shedding others, until its async processing completes
+    @Test
+    void testDoFilter_countsAsyncRequestUntilComplete() throws Exception {
+        // Arrange
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/product/stream");
+        streaming.setAsyncSupported(true);
+        FilterChain startsAsync = (request, response) -> request.startAsync();
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(streaming, new MockHttpServletResponse(), startsAsync);
+        int whileStreaming = filter.getInFlight();
+        filter.doFilter(new MockHttpServletRequest("GET", "/product/all"), shed, chain);
+        streaming.getAsyncContext().complete();
+
+        // Assert
+        assertEquals(1, whileStreaming);
+        assertEquals(503, shed.getStatus());
+        assertEquals(0, filter.getInFlight());
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    // Test that requests are shed once recent pool wait is twice the threshold, and pass below it
+    @Test
+    void testDoFilter_shedsOnPoolWait() throws Exception {
+        // Arrange
+        FilterChain chain = mock(FilterChain.class);
+        when(concurrencyLimiter.getRecentWaitNanos()).thenReturn(Duration.ofMillis(250).toNanos(),
+                Duration.ofMillis(50).toNanos());
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/product/get/1"), shed, chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/product/get/1"), admitted, chain);
+
+        // Assert
+        assertEquals(503, shed.getStatus());
+        assertEquals(200, admitted.getStatus());
+        verify(chain, times(1)).doFilter(any(), any());
+        assertFalse(filter.shouldShedForPoolWait(Duration.ofMillis(100).toNanos()));
+    }
+}
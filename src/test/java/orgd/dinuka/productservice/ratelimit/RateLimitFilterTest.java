@@ -0,0 +1,132 @@
+package orgd.dinuka.productservice.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RateLimitFilterTest {
+
+    private ApplicationAvailability availability;
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        availability = mock(ApplicationAvailability.class);
+        when(availability.getReadinessState()).thenReturn(ReadinessState.ACCEPTING_TRAFFIC);
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimitProperties properties = new RateLimitProperties("X-API-Key", Set.of("partner"),
+                Map.of("default", new RateLimitProperties.Quota(List.of("/product/**"), 100, 100),
+                        "catalog-dump", new RateLimitProperties.Quota(List.of("/product/all"), 0.001, 2)),
+                Duration.ofMinutes(10), 1000);
+        filter = new RateLimitFilter(properties, availability, new ObjectMapper(), meterRegistry);
+    }
+
+    // Test that a bucket allows its burst at once and then one permit per emission interval
+    @Test
+    void testTokenBucket_allowsBurstThenRate() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = 1_000_000_000L;
+
+        // Act
+        long first = bucket.tryAcquire(now);
+        long second = bucket.tryAcquire(now);
+        long third = bucket.tryAcquire(now);
+        long fourth = bucket.tryAcquire(now);
+        long afterInterval = bucket.tryAcquire(now + 100_000_000L);
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(0, third);
+        assertEquals(100_000_000L, fourth);
+        assertEquals(0, afterInterval);
+    }
+
+    // Test that a client over a path quota gets 429 with Retry-After while other paths still pass
+    @Test
+    void testDoFilter_rejectsOverQuota() throws Exception {
+        // Arrange
+        FilterChain chain = mock(FilterChain.class);
+
+        // Act
+        MockHttpServletResponse first = call("/product/all", "10.0.0.1", null, chain);
+        MockHttpServletResponse second = call("/product/all", "10.0.0.1", null, chain);
+        MockHttpServletResponse third = call("/product/all", "10.0.0.1", null, chain);
+        MockHttpServletResponse other = call("/product/get/1", "10.0.0.1", null, chain);
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertNotNull(third.getHeader("Retry-After"));
+        assertTrue(third.getContentAsString().contains("catalog-dump"));
+        assertEquals(200, other.getStatus());
+        verify(chain, times(3)).doFilter(any(), any());
+        assertEquals(1, meterRegistry.counter(RateLimitFilter.REJECTED_METRIC,
+                "reason", "rate-limit", "quota", "catalog-dump").count());
+    }
+
+    // Test that clients have separate buckets and unknown API keys fall back to the address
+    @Test
+    void testDoFilter_keysClientsByApiKeyOrAddress() throws Exception {
+        // Arrange
+        FilterChain chain = mock(FilterChain.class);
+        call("/product/all", "10.0.0.1", null, chain);
+        call("/product/all", "10.0.0.1", null, chain);
+
+        // Act
+        MockHttpServletResponse invented = call("/product/all", "10.0.0.1", "invented", chain);
+        MockHttpServletResponse partner = call("/product/all", "10.0.0.1", "partner", chain);
+        MockHttpServletResponse otherAddress = call("/product/all", "10.0.0.2", null, chain);
+
+        // Assert
+        assertEquals(429, invented.getStatus());
+        assertEquals(200, partner.getStatus());
+        assertEquals(200, otherAddress.getStatus());
+    }
+
+    // Test that nothing is limited before the application accepts traffic
+    @Test
+    void testDoFilter_skipsBeforeReady() throws Exception {
+        // Arrange
+        when(availability.getReadinessState()).thenReturn(ReadinessState.REFUSING_TRAFFIC);
+        FilterChain chain = mock(FilterChain.class);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            call("/product/all", "10.0.0.1", null, chain);
+        }
+
+        // Assert
+        verify(chain, times(5)).doFilter(any(), any());
+    }
+
+    private MockHttpServletResponse call(String path, String address, String apiKey, FilterChain chain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(address);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
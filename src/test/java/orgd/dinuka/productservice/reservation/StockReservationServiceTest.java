@@ -0,0 +1,250 @@
+package orgd.dinuka.productservice.reservation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.unit.DataSize;
+import orgd.dinuka.productservice.cache.ProductCache;
+import orgd.dinuka.productservice.dao.ProductChangeRepository;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dao.StockReservationCheckpointRepository;
+import orgd.dinuka.productservice.dto.ProductChangeEvent;
+import orgd.dinuka.productservice.dto.ProductStock;
+import orgd.dinuka.productservice.dto.StockReservation;
+import orgd.dinuka.productservice.entity.ProductChange;
+import orgd.dinuka.productservice.entity.StockReservationCheckpoint;
+import orgd.dinuka.productservice.exception.ProductConflictException;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+import orgd.dinuka.productservice.index.CategoryAggregates;
+import orgd.dinuka.productservice.outbox.ProductChangeRelay;
+import orgd.dinuka.productservice.outbox.ProductOutbox;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class StockReservationServiceTest {
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+    private final StockReservationCheckpointRepository checkpointRepository = mock(StockReservationCheckpointRepository.class);
+    private final ProductChangeRepository changeRepository = mock(ProductChangeRepository.class);
+    private final ProductChangeRelay changeRelay = mock(ProductChangeRelay.class);
+    private final ProductOutbox outbox = mock(ProductOutbox.class);
+    private final ProductCache productCache = mock(ProductCache.class);
+    private final CategoryAggregates categoryAggregates = mock(CategoryAggregates.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final Sinks.Many<ProductChangeEvent> changes = Sinks.many().multicast().directBestEffort();
+
+    @TempDir
+    Path directory;
+
+    private StockReservationService reservationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(changeRelay.stream(anyLong())).thenReturn(changes.asFlux());
+        when(checkpointRepository.findById("default")).thenReturn(Optional.empty());
+        when(repository.findQuantityById(1L)).thenReturn(Optional.of(500));
+        reservationService = newService();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        reservationService.shutdown();
+    }
+
+    // Test that concurrent reservations on one product never take more than its stock
+    @Test
+    void testReserve_noOversellUnderContention() throws InterruptedException {
+        // Arrange
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 2000; i++) {
+            executor.execute(() -> {
+                try {
+                    reservationService.reserve(1L, 1, null);
+                    reserved.incrementAndGet();
+                } catch (ProductConflictException ex) {
+                    refused.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(500, reserved.get());
+        assertEquals(1500, refused.get());
+        assertEquals(0, reservationService.getAvailable(1L));
+    }
+
+    // Test that confirmed stock is written back in one update per product and the checkpoint advances
+    @Test
+    void testWriteBack_subtractsConfirmedQuantities() {
+        // Arrange
+        StockReservation first = reservationService.reserve(1L, 3, null);
+        StockReservation second = reservationService.reserve(1L, 2, null);
+        reservationService.reserve(1L, 4, null);
+        reservationService.confirm(first.id());
+        reservationService.confirm(second.id());
+        when(repository.writeBackQuantity(1L, -5)).thenReturn(1);
+        when(repository.findStockByIds(any())).thenReturn(List.of(new ProductStock(1L, 495)));
+
+        // Act
+        reservationService.writeBack();
+
+        // Assert
+        verify(repository).writeBackQuantity(1L, -5);
+        verify(outbox).recordQuantityChanged(1L, 495);
+        verify(checkpointRepository).save(argThat(checkpoint -> checkpoint.getLastSequence() == 5));
+        verify(productCache).evict(1L);
+        verify(categoryAggregates).onQuantityChanged(1L, 495);
+        assertEquals(491, reservationService.getAvailable(1L));
+    }
+
+    // Test that released and expired reservations give their stock back and cannot be confirmed
+    @Test
+    void testRelease_returnsStock() throws InterruptedException {
+        // Arrange
+        StockReservation released = reservationService.reserve(1L, 10, null);
+        StockReservation expiring = reservationService.reserve(1L, 20, Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        // Act
+        reservationService.release(released.id());
+        reservationService.releaseExpired();
+
+        // Assert
+        assertEquals(500, reservationService.getAvailable(1L));
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.confirm(released.id()));
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.confirm(expiring.id()));
+    }
+
+    // Test that after a crash open reservations come back and confirmations past the checkpoint are written back
+    @Test
+    void testRecover_replaysLog() throws IOException {
+        // Arrange
+        StockReservation open = reservationService.reserve(1L, 7, null);
+        StockReservation written = reservationService.reserve(1L, 1, null);
+        reservationService.confirm(written.id());
+        when(repository.writeBackQuantity(anyLong(), anyInt())).thenReturn(1);
+        when(repository.findStockByIds(any())).thenReturn(List.of(new ProductStock(1L, 499)));
+        reservationService.writeBack();
+        StockReservation pending = reservationService.reserve(1L, 2, null);
+        reservationService.confirm(pending.id());
+        when(checkpointRepository.findById("default"))
+                .thenReturn(Optional.of(new StockReservationCheckpoint("default", 3)));
+        when(repository.findQuantityById(1L)).thenReturn(Optional.of(497));
+        clearInvocations(repository);
+
+        // Act
+        StockReservationService recovered = newService();
+
+        // Assert
+        verify(repository).writeBackQuantity(1L, -2);
+        assertEquals(open, recovered.getReservation(open.id()));
+        assertEquals(490, recovered.getAvailable(1L));
+        assertThrows(ResourceNotFoundException.class, () -> recovered.confirm(pending.id()));
+        recovered.shutdown();
+    }
+
+    // Test that a decrease cannot take stock that is confirmed but not yet written back
+    @Test
+    void testTakeForAdjustment_refusesConfirmedStock() {
+        // Arrange
+        when(repository.findQuantityById(2L)).thenReturn(Optional.of(10));
+        reservationService.confirm(reservationService.reserve(2L, 10, null).id());
+
+        // Act & Assert
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> assertThrows(ProductConflictException.class,
+                () -> reservationService.takeForAdjustment(2L, 5)));
+        assertEquals(0, reservationService.getAvailable(2L));
+    }
+
+    // Test that a committed decrease is taken once, although the change feed reports it again afterwards
+    @Test
+    void testTakeForAdjustment_notAppliedTwiceOnResync() {
+        // Arrange
+        when(repository.findQuantityById(2L)).thenReturn(Optional.of(10));
+        reservationService.reserve(2L, 4, null);
+
+        // Act
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> reservationService.takeForAdjustment(2L, 6));
+        int afterRollback = (int) reservationService.getAvailable(2L);
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                () -> reservationService.takeForAdjustment(2L, 5));
+        // The decrease reaches the counter again through the change feed and the next write-back
+        changes.tryEmitNext(new ProductChangeEvent(1L, ProductChange.Type.QUANTITY_CHANGED, 2L, 1L, Instant.now(),
+                null));
+        when(repository.findStockByIds(any())).thenReturn(List.of(new ProductStock(2L, 5)));
+        reservationService.writeBack();
+
+        // Assert
+        assertEquals(6, afterRollback);
+        assertEquals(1, reservationService.getAvailable(2L));
+        assertThrows(ProductConflictException.class, () -> reservationService.reserve(2L, 2, null));
+    }
+
+    // Test that a torn last line is dropped on replay
+    @Test
+    void testReplay_dropsTornLine() throws IOException {
+        // Arrange
+        Path file = directory.resolve("torn.log");
+        Files.writeString(file, "1,R,a,1,2,99\n2,C,a,1,2,99\n3,R,b,1");
+
+        // Act
+        ReservationLog reservationLog = new ReservationLog(file, true);
+        List<ReservationLog.Entry> entries = reservationLog.replay();
+        reservationLog.close();
+
+        // Assert
+        assertEquals(2, entries.size());
+        assertEquals(2, reservationLog.getLastSequence());
+        assertEquals("1,R,a,1,2,99\n2,C,a,1,2,99\n", Files.readString(file));
+    }
+
+    // Runs the body with transaction synchronization active and completes it with the given status
+    private static void inTransaction(int status, Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            body.run();
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), status);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private StockReservationService newService() throws IOException {
+        StockReservationService service = new StockReservationService(repository, checkpointRepository,
+                changeRepository, changeRelay, outbox, productCache, categoryAggregates, transactionManager,
+                new SimpleMeterRegistry(), directory.resolve("reservations.log"), true, "default",
+                Duration.ofMinutes(5), Duration.ofHours(1), DataSize.ofMegabytes(64));
+        service.recover();
+        return service;
+    }
+}
@@ -0,0 +1,93 @@
+package orgd.dinuka.productservice.service;
+
+import org.junit.jupiter.api.Test;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.entity.Product;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+public class ProductLookupBatcherTest {
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+
+    // Test that a lookup with nothing else in flight is resolved straight away, missing ids included
+    @Test
+    void testLoad_singleLookup() {
+        // Arrange
+        ProductLookupBatcher batcher = new ProductLookupBatcher(repository, Duration.ofSeconds(10), 100);
+        when(repository.findAllById(anyIterable())).thenReturn(List.of());
+
+        // Act
+        Optional<Product> result = batcher.load(1L);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(repository, times(1)).findAllById(anyIterable());
+    }
+
+    // Test that lookups arriving while a query runs are resolved together by the next query
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoad_coalescesConcurrentLookups() throws Exception {
+        // Arrange
+        ProductLookupBatcher batcher = new ProductLookupBatcher(repository, Duration.ofSeconds(10), 5);
+        CountDownLatch firstQueryStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstQuery = new CountDownLatch(1);
+        CountDownLatch secondQueryRan = new CountDownLatch(1);
+        List<Set<Long>> queries = new ArrayList<>();
+        when(repository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Set<Long> ids = new HashSet<>();
+            ((Iterable<Long>) invocation.getArgument(0)).forEach(ids::add);
+            synchronized (queries) {
+                queries.add(ids);
+            }
+            if (ids.contains(0L)) {
+                firstQueryStarted.countDown();
+                releaseFirstQuery.await(5, TimeUnit.SECONDS);
+            } else {
+                secondQueryRan.countDown();
+            }
+            return ids.stream().map(id -> new Product(id, "P" + id, 1.0, 1, null, new HashSet<>())).toList();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+
+        try {
+            // Act
+            Future<Optional<Product>> first = executor.submit(() -> batcher.load(0L));
+            assertTrue(firstQueryStarted.await(5, TimeUnit.SECONDS));
+            List<Future<Optional<Product>>> others = new ArrayList<>();
+            for (long id = 1; id <= 5; id++) {
+                long lookupId = id;
+                others.add(executor.submit(() -> batcher.load(lookupId)));
+            }
+            // The first query stays open until the others ran theirs, so they all arrive while it runs and their
+            // batch only goes once it holds all five
+            assertTrue(secondQueryRan.await(5, TimeUnit.SECONDS));
+            releaseFirstQuery.countDown();
+
+            // Assert
+            assertEquals(0L, first.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+            for (int i = 0; i < others.size(); i++) {
+                assertEquals(i + 1L, others.get(i).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+            }
+            assertEquals(2, queries.size());
+            assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), queries.get(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,16 +1,43 @@
 package orgd.dinuka.productservice.service;
 
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import orgd.dinuka.productservice.cache.ProductCache;
+import orgd.dinuka.productservice.cache.SecondLevelCacheStats;
+import orgd.dinuka.productservice.client.CallNotPermittedException;
+import orgd.dinuka.productservice.client.ExternalCatalogClient;
 import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dto.BulkItemResult;
+import orgd.dinuka.productservice.dto.BulkResult;
+import orgd.dinuka.productservice.dto.ProductBatch;
+import orgd.dinuka.productservice.dto.ProductFilter;
+import orgd.dinuka.productservice.dto.ProductFilterResult;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.dto.ProductPatch;
+import orgd.dinuka.productservice.dto.ProductSummary;
 import orgd.dinuka.productservice.entity.Category;
 import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductChange;
 import orgd.dinuka.productservice.entity.Tag;
+import orgd.dinuka.productservice.exception.ProductConflictException;
 import orgd.dinuka.productservice.exception.ProductNotFoundException;
-
+import orgd.dinuka.productservice.index.CategoryAggregates;
+import orgd.dinuka.productservice.index.ProductExistenceIndex;
+import orgd.dinuka.productservice.index.ProductFilterIndex;
+import orgd.dinuka.productservice.outbox.ProductChangeRelay;
+import orgd.dinuka.productservice.outbox.ProductOutbox;
+import orgd.dinuka.productservice.reservation.StockReservationService;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +51,42 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5));
+
+    @Mock
+    private ExternalCatalogClient externalCatalogClient;
+
+    @Mock
+    private ProductBulkWriter bulkWriter;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private ProductFilterIndex filterIndex;
+
+    @Mock
+    private ProductLookupBatcher lookupBatcher;
+
+    @Mock
+    private ProductOutbox outbox;
+
+    @Mock
+    private ProductChangeRelay changeRelay;
+
+    @Mock
+    private ProductExistenceIndex existenceIndex;
+
+    @Mock
+    private CategoryAggregates categoryAggregates;
+
+    @Mock
+    private StockReservationService reservationService;
+
+    @Mock
+    private SecondLevelCacheStats secondLevelCacheStats;
+
     @Mock
     private Category category;
 
@@ -71,6 +134,88 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findById(999L);
     }
 
+    // Test that an id the existence index rules out is answered without a query
+    @Test
+    void testGetProductById_definiteMissSkipsRepository() {
+        // Arrange
+        when(existenceIndex.isDefinitelyMissing(999L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(999L));
+        assertThrows(ProductNotFoundException.class, () -> productService.deleteProductById(999L));
+
+        // Verify
+        verifyNoInteractions(productRepository);
+    }
+
+    // Test that repeated reads by ID are served from the cache
+    @Test
+    void testGetProductById_isCachedAfterFirstRead() {
+        // Arrange
+        Product product = new Product(1L, "Wax", 44.00, 3, null, new HashSet<>());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        // Act
+        Product first = productService.getProductById(1L);
+        first.setPrice(1.00);
+        Product second = productService.getProductById(1L);
+
+        // Assert
+        assertEquals(44.00, second.getPrice());
+        assertNotSame(first, second);
+
+        // Verify
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    // Test that a write replaces the cached copy so the next read sees it
+    @Test
+    void testAddProduct_refreshesCache() {
+        // Arrange
+        Product product = new Product(1L, "Wax", 44.00, 3, null, new HashSet<>());
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+
+        // Act
+        productService.addProduct(product);
+        Product byName = productService.getProductByName("Wax");
+
+        // Assert
+        assertEquals(1L, byName.getId());
+
+        // Verify
+        verify(productRepository, never()).findFirstByNormalizedNameOrderByIdAsc(anyString());
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    // Test that name lookups ignore case and surrounding whitespace
+    @Test
+    void testGetProductByName_isCaseInsensitive() {
+        // Arrange
+        Product product = new Product(1L, "Wax", 44.00, 3, null, new HashSet<>());
+        when(productRepository.findFirstByNormalizedNameOrderByIdAsc("wax")).thenReturn(Optional.of(product));
+
+        // Act
+        Product resultProduct = productService.getProductByName("  WAX ");
+
+        // Assert
+        assertEquals(1L, resultProduct.getId());
+    }
+
+    // Test that prefix search normalizes, escapes wildcards and caps the limit
+    @Test
+    void testSearchByNamePrefix() {
+        // Arrange
+        List<ProductSummary> summaries = List.of(new ProductSummary(1L, "50% Wax", 44.00, 3, null, null));
+        when(productRepository.searchByNormalizedNamePrefix("50!%%", Limit.of(50))).thenReturn(summaries);
+
+        // Act
+        List<ProductSummary> result = productService.searchByNamePrefix("50%", 1000);
+
+        // Assert
+        assertEquals(summaries, result);
+        assertThrows(IllegalArgumentException.class, () -> productService.searchByNamePrefix("  ", 10));
+    }
+
     // Test to get all products
     @Test
     void testGetAllProducts() {
@@ -121,6 +266,7 @@ public class ProductServiceTest {
     @Test
     void testDeleteProductById_success() {
         // Arrange
+        when(productRepository.existsById(1L)).thenReturn(true);
         doNothing().when(productRepository).deleteById(1L);
 
         // Act
@@ -152,4 +298,258 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).save(existingProduct);
     }
+
+    // Test that an update lowering the quantity takes the difference from the reservation counter first
+    @Test
+    void testUpdateProduct_takesDecreaseFromReservations() {
+        // Arrange
+        Product existingProduct = new Product(1L, "Wax", 44.00, 5, category, new HashSet<>());
+        Product lowered = new Product(1L, "Wax", 44.00, 2, category, new HashSet<>());
+        Product raised = new Product(1L, "Wax", 44.00, 9, category, new HashSet<>());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        productService.updateProduct(1L, lowered);
+        productService.updateProduct(1L, raised);
+
+        // Verify
+        verify(reservationService, times(1)).takeForAdjustment(1L, 3);
+        verifyNoMoreInteractions(reservationService);
+    }
+
+    // Test keyset pagination returns a cursor that seeks past the last id
+    @Test
+    void testGetPage_returnsNextCursorWhenPageIsFull() {
+        // Arrange
+        Product product1 = new Product(1L, "Wax", 44.00, 3, category, new HashSet<>());
+        Product product2 = new Product(2L, "Fax", 64.00, 2, category, new HashSet<>());
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(product1, product2));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2)))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        ProductPage firstPage = productService.getPage(null, 2);
+        ProductPage secondPage = productService.getPage(firstPage.nextCursor(), 2);
+
+        // Assert
+        assertEquals(2, firstPage.items().size());
+        assertNotNull(firstPage.nextCursor());
+        assertTrue(secondPage.items().isEmpty());
+        assertNull(secondPage.nextCursor());
+    }
+
+    // Test that a tampered cursor is rejected
+    @Test
+    void testGetPage_whenCursorIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getPage("not-a-cursor", 10));
+        verifyNoInteractions(productRepository);
+    }
+
+    // Test that bulk rows are validated and written in chunks of the configured batch size
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBulkUpsert_writesValidRowsInChunks() {
+        // Arrange
+        when(bulkWriter.getBatchSize()).thenReturn(2);
+        when(bulkWriter.writeChunk(anyList())).thenAnswer(invocation -> {
+            List<ProductBulkWriter.Row> rows = invocation.getArgument(0);
+            return rows.stream().map(row -> BulkItemResult.created(row.index(), 100L + row.index())).toList();
+        });
+        List<Product> rows = Arrays.asList(
+                new Product(null, "Wax", 44.00, 3, null, new HashSet<>()),
+                new Product(null, "X", 64.00, 2, null, new HashSet<>()),
+                new Product(null, "Fax", 64.00, 2, null, new HashSet<>()),
+                new Product(null, "Tax", 14.00, 1, null, new HashSet<>()));
+
+        // Act
+        BulkResult result = productService.bulkUpsert(rows.iterator());
+
+        // Assert
+        assertEquals(4, result.total());
+        assertEquals(3, result.created());
+        assertEquals(1, result.rejected());
+        assertEquals(BulkItemResult.Status.INVALID, result.items().get(1).status());
+        assertEquals(102L, result.items().get(2).id());
+
+        // Verify
+        verify(bulkWriter, times(2)).writeChunk(anyList());
+    }
+
+    // Test that a failing chunk is retried row by row so only the bad row is rejected
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBulkUpsert_isolatesFailingRow() {
+        // Arrange
+        when(bulkWriter.getBatchSize()).thenReturn(10);
+        when(bulkWriter.writeChunk(anyList())).thenAnswer(invocation -> {
+            List<ProductBulkWriter.Row> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.product().getName().equals("Bad"))) {
+                throw new IllegalStateException("constraint violated");
+            }
+            return rows.stream().map(row -> BulkItemResult.created(row.index(), 100L + row.index())).toList();
+        });
+        List<Product> rows = Arrays.asList(
+                new Product(null, "Wax", 44.00, 3, null, new HashSet<>()),
+                new Product(null, "Bad", 64.00, 2, null, new HashSet<>()));
+
+        // Act
+        BulkResult result = productService.bulkUpsert(rows.iterator());
+
+        // Assert
+        assertEquals(1, result.created());
+        assertEquals(BulkItemResult.Status.FAILED, result.items().get(1).status());
+        assertEquals(List.of("constraint violated"), result.items().get(1).errors());
+    }
+
+    // Test that filters are answered by the index with the limit clamped, and writes keep it current
+    @Test
+    void testFilter_usesIndexAndClampsLimit() {
+        // Arrange
+        ProductFilterResult expected = new ProductFilterResult(1, List.of(1L), Map.of(), Map.of());
+        when(filterIndex.filter(any(ProductFilter.class))).thenReturn(expected);
+        Product product = new Product(1L, "Wax", 44.00, 3, null, new HashSet<>());
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+
+        // Act
+        ProductFilterResult result = productService.filter(new ProductFilter(Set.of(2L), 3L, 10.0, 50.0, 100_000));
+        productService.addProduct(product);
+
+        // Assert
+        assertSame(expected, result);
+
+        // Verify
+        verify(filterIndex).filter(new ProductFilter(Set.of(2L), 3L, 10.0, 50.0, ProductServiceImpl.MAX_FILTER_LIMIT));
+        verify(filterIndex).onSaved(product);
+        verify(productRepository, never()).findAll();
+    }
+
+    // Test that a patch is a single conditional update and a stale version is reported as a conflict
+    @Test
+    void testPatchProduct_conflictOnStaleVersion() {
+        // Arrange
+        Product patched = new Product(1L, "Wax", 50.00, 3, null, new HashSet<>());
+        when(productRepository.patch(1L, 4L, null, null, 50.00, null)).thenReturn(1);
+        when(productRepository.patch(1L, 3L, null, null, 50.00, null)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(patched));
+
+        // Act
+        Product result = productService.patchProduct(1L, new ProductPatch(4L, null, 50.00, null));
+
+        // Assert
+        assertEquals(50.00, result.getPrice());
+        assertThrows(ProductConflictException.class,
+                () -> productService.patchProduct(1L, new ProductPatch(3L, null, 50.00, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.patchProduct(1L, new ProductPatch(null, null, 50.00, null)));
+
+        // Verify
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    // Test that a patch lowering the quantity takes the difference measured at the patched version, and that a
+    // stale version is refused before taking anything
+    @Test
+    void testPatchProduct_takesDecreaseFromReservations() {
+        // Arrange
+        when(productRepository.findQuantityByIdAndVersion(1L, 4L)).thenReturn(Optional.of(5));
+        when(productRepository.findQuantityByIdAndVersion(1L, 3L)).thenReturn(Optional.empty());
+        when(productRepository.patch(1L, 4L, null, null, null, 1)).thenReturn(1);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(new Product(1L, "Wax", 44.00, 1, null,
+                new HashSet<>())));
+
+        // Act
+        Product result = productService.patchProduct(1L, new ProductPatch(4L, null, null, 1));
+
+        // Assert
+        assertEquals(1, result.getQuantity());
+        assertThrows(ProductConflictException.class,
+                () -> productService.patchProduct(1L, new ProductPatch(3L, null, null, 1)));
+
+        // Verify
+        verify(reservationService, times(1)).takeForAdjustment(1L, 4);
+        verify(productRepository, never()).patch(eq(1L), eq(3L), any(), any(), any(), any());
+    }
+
+    // Test that stock changes are applied by the database and refused below zero or into reserved stock
+    @Test
+    void testAdjustQuantity() {
+        // Arrange
+        when(productRepository.adjustQuantity(1L, -2)).thenReturn(1);
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(1));
+        when(productRepository.adjustQuantity(1L, -5)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        doThrow(new ProductConflictException("Insufficient unreserved stock"))
+                .when(reservationService).takeForAdjustment(1L, 7);
+
+        // Act
+        int quantity = productService.adjustQuantity(1L, -2);
+
+        // Assert
+        assertEquals(1, quantity);
+        assertThrows(ProductConflictException.class, () -> productService.adjustQuantity(1L, -5));
+        assertThrows(ProductNotFoundException.class, () -> productService.adjustQuantity(2L, 1));
+        assertThrows(ProductConflictException.class, () -> productService.adjustQuantity(1L, -7));
+
+        // Verify
+        verify(productRepository, never()).findById(anyLong());
+        verify(reservationService, times(1)).takeForAdjustment(1L, 2);
+        verify(reservationService, never()).takeForAdjustment(eq(2L), anyInt());
+        verify(productRepository, never()).adjustQuantity(1L, -7);
+    }
+
+    // Test that a multi-get serves cached ids, loads the rest in one query and reports missing ids
+    @Test
+    void testGetProductsByIds() {
+        // Arrange
+        productCache.put(new Product(1L, "Wax", 44.00, 3, null, new HashSet<>()));
+        Product loaded = new Product(2L, "Fax", 64.00, 2, null, new HashSet<>());
+        when(productRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(loaded));
+
+        // Act
+        ProductBatch batch = productService.getProductsByIds(Arrays.asList(2L, 1L, 3L, 2L));
+
+        // Assert
+        assertEquals(List.of(2L, 1L), batch.found().stream().map(ProductDetail::id).toList());
+        assertEquals(List.of(3L), batch.missing());
+
+        // Verify
+        verify(productRepository, times(1)).findAllById(anyIterable());
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    // Test that every mutation is recorded in the outbox
+    @Test
+    void testMutations_areRecordedInOutbox() {
+        // Arrange
+        Product product = new Product(1L, "Wax", 44.00, 3, null, new HashSet<>());
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        productService.addProduct(product);
+        productService.deleteProduct(1L);
+
+        // Verify
+        verify(outbox).recordSaved(ProductChange.Type.CREATED, product);
+        verify(outbox).recordDeleted(1L);
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(1L));
+    }
+
+    // Test that a call rejected by the open circuit breaker degrades to an empty list
+    @Test
+    void testGetExtProducts_whenCircuitOpen() {
+        // Arrange
+        when(externalCatalogClient.fetchUsers())
+                .thenReturn(Mono.error(new CallNotPermittedException("Circuit breaker is open")));
+
+        // Act
+        List<Object> users = productService.getExtProducts().block();
+
+        // Assert
+        assertEquals(List.of(), users);
+    }
 }
@@ -0,0 +1,64 @@
+package orgd.dinuka.productservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import orgd.dinuka.productservice.dto.ProductDetail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Streams stored products through a real persistence context and counts the statements it takes
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stream;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:stream-products.sql",
+        "product.reactive.url=r2dbc:h2:mem:///stream?options=DB_CLOSE_DELAY=-1",
+        "product.reactive.username=sa",
+        "product.reactive.password=",
+        "product.rate-limit.enabled=false",
+        "product.reservation.log-file=${java.io.tmpdir}/stream-test-${random.uuid}.log",
+        // Statistics are global, so the scheduled jobs that query on their own must stay quiet meanwhile
+        "product.outbox.relay-interval=PT1H",
+        "product.reservation.write-back-interval=PT1H",
+        "product.reservation.expiry-interval=PT1H"
+})
+public class ProductStreamContextTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Test that streaming fetches the tags of a batch of products in one query rather than one per product
+    @Test
+    void testStreamAll_fetchesTagsPerBatch() {
+        // Arrange
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ProductDetail> streamed = new ArrayList<>();
+
+        // Act
+        productService.streamAll(product -> streamed.add(ProductDetail.of(product)));
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), streamed.stream().map(ProductDetail::id).toList());
+        assertEquals(2, streamed.get(0).tags().size());
+        assertEquals("Home", streamed.get(3).tags().get(0).name());
+        // The product scan and one tag batch
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getCollectionFetchCount());
+    }
+}
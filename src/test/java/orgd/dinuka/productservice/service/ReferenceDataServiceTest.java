@@ -0,0 +1,126 @@
+package orgd.dinuka.productservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import orgd.dinuka.productservice.cache.ProductCache;
+import orgd.dinuka.productservice.dao.CategoryRepository;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dao.TagRepository;
+import orgd.dinuka.productservice.dto.ProductDetail.CategoryRef;
+import orgd.dinuka.productservice.dto.ProductDetail.TagRef;
+import orgd.dinuka.productservice.entity.Category;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductChange;
+import orgd.dinuka.productservice.entity.Tag;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+import orgd.dinuka.productservice.index.CategoryAggregates;
+import orgd.dinuka.productservice.outbox.ProductOutbox;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReferenceDataServiceTest {
+
+    @InjectMocks
+    private ReferenceDataService referenceDataService;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductOutbox outbox;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private CategoryAggregates categoryAggregates;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    // Test that categories are listed through the cached query
+    @Test
+    void testGetCategories() {
+        // Arrange
+        when(categoryRepository.findAllByOrderByIdAsc()).thenReturn(List.of(
+                new Category(1L, "Care", "Personal care", new ArrayList<>()),
+                new Category(2L, "Food", null, new ArrayList<>())));
+
+        // Act
+        List<CategoryRef> categories = referenceDataService.getCategories();
+
+        // Assert
+        assertEquals(List.of(new CategoryRef(1L, "Care", "Personal care"), new CategoryRef(2L, "Food", null)),
+                categories);
+    }
+
+    // Test that a category edit records an update for each of its products, evicts their snapshots and renames the
+    // category in the aggregates
+    @Test
+    void testUpdateCategory_refreshesDerivedData() {
+        // Arrange
+        Category existing = new Category(1L, "Care", "Personal care", new ArrayList<>());
+        Product soap = new Product(4L, "Soap", 2.50, 10, existing, new HashSet<>());
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(productRepository.findForUpdateByCategoryId(1L)).thenReturn(List.of(soap));
+
+        // Act
+        CategoryRef updated = referenceDataService.updateCategory(1L,
+                new Category(null, "Self care", "Soap and such", new ArrayList<>()));
+
+        // Assert
+        assertEquals(new CategoryRef(1L, "Self care", "Soap and such"), updated);
+        assertEquals("Self care", existing.getName());
+
+        // Verify
+        verify(outbox, times(1)).recordSaved(ProductChange.Type.UPDATED, soap);
+        verify(productCache, times(1)).evict(4L);
+        verify(categoryAggregates, times(1)).onCategoryRenamed(1L, "Self care");
+    }
+
+    // Test that editing a tag that does not exist is a 404 and touches no cache
+    @Test
+    void testUpdateTag_missing() {
+        // Arrange
+        when(tagRepository.findById(9L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> referenceDataService.updateTag(9L, new Tag(null, "Organic", new HashSet<>())));
+        assertThrows(ResourceNotFoundException.class, () -> referenceDataService.getTag(9L));
+
+        // Verify
+        verify(productRepository, never()).findForUpdateByTagId(anyLong());
+        verifyNoInteractions(outbox, productCache);
+    }
+
+    // Test that a tag is read by id
+    @Test
+    void testGetTag() {
+        // Arrange
+        when(tagRepository.findById(3L)).thenReturn(Optional.of(new Tag(3L, "Organic", new HashSet<>())));
+
+        // Act
+        TagRef tag = referenceDataService.getTag(3L);
+
+        // Assert
+        assertEquals(new TagRef(3L, "Organic"), tag);
+    }
+}
@@ -0,0 +1,140 @@
+package orgd.dinuka.productservice.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import orgd.dinuka.productservice.dao.ProductRepository;
+import orgd.dinuka.productservice.dao.ProductSupplierRepository;
+import orgd.dinuka.productservice.dao.SupplierRepository;
+import orgd.dinuka.productservice.dto.SupplierDetail;
+import orgd.dinuka.productservice.dto.SupplierOffer;
+import orgd.dinuka.productservice.entity.Address;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.entity.ProductSupplier;
+import orgd.dinuka.productservice.entity.Supplier;
+import orgd.dinuka.productservice.exception.ProductNotFoundException;
+import orgd.dinuka.productservice.exception.ResourceNotFoundException;
+import orgd.dinuka.productservice.index.SupplierPostalCodeIndex;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class SupplierServiceTest {
+
+    @InjectMocks
+    private SupplierService supplierService;
+
+    @Mock
+    private SupplierRepository supplierRepository;
+
+    @Mock
+    private ProductSupplierRepository offerRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private SupplierPostalCodeIndex postalCodeIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    // Test that a postal code search loads the index's suppliers in one query and keeps the index order
+    @Test
+    void testFindByPostalCodePrefix_usesIndexOrder() {
+        // Arrange
+        when(postalCodeIndex.findByPrefix("SW1", 20)).thenReturn(Optional.of(List.of(2L, 1L)));
+        when(supplierRepository.findAllWithAddressByIdIn(anyCollection()))
+                .thenReturn(List.of(supplier(1L, "SW1A 1AA"), supplier(2L, "SW1 2AB")));
+
+        // Act
+        List<SupplierDetail> suppliers = supplierService.findByPostalCodePrefix(" sw1", 0);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), suppliers.stream().map(SupplierDetail::id).toList());
+        assertEquals("SW1 2AB", suppliers.get(0).address().postalCode());
+
+        // Verify
+        verify(supplierRepository, times(1)).findAllWithAddressByIdIn(List.of(2L, 1L));
+        verify(supplierRepository, never()).findWithAddressByPostalCodePrefix(anyString(), any(Limit.class));
+    }
+
+    // Test that the search falls back to a range query while the index is loading
+    @Test
+    void testFindByPostalCodePrefix_fallsBackToDatabase() {
+        // Arrange
+        when(postalCodeIndex.findByPrefix("1_", 5)).thenReturn(Optional.empty());
+        when(supplierRepository.findWithAddressByPostalCodePrefix("1!_%", Limit.of(5)))
+                .thenReturn(List.of(supplier(1L, "1_00")));
+
+        // Act
+        List<SupplierDetail> suppliers = supplierService.findByPostalCodePrefix("1_", 5);
+
+        // Assert
+        assertEquals(1, suppliers.size());
+        assertThrows(IllegalArgumentException.class, () -> supplierService.findByPostalCodePrefix("  ", 5));
+    }
+
+    // Test that the cheapest in-stock offer is the first row of a one-row query, and 404 when there is none
+    @Test
+    void testGetCheapestInStockOffer() {
+        // Arrange
+        Product product = new Product(7L, "Wax", 44.00, 3, null, new HashSet<>());
+        ProductSupplier offer = new ProductSupplier(product, supplier(1L, "10115"), 12.5, 4);
+        when(offerRepository.findInStockByProductId(7L, Limit.of(1))).thenReturn(List.of(offer));
+
+        // Act
+        SupplierOffer cheapest = supplierService.getCheapestInStockOffer(7L);
+
+        // Assert
+        assertEquals(12.5, cheapest.unitPrice());
+        assertEquals(1L, cheapest.supplier().id());
+        assertThrows(ResourceNotFoundException.class, () -> supplierService.getCheapestInStockOffer(8L));
+    }
+
+    // Test that linking updates an existing offer in place and refuses unknown products
+    @Test
+    void testLinkProduct() {
+        // Arrange
+        Supplier supplier = supplier(1L, "10115");
+        ProductSupplier existing = new ProductSupplier(new Product(7L, "Wax", 44.00, 3, null, new HashSet<>()),
+                supplier, 10, 1);
+        when(supplierRepository.findWithAddressById(1L)).thenReturn(Optional.of(supplier));
+        when(offerRepository.findByProductIdAndSupplierId(7L, 1L)).thenReturn(Optional.of(existing));
+        when(offerRepository.save(any(ProductSupplier.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        SupplierOffer offer = supplierService.linkProduct(1L, 7L, 9.5, 20);
+
+        // Assert
+        assertEquals(9.5, offer.unitPrice());
+        assertEquals(20, offer.stock());
+        assertThrows(ProductNotFoundException.class, () -> supplierService.linkProduct(1L, 8L, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> supplierService.linkProduct(1L, 7L, -1, 1));
+
+        // Verify
+        verify(offerRepository, times(1)).save(existing);
+    }
+
+    private static Supplier supplier(Long id, String postalCode) {
+        Supplier supplier = new Supplier("Supplier " + id, "555-0100", new Address("1 Main", "Main St", null, postalCode));
+        supplier.setId(id);
+        return supplier;
+    }
+}
@@ -0,0 +1,46 @@
+package orgd.dinuka.productservice.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import orgd.dinuka.productservice.cache.ProductCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the warm-up as an application runner in a real context, outside any request, with products already stored
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:warmup-products.sql",
+        "product.reactive.url=r2dbc:h2:mem:///warmup?options=DB_CLOSE_DELAY=-1",
+        "product.reactive.username=sa",
+        "product.reactive.password=",
+        "product.rate-limit.enabled=false",
+        "product.reservation.log-file=${java.io.tmpdir}/warmup-test-${random.uuid}.log",
+        "product.warmup.enabled=true",
+        "product.warmup.hot-ids-file=${java.io.tmpdir}/warmup-test-${random.uuid}",
+        "product.warmup.iterations=1"
+})
+public class StartupWarmupContextTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductCache productCache;
+
+    // Test that the warm-up samples stored products and calls the read endpoints before the context is ready
+    @Test
+    void testWarmupRunsAgainstStoredProducts() {
+        // Assert
+        assertNotNull(meterRegistry.find(StartupWarmup.WARMUP_GAUGE).timeGauge());
+        // The get-by-id call of the warm-up round went through the product cache
+        assertTrue(productCache.getCachedVersion(1L).isPresent());
+    }
+}
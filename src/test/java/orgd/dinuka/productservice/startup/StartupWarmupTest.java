@@ -0,0 +1,103 @@
+package orgd.dinuka.productservice.startup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationContext;
+import orgd.dinuka.productservice.cache.ProductCache;
+import orgd.dinuka.productservice.dto.ProductBatch;
+import orgd.dinuka.productservice.dto.ProductDetail;
+import orgd.dinuka.productservice.dto.ProductPage;
+import orgd.dinuka.productservice.entity.Product;
+import orgd.dinuka.productservice.service.ProductService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StartupWarmupTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path directory;
+
+    // Test that the ids saved at shutdown are loaded again, hottest first, at most preload-size of them
+    @Test
+    void testPreloadHotProducts_roundTrip() throws IOException {
+        // Arrange
+        Path hotIdsFile = directory.resolve("hot-ids");
+        productCache.put(new Product(1L, "TV", 500.0, 10, null, new HashSet<>()));
+        productCache.put(new Product(2L, "Radio", 50.0, 3, null, new HashSet<>()));
+        StartupWarmup warmup = newWarmup(hotIdsFile, 1);
+        ProductDetail detail = new ProductDetail(1L, "TV", 500.0, 10, 0L, null, List.of());
+        when(productService.getProductsByIds(anyList())).thenReturn(new ProductBatch(List.of(detail), List.of()));
+
+        // Act
+        warmup.saveHotIds();
+        int preloaded = warmup.preloadHotProducts();
+
+        // Assert
+        assertEquals(1, Files.readAllLines(hotIdsFile).size());
+        assertEquals(1, preloaded);
+        verify(productService).getProductsByIds(List.of(Long.valueOf(Files.readAllLines(hotIdsFile).get(0))));
+    }
+
+    // Test that nothing is preloaded on a first start, when no ids were saved yet
+    @Test
+    void testPreloadHotProducts_withoutSavedIds() {
+        // Arrange
+        StartupWarmup warmup = newWarmup(directory.resolve("missing"), 100);
+
+        // Act
+        int preloaded = warmup.preloadHotProducts();
+
+        // Assert
+        assertEquals(0, preloaded);
+        verifyNoInteractions(productService);
+    }
+
+    // Test that the warm-up calls cover the read endpoints for a sample product, skipping the by-name route for numeric names
+    @Test
+    void testWarmupPaths() {
+        // Arrange
+        StartupWarmup warmup = newWarmup(directory.resolve("hot-ids"), 100);
+        when(productService.getPage(null, 20)).thenReturn(new ProductPage(List.of(
+                new ProductDetail(7L, "42", 1.0, 1, 0L, null, List.of()),
+                new ProductDetail(8L, "Cable", 1.0, 1, 0L, null, List.of())), null));
+
+        // Act
+        List<String> paths = warmup.warmupPaths();
+
+        // Assert
+        assertEquals(List.of("/product/page?limit=20", "/product/get/7", "/product/get/7?view=summary",
+                "/product/batch?ids=7,8", "/product/search?prefix=42"), paths);
+    }
+
+    // Test that the warm-up time is published once the runner has finished
+    @Test
+    void testRun_publishesGauges() {
+        // Arrange
+        StartupWarmup warmup = newWarmup(directory.resolve("missing"), 100);
+
+        // Act
+        warmup.run(null);
+
+        // Assert
+        assertTrue(meterRegistry.get(StartupWarmup.WARMUP_GAUGE).timeGauge().value() >= 0);
+        assertTrue(Double.isNaN(meterRegistry.get(StartupWarmup.FIRST_FAST_REQUEST_GAUGE).timeGauge().value()));
+    }
+
+    private StartupWarmup newWarmup(Path hotIdsFile, int preloadSize) {
+        return new StartupWarmup(productService, productCache, mock(ApplicationContext.class), meterRegistry,
+                hotIdsFile, preloadSize, 10, Duration.ofMillis(20), Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,4 @@
+-- A category for bulk rows to reference by id, and an uncategorized product to update, with an id past those the
+-- first allocated sequence block hands out
+insert into category (id, category_name, description) values (1, 'Electronics', 'Electronic items');
+insert into product (id, name, normalized_name, price, quantity, version, category_id) values (900, 'Lamp', 'lamp', 20, 5, 0, null);
@@ -0,0 +1,15 @@
+-- Five tagged products, enough that fetching tags per product would show against fetching them per batch
+insert into category (id, category_name, description) values (1, 'Electronics', 'Electronic items');
+insert into tag (id, name) values (1, 'Gadgets');
+insert into tag (id, name) values (2, 'Home');
+insert into product (id, name, normalized_name, price, quantity, version, category_id) values (1, 'TV', 'tv', 500, 10, 0, 1);
+insert into product (id, name, normalized_name, price, quantity, version, category_id) values (2, 'Radio', 'radio', 50, 3, 0, 1);
+insert into product (id, name, normalized_name, price, quantity, version, category_id) values (3, 'Lamp', 'lamp', 20, 7, 0, null);
+insert into product (id, name, normalized_name, price, quantity, version, category_id) values (4, 'Kettle', 'kettle', 30, 2, 0, null);
+insert into product (id, name, normalized_name, price, quantity, version, category_id) values (5, 'Fan', 'fan', 40, 4, 0, 1);
+insert into product_tag (product_id, tag_id) values (1, 1);
+insert into product_tag (product_id, tag_id) values (1, 2);
+insert into product_tag (product_id, tag_id) values (2, 1);
+insert into product_tag (product_id, tag_id) values (3, 2);
+insert into product_tag (product_id, tag_id) values (4, 2);
+insert into product_tag (product_id, tag_id) values (5, 1);
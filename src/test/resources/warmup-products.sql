@@ -0,0 +1,9 @@
+-- Products the warm-up finds on start, with a category and lazily loaded tags
+insert into category (id, category_name, description) values (1, 'Electronics', 'Electronic items');
+insert into tag (id, name) values (1, 'Gadgets');
+insert into tag (id, name) values (2, 'Home');
+insert into product (id, name, normalized_name, price, quantity, version, category_id) values (1, 'TV', 'tv', 500, 10, 0, 1);
+insert into product (id, name, normalized_name, price, quantity, version, category_id) values (2, 'Radio', 'radio', 50, 3, 0, 1);
+insert into product_tag (product_id, tag_id) values (1, 1);
+insert into product_tag (product_id, tag_id) values (1, 2);
+insert into product_tag (product_id, tag_id) values (2, 1);